@@ -0,0 +1,107 @@
+package benchmark;
+
+import constant.Status;
+import constant.TaskType;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import repository.AllTasksRepository;
+import repository.ColumnarTaskStore;
+import repository.HeapTaskStore;
+import repository.OffHeapTaskStore;
+import repository.TaskStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retained heap per task of the task stores, alone and behind a full repository. Run one mode per JVM, e.g.
+ * {@code java -Xms4g -Xmx4g benchmark.TaskStoreMemoryBenchmark columnar-repository 1000000}. Modes: heap-store,
+ * columnar-store, off-heap-store, heap-repository, columnar-repository, off-heap-repository.
+ */
+public class TaskStoreMemoryBenchmark {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "heap-repository";
+        int tasksCount = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        long usedBefore = getUsedMemory();
+        Object retained = mode.endsWith("-store")
+                ? fillStore(mode, createTasks(tasksCount))
+                : fillRepository(mode, createTasks(tasksCount));
+        long usedAfter = getUsedMemory();
+
+        System.out.printf("%s: %d tasks, %.0f B/task%n", mode, tasksCount,
+                (usedAfter - usedBefore) / (double) tasksCount);
+        System.out.println(retained.getClass().getSimpleName());
+    }
+
+    private static TaskStore fillStore(String mode, List<Task> tasks) {
+        TaskStore taskStore = createTaskStore(mode.substring(0, mode.length() - "-store".length()));
+        for (Task task : tasks) {
+            taskStore.put(task.getId(), task, TaskType.valueOf(task.getTaskTypeUpperCase()));
+        }
+        return taskStore;
+    }
+
+    private static AllTasksRepository fillRepository(String mode, List<Task> tasks) {
+        AllTasksRepository allTasksRepository = new AllTasksRepository(
+                createTaskStore(mode.substring(0, mode.length() - "-repository".length())));
+        allTasksRepository.addTasks(tasks);
+        return allTasksRepository;
+    }
+
+    private static TaskStore createTaskStore(String storeType) {
+        switch (storeType) {
+            case "heap":
+                return new HeapTaskStore();
+            case "columnar":
+                return new ColumnarTaskStore();
+            case "off-heap":
+                return new OffHeapTaskStore();
+            default:
+                throw new IllegalArgumentException("Unknown task store: " + storeType);
+        }
+    }
+
+    /**
+     * Tasks with distinct ids and non-overlapping hourly slots, so the whole list is one valid batch. The list
+     * is dropped after filling, so only what the store or repository retains is measured.
+     */
+    private static List<Task> createTasks(int tasksCount) {
+        List<Task> tasks = new ArrayList<>(tasksCount);
+        int epicId = 0;
+        for (int i = 0; i < tasksCount; i++) {
+            int id = i + 1;
+            Status status = Status.values()[i % Status.values().length];
+            LocalDateTime startTime = START_TIME.plusHours(i);
+            if (i % 10 == 0) {
+                epicId = id;
+                tasks.add(new Epic(id, "Epic " + i, "Description of epic " + i, Status.NEW));
+            } else if (i % 10 < 5) {
+                tasks.add(new Subtask(id, "Subtask " + i, "Description of subtask " + i, status, epicId,
+                        startTime, 30));
+            } else {
+                tasks.add(new Task(id, "Task " + i, "Description of task " + i, status,
+                        i % 7 == 0 ? null : startTime, 30));
+            }
+        }
+        return tasks;
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -10,6 +10,7 @@ public class Constants {
     public static final int TASK_DATA_START_INDEX_AFTER_HEADER = 1;
     public static final String CSV_DELIMITER = ",";
     public static final String HISTORY_SEPARATOR = "";
+    public static final String DEPENDENCY_DELIMITER = ":";
     public static final int UNASSIGNED_TASK_ID = 0;
     public static final String TASK_FILE_NAME = "file_with_tasks.csv";
     public static final Path TASK_FILE_PATH = Paths.get(TASK_FILE_NAME);
@@ -22,4 +23,14 @@ public class Constants {
     public static final String DEFAULT_NULL_TASK_START_TIME_STRING = "null";
     public static final LocalDateTime DEFAULT_NULL_TASK_END_TIME = null;
     public static final String KV_SERVER_URL = "http://localhost:8078";
+    public static final int DEFAULT_HISTORY_CAPACITY = 10_000;
+    public static final int DEFAULT_USER_HISTORY_CAPACITY = 20;
+    public static final int DEFAULT_USER_HISTORY_IDLE_TIMEOUT_IN_MINUTES = 24 * 60;
+    public static final int HISTORY_RECORDING_QUEUE_CAPACITY = 4096;
+    public static final int HISTORY_RECORDING_BATCH_SIZE = 256;
+    public static final int HOT_TASKS_SKETCH_DEPTH = 4;
+    public static final int HOT_TASKS_SKETCH_WIDTH = 2048;
+    public static final int HOT_TASKS_CAPACITY = 100;
+    public static final int MAX_TASK_BOARDS = 1000;
+    public static final int TASK_BOARD_IDLE_TIMEOUT_IN_MINUTES = 60;
 }
@@ -0,0 +1,10 @@
+package constant;
+
+public enum TaskChangeType {
+    CREATED,
+    UPDATED,
+    DELETED,
+    EPIC_ROLLED_UP,
+    ARCHIVED,
+    RESTORED
+}
@@ -0,0 +1,8 @@
+package exception;
+
+public class BoardLimitExceededException extends RuntimeException {
+
+    public BoardLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package exception;
+
+public class DependencyCycleException extends RuntimeException {
+
+    public DependencyCycleException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,37 @@
+package formatter;
+
+import model.Task;
+import service.TaskManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static constant.Constants.CSV_DELIMITER;
+import static constant.Constants.DEPENDENCY_DELIMITER;
+
+/**
+ * Writes dependency edges as {@code taskId:blockedByTaskId} pairs separated by commas.
+ */
+public class DependencyFormatter {
+
+    public static String dependenciesToString(TaskManager manager) {
+        List<String> dependencies = new ArrayList<>();
+        for (Task task : manager.getAllTasks()) {
+            for (int blockedByTaskId : manager.getDependencies(task.getId())) {
+                dependencies.add(task.getId() + DEPENDENCY_DELIMITER + blockedByTaskId);
+            }
+        }
+        return String.join(CSV_DELIMITER, dependencies);
+    }
+
+    public static List<int[]> dependenciesFromString(String value) {
+        return Arrays.stream(value.split(CSV_DELIMITER))
+                .filter(dependency -> !dependency.isEmpty())
+                .map(dependency -> Arrays.stream(dependency.split(DEPENDENCY_DELIMITER))
+                        .mapToInt(Integer::parseInt)
+                        .toArray())
+                .collect(Collectors.toList());
+    }
+}
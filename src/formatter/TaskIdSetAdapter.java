@@ -0,0 +1,40 @@
+package formatter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.TaskIdSet;
+
+import java.io.IOException;
+
+public class TaskIdSetAdapter extends TypeAdapter<TaskIdSet> {
+
+    @Override
+    public void write(JsonWriter jsonWriter, TaskIdSet taskIdSet) throws IOException {
+        if (taskIdSet == null) {
+            jsonWriter.nullValue();
+            return;
+        }
+        jsonWriter.beginArray();
+        for (int id : taskIdSet.toArray()) {
+            jsonWriter.value(id);
+        }
+        jsonWriter.endArray();
+    }
+
+    @Override
+    public TaskIdSet read(JsonReader jsonReader) throws IOException {
+        if (jsonReader.peek() == JsonToken.NULL) {
+            jsonReader.nextNull();
+            return null;
+        }
+        TaskIdSet taskIdSet = new TaskIdSet();
+        jsonReader.beginArray();
+        while (jsonReader.hasNext()) {
+            taskIdSet.add(jsonReader.nextInt());
+        }
+        jsonReader.endArray();
+        return taskIdSet;
+    }
+}
@@ -3,13 +3,13 @@ package model;
 import constant.Status;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 
 @TaskTypeAnnotation("EPIC")
 public class Epic extends Task {
-    private List<Integer> subtaskIdList = new ArrayList<>();
+    private TaskIdSet subtaskIdList = new TaskIdSet();
     private LocalDateTime endTime = null;
+    private int parentEpicId;
 
     public Epic(String name, String description) {
         super(name, description, Status.NEW);
@@ -23,10 +23,29 @@ public class Epic extends Task {
         super(name, description, status);
     }
 
-    public List<Integer> getSubtaskIdList() {
+    public TaskIdSet getSubtaskIds() {
+        if (subtaskIdList == null) {
+            subtaskIdList = new TaskIdSet();
+        }
         return subtaskIdList;
     }
 
+    public void setSubtaskIds(TaskIdSet subtaskIds) {
+        this.subtaskIdList = subtaskIds;
+    }
+
+    public List<Integer> getSubtaskIdList() {
+        return getSubtaskIds().asList();
+    }
+
+    public int getParentEpicId() {
+        return parentEpicId;
+    }
+
+    public void setParentEpicId(int parentEpicId) {
+        this.parentEpicId = parentEpicId;
+    }
+
     @Override
     public LocalDateTime getEndTime() {
         return endTime;
@@ -36,10 +55,20 @@ public class Epic extends Task {
         this.endTime = endTime;
     }
 
+    @Override
+    public String toCsvString() {
+        StringBuilder csvString = new StringBuilder(super.toCsvString());
+        if (parentEpicId != 0) {
+            csvString.append(parentEpicId);
+        }
+        return csvString.toString();
+    }
+
     @Override
     public String toString() {
         return "Epic{" + super.toString() +
                 " subtaskIdList=" + subtaskIdList +
+                ", parentEpicId=" + parentEpicId +
                 '}';
     }
 }
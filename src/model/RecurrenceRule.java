@@ -0,0 +1,149 @@
+package model;
+
+import constant.RecurrenceFrequency;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Repeats a task every {@code interval} days or weeks from its start time, up to {@code until} inclusive
+ * when it is set. Occurrences are never stored: they are computed on demand, and only the start times of
+ * skipped occurrences are kept.
+ */
+public class RecurrenceRule {
+    private final RecurrenceFrequency frequency;
+    private final int interval;
+    private final LocalDateTime until;
+    private Set<LocalDateTime> excludedStartTimes;
+
+    public RecurrenceRule(RecurrenceFrequency frequency, int interval) {
+        this(frequency, interval, null);
+    }
+
+    public RecurrenceRule(RecurrenceFrequency frequency, int interval, LocalDateTime until) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.until = until;
+        this.excludedStartTimes = new HashSet<>();
+        validate();
+    }
+
+    /**
+     * Throws {@link IllegalArgumentException} unless the rule has a frequency and a positive interval whose
+     * period fits in an {@code int} of days. Rules read by Gson bypass the constructor, so the repository
+     * calls it again before it uses a rule.
+     */
+    public void validate() {
+        if (frequency == null || interval <= 0) {
+            throw new IllegalArgumentException("Recurrence needs a frequency and a positive interval");
+        }
+        if (interval > Integer.MAX_VALUE / frequency.getDays()) {
+            throw new IllegalArgumentException("Recurrence interval is too large: " + interval);
+        }
+    }
+
+    public RecurrenceFrequency getFrequency() {
+        return frequency;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public LocalDateTime getUntil() {
+        return until;
+    }
+
+    public int getPeriodInDays() {
+        return frequency.getDays() * interval;
+    }
+
+    public Set<LocalDateTime> getExcludedStartTimes() {
+        return excludedStartTimes != null ? Collections.unmodifiableSet(excludedStartTimes) : Set.of();
+    }
+
+    public void excludeOccurrence(LocalDateTime startTime) {
+        if (excludedStartTimes == null) {
+            excludedStartTimes = new HashSet<>();
+        }
+        excludedStartTimes.add(startTime);
+    }
+
+    public boolean isExcluded(LocalDateTime startTime) {
+        return excludedStartTimes != null && excludedStartTimes.contains(startTime);
+    }
+
+    /**
+     * Iterates over the start times of the occurrences of a series starting at {@code firstStartTime},
+     * beginning with the first one not before {@code fromStartTime}. The iterator is endless unless the
+     * rule has an {@code until} bound, so callers stop it at the end of their window.
+     */
+    public Iterator<LocalDateTime> occurrences(LocalDateTime firstStartTime, LocalDateTime fromStartTime) {
+        long periodInDays = getPeriodInDays();
+        LocalDateTime firstCandidate = firstStartTime;
+        if (fromStartTime != null && fromStartTime.isAfter(firstStartTime)) {
+            long skippedPeriods = ChronoUnit.DAYS.between(firstStartTime, fromStartTime) / periodInDays;
+            firstCandidate = firstStartTime.plusDays(skippedPeriods * periodInDays);
+            if (firstCandidate.isBefore(fromStartTime)) {
+                firstCandidate = firstCandidate.plusDays(periodInDays);
+            }
+        }
+        LocalDateTime firstOccurrenceStartTime = firstCandidate;
+
+        return new Iterator<>() {
+            private LocalDateTime nextStartTime = skipExcluded(firstOccurrenceStartTime);
+
+            @Override
+            public boolean hasNext() {
+                return nextStartTime != null;
+            }
+
+            @Override
+            public LocalDateTime next() {
+                if (nextStartTime == null) {
+                    throw new NoSuchElementException();
+                }
+                LocalDateTime startTime = nextStartTime;
+                nextStartTime = skipExcluded(startTime.plusDays(periodInDays));
+                return startTime;
+            }
+
+            private LocalDateTime skipExcluded(LocalDateTime startTime) {
+                while (isExcluded(startTime)) {
+                    startTime = startTime.plusDays(periodInDays);
+                }
+                return until == null || !startTime.isAfter(until) ? startTime : null;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecurrenceRule that = (RecurrenceRule) o;
+        return interval == that.interval && frequency == that.frequency && Objects.equals(until, that.until)
+                && getExcludedStartTimes().equals(that.getExcludedStartTimes());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(frequency, interval, until);
+    }
+
+    @Override
+    public String toString() {
+        return "RecurrenceRule{" +
+                "frequency=" + frequency +
+                ", interval=" + interval +
+                ", until=" + until +
+                ", excludedStartTimes=" + getExcludedStartTimes() +
+                '}';
+    }
+}
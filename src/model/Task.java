@@ -17,6 +17,8 @@ public class Task {
     private String description;
     private int durationInMinutes;
     private LocalDateTime startTime;
+    private int version;
+    private RecurrenceRule recurrenceRule;
 
     public Task(String name, String description) {
         this(name, description, Status.NEW);
@@ -34,7 +36,8 @@ public class Task {
         this(id, name, description, status, DEFAULT_TASK_START_TIME, DEFAULT_TASK_DURATION_IN_MINUTES);
     }
 
-    public Task(int id, String name, String description, Status status, LocalDateTime startTime, int durationInMinutes) {
+    public Task(int id, String name, String description, Status status, LocalDateTime startTime,
+                int durationInMinutes) {
         this.id = id;
         this.name = name;
         this.status = status;
@@ -91,6 +94,22 @@ public class Task {
         this.startTime = startTime;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public RecurrenceRule getRecurrenceRule() {
+        return recurrenceRule;
+    }
+
+    public void setRecurrenceRule(RecurrenceRule recurrenceRule) {
+        this.recurrenceRule = recurrenceRule;
+    }
+
     public String getTaskTypeUpperCase() {
         return getClass().getSimpleName().toUpperCase();
     }
@@ -117,7 +136,8 @@ public class Task {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Task task = (Task) o;
-        return id == task.id && Objects.equals(name, task.name) && status == task.status && Objects.equals(description, task.description);
+        return id == task.id && Objects.equals(name, task.name) && status == task.status
+                && Objects.equals(description, task.description);
     }
 
     @Override
@@ -0,0 +1,59 @@
+package model;
+
+import constant.TaskChangeType;
+import constant.TaskType;
+
+public class TaskChangeEvent {
+    private final TaskChangeType changeType;
+    private final int taskId;
+    private final TaskType taskType;
+    private final int epicId;
+    private final int previousVersion;
+    private final int version;
+
+    public TaskChangeEvent(TaskChangeType changeType, int taskId, TaskType taskType, int epicId,
+                           int previousVersion, int version) {
+        this.changeType = changeType;
+        this.taskId = taskId;
+        this.taskType = taskType;
+        this.epicId = epicId;
+        this.previousVersion = previousVersion;
+        this.version = version;
+    }
+
+    public TaskChangeType getChangeType() {
+        return changeType;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public TaskType getTaskType() {
+        return taskType;
+    }
+
+    public int getEpicId() {
+        return epicId;
+    }
+
+    public int getPreviousVersion() {
+        return previousVersion;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskChangeEvent{" +
+                "changeType=" + changeType +
+                ", taskId=" + taskId +
+                ", taskType=" + taskType +
+                ", epicId=" + epicId +
+                ", previousVersion=" + previousVersion +
+                ", version=" + version +
+                '}';
+    }
+}
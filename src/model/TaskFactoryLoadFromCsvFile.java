@@ -48,7 +48,11 @@ public class TaskFactoryLoadFromCsvFile {
                     int epicId = Integer.parseInt(taskFields[EPIC_ID_INDEX]);
                     return new Subtask(id, name, description, status, epicId, startTime, duration);
                 case EPIC:
-                    return new Epic(id, name, description, status);
+                    Epic epic = new Epic(id, name, description, status);
+                    if (taskFields.length > EPIC_ID_INDEX) {
+                        epic.setParentEpicId(Integer.parseInt(taskFields[EPIC_ID_INDEX]));
+                    }
+                    return epic;
                 default:
                     throw new ManageFileNotWellFormedException("Error: Unknown task type.");
             }
@@ -0,0 +1,191 @@
+package model;
+
+import com.google.gson.annotations.JsonAdapter;
+import formatter.TaskIdSetAdapter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Insertion-ordered set of task ids backed by primitive arrays, with O(1) membership checks and removals.
+ * Reads never modify the set.
+ */
+@JsonAdapter(TaskIdSetAdapter.class)
+public class TaskIdSet {
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int REMOVED_ID = Integer.MIN_VALUE;
+    private static final int EMPTY_SLOT = 0;
+    private static final int DELETED_SLOT = -1;
+
+    private int[] ids;
+    private int[] positionTable;
+    private int usedPositions;
+    private int size;
+    private int deletedSlots;
+
+    public TaskIdSet() {
+        ids = new int[DEFAULT_CAPACITY];
+        positionTable = new int[DEFAULT_CAPACITY * 2];
+    }
+
+    public boolean add(int id) {
+        if (contains(id)) {
+            return false;
+        }
+        if (usedPositions == ids.length) {
+            if (size < usedPositions / 2) {
+                compact();
+            } else {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+            }
+        }
+        if ((size + deletedSlots + 1) * 2 > positionTable.length) {
+            rebuildPositionTable(Math.max(positionTable.length, Integer.highestOneBit(ids.length) * 4));
+        }
+
+        ids[usedPositions] = id;
+        insertPosition(id, usedPositions);
+        usedPositions++;
+        size++;
+        return true;
+    }
+
+    public void addAll(TaskIdSet taskIdSet) {
+        taskIdSet.forEach(this::add);
+    }
+
+    public boolean remove(int id) {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+
+        ids[positionTable[slot] - 1] = REMOVED_ID;
+        positionTable[slot] = DELETED_SLOT;
+        deletedSlots++;
+        size--;
+        if (size == 0) {
+            clear();
+        } else if (usedPositions - size > size) {
+            compact();
+        }
+        return true;
+    }
+
+    public boolean contains(int id) {
+        return findSlot(id) >= 0;
+    }
+
+    public int get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (usedPositions == size) {
+            return ids[index];
+        }
+        int liveIndex = 0;
+        for (int i = 0; ; i++) {
+            if (ids[i] != REMOVED_ID && liveIndex++ == index) {
+                return ids[i];
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(positionTable, EMPTY_SLOT);
+        usedPositions = 0;
+        size = 0;
+        deletedSlots = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < usedPositions; i++) {
+            if (ids[i] != REMOVED_ID) {
+                action.accept(ids[i]);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int i = 0; i < usedPositions; i++) {
+            if (ids[i] != REMOVED_ID) {
+                result[index++] = ids[i];
+            }
+        }
+        return result;
+    }
+
+    public List<Integer> asList() {
+        List<Integer> list = new ArrayList<>(size);
+        forEach(list::add);
+        return list;
+    }
+
+    private int findSlot(int id) {
+        int mask = positionTable.length - 1;
+        int slot = hash(id) & mask;
+        while (positionTable[slot] != EMPTY_SLOT) {
+            if (positionTable[slot] != DELETED_SLOT && ids[positionTable[slot] - 1] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void insertPosition(int id, int position) {
+        int mask = positionTable.length - 1;
+        int slot = hash(id) & mask;
+        while (positionTable[slot] != EMPTY_SLOT && positionTable[slot] != DELETED_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        if (positionTable[slot] == DELETED_SLOT) {
+            deletedSlots--;
+        }
+        positionTable[slot] = position + 1;
+    }
+
+    private void compact() {
+        rebuildPositionTable(positionTable.length);
+    }
+
+    private void rebuildPositionTable(int capacity) {
+        if (usedPositions != size) {
+            int livePositions = 0;
+            for (int i = 0; i < usedPositions; i++) {
+                if (ids[i] != REMOVED_ID) {
+                    ids[livePositions++] = ids[i];
+                }
+            }
+            usedPositions = livePositions;
+        }
+        positionTable = new int[capacity];
+        deletedSlots = 0;
+        for (int i = 0; i < usedPositions; i++) {
+            insertPosition(ids[i], i);
+        }
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
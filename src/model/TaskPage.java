@@ -0,0 +1,29 @@
+package model;
+
+import java.util.List;
+
+public class TaskPage {
+    private final List<Task> tasks;
+    private final String nextCursor;
+
+    public TaskPage(List<Task> tasks, String nextCursor) {
+        this.tasks = tasks;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getTasks() {
+        return tasks;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskPage{" +
+                "tasks=" + tasks +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
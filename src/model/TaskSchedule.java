@@ -0,0 +1,34 @@
+package model;
+
+public class TaskSchedule {
+    private final int taskId;
+    private final long earliestStartInMinutes;
+    private final long earliestFinishInMinutes;
+
+    public TaskSchedule(int taskId, long earliestStartInMinutes, long earliestFinishInMinutes) {
+        this.taskId = taskId;
+        this.earliestStartInMinutes = earliestStartInMinutes;
+        this.earliestFinishInMinutes = earliestFinishInMinutes;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public long getEarliestStartInMinutes() {
+        return earliestStartInMinutes;
+    }
+
+    public long getEarliestFinishInMinutes() {
+        return earliestFinishInMinutes;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskSchedule{" +
+                "taskId=" + taskId +
+                ", earliestStartInMinutes=" + earliestStartInMinutes +
+                ", earliestFinishInMinutes=" + earliestFinishInMinutes +
+                '}';
+    }
+}
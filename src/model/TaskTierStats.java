@@ -0,0 +1,34 @@
+package model;
+
+public class TaskTierStats {
+    private final int hotTasksCount;
+    private final int coldTasksCount;
+    private final long archiveFileSizeInBytes;
+
+    public TaskTierStats(int hotTasksCount, int coldTasksCount, long archiveFileSizeInBytes) {
+        this.hotTasksCount = hotTasksCount;
+        this.coldTasksCount = coldTasksCount;
+        this.archiveFileSizeInBytes = archiveFileSizeInBytes;
+    }
+
+    public int getHotTasksCount() {
+        return hotTasksCount;
+    }
+
+    public int getColdTasksCount() {
+        return coldTasksCount;
+    }
+
+    public long getArchiveFileSizeInBytes() {
+        return archiveFileSizeInBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskTierStats{" +
+                "hotTasksCount=" + hotTasksCount +
+                ", coldTasksCount=" + coldTasksCount +
+                ", archiveFileSizeInBytes=" + archiveFileSizeInBytes +
+                '}';
+    }
+}
@@ -0,0 +1,27 @@
+package model;
+
+public class TaskViewCount {
+    private final int taskId;
+    private final long estimatedViewCount;
+
+    public TaskViewCount(int taskId, long estimatedViewCount) {
+        this.taskId = taskId;
+        this.estimatedViewCount = estimatedViewCount;
+    }
+
+    public int getTaskId() {
+        return taskId;
+    }
+
+    public long getEstimatedViewCount() {
+        return estimatedViewCount;
+    }
+
+    @Override
+    public String toString() {
+        return "TaskViewCount{" +
+                "taskId=" + taskId +
+                ", estimatedViewCount=" + estimatedViewCount +
+                '}';
+    }
+}
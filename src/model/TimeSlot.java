@@ -0,0 +1,29 @@
+package model;
+
+import java.time.LocalDateTime;
+
+public class TimeSlot {
+    private final LocalDateTime startTime;
+    private final LocalDateTime endTime;
+
+    public TimeSlot(LocalDateTime startTime, LocalDateTime endTime) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    @Override
+    public String toString() {
+        return "TimeSlot{" +
+                "startTime=" + startTime +
+                ", endTime=" + endTime +
+                '}';
+    }
+}
@@ -1,316 +1,746 @@
 package repository;
 
 import constant.Status;
+import constant.TaskChangeType;
 import constant.TaskType;
+import exception.DependencyCycleException;
 import exception.DuplicateTaskIdException;
 import exception.MissingEpicException;
+import exception.TaskVersionConflictException;
 import exception.TimeOverlapException;
 import model.Epic;
+import model.RecurrenceRule;
 import model.Subtask;
 import model.Task;
-
+import model.TaskChangeEvent;
+import model.TaskIdSet;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TimeSlot;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import static constant.Constants.DEFAULT_NULL_TASK_END_TIME;
 import static constant.Constants.DEFAULT_NULL_TASK_START_TIME;
+import static constant.Constants.DEFAULT_NULL_TASK_START_TIME_STRING;
 import static constant.Constants.DEFAULT_TASK_DURATION_IN_MINUTES;
 import static constant.Constants.DUPLICATE_EPIC_ID;
 import static constant.Constants.DUPLICATE_SUBTASK_ID;
 import static constant.Constants.DUPLICATE_TASK_ID;
 
-public class AllTasksRepository {
-    HashMap<Integer, Task> idToTaskMap;
-    HashMap<Integer, Epic> idToEpicMap;
-    HashMap<Integer, Subtask> idToSubTaskMap;
-    private TreeSet<Task> prioritizedTasksByStartTime;
+public class AllTasksRepository implements TaskRepository {
+    private static final String PRIORITIZED_TASKS_CURSOR_SEPARATOR = "_";
+    private static final long MINUTES_PER_DAY = 24 * 60;
+    private static final Comparator<Task> START_TIME_ORDER =
+            Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId);
+    private final TaskStore taskStore;
+    private final TaskStatusIndex taskStatusIndex;
+    private final TaskSearchIndex taskSearchIndex;
+    private final TreeSet<Integer> unscheduledTaskIds;
+    private final TaskIntervalIndex taskIntervalIndex;
+    private final TaskCalendarIndex taskCalendarIndex;
+    private final RecurringTaskIndex recurringTaskIndex;
+    private final TaskDependencyGraph taskDependencyGraph;
+    private final TaskEventBus taskEventBus;
+    private final HashMap<Integer, EpicRollup> epicIdToRollup;
+    private final HashMap<Integer, TaskIdSet> epicIdToChildEpicIds;
+    private final TaskIdIntMap doneSinceEpochMinutes;
+    private final TaskArchive taskArchive;
+    private final Clock clock;
 
     public AllTasksRepository() {
-        this.idToTaskMap = new HashMap<>();
-        this.idToEpicMap = new HashMap<>();
-        this.idToSubTaskMap = new HashMap<>();
-        this.prioritizedTasksByStartTime = new TreeSet<>((task1, task2) -> {
-            if (task1.getStartTime() == DEFAULT_NULL_TASK_START_TIME && task2.getStartTime() == DEFAULT_NULL_TASK_START_TIME) {
-                return Integer.compare(task1.getId(), task2.getId());
+        this(new HeapTaskStore());
+    }
+
+    public AllTasksRepository(TaskStore taskStore) {
+        this(taskStore, null, Clock.systemDefaultZone());
+    }
+
+    public AllTasksRepository(TaskStore taskStore, TaskArchive taskArchive, Clock clock) {
+        this.taskStore = taskStore;
+        this.taskStatusIndex = new TaskStatusIndex();
+        this.taskSearchIndex = new TaskSearchIndex();
+        this.unscheduledTaskIds = new TreeSet<>();
+        this.taskIntervalIndex = new TaskIntervalIndex();
+        this.taskCalendarIndex = new TaskCalendarIndex();
+        this.recurringTaskIndex = new RecurringTaskIndex();
+        this.taskDependencyGraph = new TaskDependencyGraph();
+        this.taskEventBus = new TaskEventBus();
+        this.epicIdToRollup = new HashMap<>();
+        this.epicIdToChildEpicIds = new HashMap<>();
+        this.doneSinceEpochMinutes = new TaskIdIntMap();
+        this.taskArchive = taskArchive;
+        this.clock = clock;
+    }
+
+    @Override
+    public void addTask(Task task) throws TimeOverlapException {
+        runDeferred(() -> {
+            normalizeForStore(task);
+            checkRecurrence(task);
+            checkForTimeOverlap(task);
+            if (task.getClass().getSimpleName().equals(TaskType.TASK.getTaskType())) {
+                addTask(task.getId(), task);
+            } else if (task.getClass().getSimpleName().equals(TaskType.SUBTASK.getTaskType())) {
+                addSubtask(task.getId(), (Subtask) task);
+            } else if (task.getClass().getSimpleName().equals(TaskType.EPIC.getTaskType())) {
+                addEpic(task.getId(), (Epic) task);
             }
+        });
+    }
+
+    @Override
+    public void addTasks(Collection<Task> tasks) throws TimeOverlapException {
+        runDeferred(() -> {
+            tasks.forEach(this::normalizeForStore);
+            validateBatch(tasks);
 
-            if (task1.getStartTime() == DEFAULT_NULL_TASK_START_TIME) {
-                return 1;
+            Set<Integer> touchedEpicIds = new HashSet<>();
+            for (Epic epic : sortEpicsParentFirst(tasks)) {
+                addEpic(epic.getId(), epic);
             }
+            for (Task task : tasks) {
+                if (task instanceof Subtask) {
+                    insertSubtask(task.getId(), (Subtask) task);
+                    touchedEpicIds.add(((Subtask) task).getEpicId());
+                } else if (!(task instanceof Epic)) {
+                    addTask(task.getId(), task);
+                }
+            }
+            touchedEpicIds.forEach(this::changeEpicStatusAndTimeProperties);
+        });
+    }
 
-            if (task2.getStartTime() == DEFAULT_NULL_TASK_START_TIME) {
-                return -1;
+    @Override
+    public void updateTask(Task task) throws TimeOverlapException {
+        runDeferred(() -> {
+            restoreFromArchive(task.getId());
+            normalizeForStore(task);
+            checkRecurrence(task);
+            checkForTimeOverlap(task);
+            if (task.getClass().getSimpleName().equals(TaskType.TASK.getTaskType())) {
+                updateTask(task.getId(), task);
+            } else if (task.getClass().getSimpleName().equals(TaskType.SUBTASK.getTaskType())) {
+                updateSubtask(task.getId(), (Subtask) task);
+            } else if (task.getClass().getSimpleName().equals(TaskType.EPIC.getTaskType())) {
+                updateEpic(task.getId(), (Epic) task);
             }
-            return task1.getStartTime().compareTo(task2.getStartTime());
         });
     }
 
-    public void addTask(Task task) throws TimeOverlapException {
-        checkForTimeOverlap(task);
-        if (task.getClass().getSimpleName().equals(TaskType.TASK.getTaskType())) {
-            addTask(task.getId(), task);
-        } else if (task.getClass().getSimpleName().equals(TaskType.SUBTASK.getTaskType())) {
-            addSubtask(task.getId(), (Subtask) task);
-        } else if (task.getClass().getSimpleName().equals(TaskType.EPIC.getTaskType())) {
-            addEpic(task.getId(), (Epic) task);
-        }
+    /**
+     * Updates the task only if its stored version is {@code expectedVersion}; a missing task is a conflict
+     * too. The check and the update are two steps, so they are atomic only while no other thread uses this
+     * repository; {@link ConcurrentAllTasksRepository} runs the whole call under its write lock.
+     */
+    @Override
+    public void updateTask(Task task, int expectedVersion) throws TimeOverlapException, TaskVersionConflictException {
+        runDeferred(() -> {
+            restoreFromArchive(task.getId());
+            Task storedTask = taskStore.get(task.getId());
+            if (storedTask == null) {
+                throw new TaskVersionConflictException(String.format(
+                        "Task with ID %d does not exist, expected version %d", task.getId(), expectedVersion));
+            }
+            if (storedTask.getVersion() != expectedVersion) {
+                throw new TaskVersionConflictException(String.format(
+                        "Task with ID %d has version %d, expected version %d",
+                        task.getId(), storedTask.getVersion(), expectedVersion));
+            }
+            updateTask(task);
+        });
     }
 
-    public void updateTask(Task task) throws TimeOverlapException {
-        checkForTimeOverlap(task);
-        if (task.getClass().getSimpleName().equals(TaskType.TASK.getTaskType())) {
-            updateTask(task.getId(), task);
-        } else if (task.getClass().getSimpleName().equals(TaskType.SUBTASK.getTaskType())) {
-            updateSubtask(task.getId(), (Subtask) task);
-        } else if (task.getClass().getSimpleName().equals(TaskType.EPIC.getTaskType())) {
-            updateEpic(task.getId(), (Epic) task);
+    private void normalizeForStore(Task task) {
+        ChronoUnit timePrecision = taskStore.getTimePrecision();
+        if (task.getStartTime() != null && timePrecision != ChronoUnit.NANOS) {
+            task.setStartTime(task.getStartTime().truncatedTo(timePrecision));
         }
+        taskStore.checkStorable(task);
     }
 
     private void updateTask(int id, Task task) {
         if (isTaskExisted(task)) {
-            Task oldTask = idToTaskMap.get(id);
-            removeFromPrioritizedTasks(oldTask);
-            idToTaskMap.put(id, task);
+            Task storedTask = taskStore.get(id);
+            removeFromPrioritizedTasks(storedTask);
+            task.setVersion(storedTask.getVersion() + 1);
+            putToIndexes(id, task, TaskType.TASK);
             addToPrioritizedTasks(task);
+            publishChange(TaskChangeType.UPDATED, task, TaskType.TASK, storedTask.getVersion());
         }
     }
 
     private void updateSubtask(int id, Subtask subtask) {
-        if (isSubtaskExisted(subtask) && idToSubTaskMap.get(id).getEpicId() == subtask.getEpicId()) {
-            Subtask oldSubtask = idToSubTaskMap.get(id);
-            removeFromPrioritizedTasks(oldSubtask);
-            idToSubTaskMap.put(id, subtask);
+        Subtask storedSubtask = getSubtask(id);
+        if (storedSubtask != null && storedSubtask.getEpicId().equals(subtask.getEpicId())) {
+            removeFromPrioritizedTasks(storedSubtask);
+            subtask.setVersion(storedSubtask.getVersion() + 1);
+            putToIndexes(id, subtask, TaskType.SUBTASK);
             addToPrioritizedTasks(subtask);
+            publishChange(TaskChangeType.UPDATED, subtask, TaskType.SUBTASK, storedSubtask.getVersion());
             int epicId = subtask.getEpicId();
+            epicIdToRollup.get(epicId).put(id, subtask.getStatus(), subtask.getStartTime(), subtask.getEndTime(),
+                    subtask.getDurationInMinutes());
             changeEpicStatusAndTimeProperties(epicId);
         }
     }
 
     private void updateEpic(int id, Epic epic) {
         if (isEpicExisted(epic)) {
-            idToEpicMap.get(id).setName(epic.getName());
-            idToEpicMap.get(id).setDescription(epic.getDescription());
+            Epic storedEpic = getEpic(id);
+            int oldParentEpicId = storedEpic.getParentEpicId();
+            int newParentEpicId = epic.getParentEpicId();
+            if (newParentEpicId != oldParentEpicId) {
+                checkParentEpic(id, newParentEpicId);
+            }
+
+            storedEpic.setName(epic.getName());
+            storedEpic.setDescription(epic.getDescription());
+            storedEpic.setParentEpicId(newParentEpicId);
+            storedEpic.setVersion(storedEpic.getVersion() + 1);
+            epic.setVersion(storedEpic.getVersion());
+            taskStore.put(id, storedEpic, TaskType.EPIC);
+            taskSearchIndex.put(id, epic.getName(), epic.getDescription());
+            publishChange(TaskChangeType.UPDATED, storedEpic, TaskType.EPIC, storedEpic.getVersion() - 1);
+
+            if (newParentEpicId != oldParentEpicId) {
+                detachFromParentEpic(id, oldParentEpicId);
+                attachToParentEpic(storedEpic);
+            }
         }
     }
 
+    @Override
+    public TaskEventBus getTaskEventBus() {
+        return taskEventBus;
+    }
+
+    @Override
     public boolean isEpicExisted(Epic epic) {
-        return idToEpicMap.containsKey(epic.getId());
+        return taskStore.contains(epic.getId(), TaskType.EPIC);
     }
 
+    @Override
     public boolean isTaskExisted(Task task) {
-        return idToTaskMap.containsKey(task.getId());
+        return taskStore.contains(task.getId(), TaskType.TASK);
     }
 
+    @Override
     public boolean isEpicExisted(int id) {
-        return idToEpicMap.containsKey(id);
+        return taskStore.contains(id, TaskType.EPIC);
     }
 
+    @Override
     public boolean isSubtaskExisted(Subtask subtask) {
-        return idToSubTaskMap.containsKey(subtask.getId());
+        return taskStore.contains(subtask.getId(), TaskType.SUBTASK);
     }
 
+    @Override
     public Status calculateNewEpicStatus(Epic epic) {
+        EpicRollup epicRollup = epicIdToRollup.get(epic.getId());
+        return epicRollup != null ? epicRollup.getStatus() : recalculateEpicStatus(epic);
+    }
 
-        if (epic.getSubtaskIdList().isEmpty()) {
-            return Status.NEW;
+    @Override
+    public void calculateAndSetNewEpicTimeProperties(Epic epic) {
+        EpicRollup epicRollup = epicIdToRollup.get(epic.getId());
+        if (epicRollup != null) {
+            epicRollup.applyTimePropertiesTo(epic);
+        } else {
+            recalculateAndSetEpicTimeProperties(epic);
         }
+    }
 
-        boolean isNewTask = false;
-        boolean isDoneTask = false;
-
-        for (int idSubtask : epic.getSubtaskIdList()) {
-            Status status = idToSubTaskMap.get(idSubtask).getStatus();
-            if (status == Status.NEW) {
-                isNewTask = true;
-            }
-            if (status == Status.DONE) {
-                isDoneTask = true;
+    @Override
+    public boolean verifyEpicRollups() {
+        for (int epicId : taskStore.getIds(TaskType.EPIC).toArray()) {
+            Epic epic = getEpic(epicId);
+            Epic recalculatedEpic = new Epic(epic.getId(), epic.getName(), epic.getDescription(), epic.getStatus());
+            recalculatedEpic.setParentEpicId(epic.getParentEpicId());
+            recalculatedEpic.getSubtaskIds().addAll(epic.getSubtaskIds());
+            recalculateAndSetEpicTimeProperties(recalculatedEpic);
+
+            boolean isConsistent = recalculateEpicStatus(epic) == epic.getStatus()
+                    && Objects.equals(recalculatedEpic.getStartTime(), epic.getStartTime())
+                    && Objects.equals(recalculatedEpic.getEndTime(), epic.getEndTime())
+                    && recalculatedEpic.getDurationInMinutes() == epic.getDurationInMinutes();
+            if (!isConsistent) {
+                return false;
             }
-            if (isNewTask && isDoneTask) {
-                return Status.IN_PROGRESS;
-            }
-        }
-        if (isNewTask) {
-            return Status.NEW;
-        }
-        if (isDoneTask) {
-            return Status.DONE;
         }
-        return Status.IN_PROGRESS;
+        return true;
     }
 
-    public void calculateAndSetNewEpicTimeProperties(Epic epic) {
-        List<Integer> subtasksId = epic.getSubtaskIdList();
+    @Override
+    public Task getTaskById(int id) {
+        return callDeferred(() -> {
+            Task task = taskStore.get(id);
+            if (task == null && isArchived(id)) {
+                restoreFromArchive(id);
+                task = taskStore.get(id);
+            }
+            return task;
+        });
+    }
 
-        if (subtasksId.isEmpty()) {
-            setNewTimeProperties(epic, DEFAULT_NULL_TASK_START_TIME, DEFAULT_TASK_DURATION_IN_MINUTES, DEFAULT_NULL_TASK_END_TIME);
-            return;
+    /**
+     * Returns the task like {@link #getTaskById}, but reads an archived task from the archive instead of
+     * restoring it.
+     */
+    @Override
+    public Task peekTaskById(int id) {
+        Task task = taskStore.get(id);
+        if (task == null && isArchived(id)) {
+            task = taskArchive.get(id);
         }
+        return task;
+    }
 
-        LocalDateTime minStartTime = DEFAULT_NULL_TASK_START_TIME;
-        LocalDateTime maxEndTime = DEFAULT_NULL_TASK_END_TIME;
-        int totalDurationInMinutes = 0;
-
-        for (int subtaskId : subtasksId) {
-            Subtask currentSubtask = idToSubTaskMap.get(subtaskId);
-            if (currentSubtask == null) {
-                continue;
-            }
+    Task getHotTaskById(int id) {
+        return taskStore.get(id);
+    }
 
-            minStartTime = getMinStartTime(minStartTime, currentSubtask.getStartTime());
-            maxEndTime = getMaxEndTime(maxEndTime, currentSubtask.getEndTime());
+    @Override
+    public boolean isArchived(int id) {
+        return taskArchive != null && taskArchive.contains(id);
+    }
 
-            totalDurationInMinutes += currentSubtask.getDurationInMinutes();
-        }
+    /**
+     * Moves tasks that have been DONE for at least {@code minDoneAge} to the archive. A done epic is archived
+     * together with its subtasks and a subtask is only archived with its epic. Epics nested in or holding
+     * other epics stay in memory, and so do tasks with dependencies and epics whose subtasks have any, as
+     * the archive does not keep dependency edges. Archived tasks leave every index and are restored on
+     * {@link #getTaskById}, updates and deletes.
+     */
+    @Override
+    public int archiveDoneTasks(Duration minDoneAge) {
+        return callDeferred(() -> {
+            if (taskArchive == null) {
+                throw new IllegalStateException("The repository has no task archive");
+            }
 
-        setNewTimeProperties(epic, minStartTime, totalDurationInMinutes, maxEndTime);
+            int maxDoneSince = toEpochMinute(LocalDateTime.now(clock).minus(minDoneAge));
+            List<Integer> expiredIds = new ArrayList<>();
+            doneSinceEpochMinutes.forEach((id, doneSince) -> {
+                if (doneSince <= maxDoneSince) {
+                    expiredIds.add(id);
+                }
+            });
+
+            int archivedCount = 0;
+            for (int id : expiredIds) {
+                TaskType taskType = taskStore.getType(id);
+                if (taskType == TaskType.TASK && !taskDependencyGraph.hasDependencies(id)) {
+                    moveToArchive(id);
+                    archivedCount++;
+                } else if (taskType == TaskType.EPIC && !isInEpicHierarchy(getEpic(id))
+                        && getEpic(id).getSubtaskIds().asList().stream()
+                        .noneMatch(taskDependencyGraph::hasDependencies)) {
+                    for (int subtaskId : getEpic(id).getSubtaskIds().toArray()) {
+                        moveToArchive(subtaskId);
+                        archivedCount++;
+                    }
+                    moveToArchive(id);
+                    epicIdToRollup.remove(id);
+                    archivedCount++;
+                }
+            }
+            taskArchive.compactIfNeeded();
+            return archivedCount;
+        });
     }
 
-    public Task getTaskById(int id) {
-        if (idToTaskMap.containsKey(id)) {
-            return idToTaskMap.get(id);
-        }
-
-        if (idToSubTaskMap.containsKey(id)) {
-            return idToSubTaskMap.get(id);
-        }
+    @Override
+    public int getMaxArchivedTaskId() {
+        return taskArchive != null ? taskArchive.getMaxId() : 0;
+    }
 
-        if (idToEpicMap.containsKey(id)) {
-            return idToEpicMap.get(id);
-        }
-        return null;
+    @Override
+    public TaskTierStats getTaskTierStats() {
+        return taskArchive != null
+                ? new TaskTierStats(taskStore.size(), taskArchive.size(), taskArchive.getFileSize())
+                : new TaskTierStats(taskStore.size(), 0, 0);
     }
 
+    @Override
     public List<Task> getAllTaskType() {
-        return new ArrayList<>(idToTaskMap.values());
+        return getTasks(taskStore.getIds(TaskType.TASK));
     }
 
+    @Override
     public List<Task> getAllSubtaskType() {
-        return new ArrayList<>(idToSubTaskMap.values());
+        return getTasks(taskStore.getIds(TaskType.SUBTASK));
     }
 
+    @Override
     public List<Task> getAllEpicType() {
-        return new ArrayList<>(idToEpicMap.values());
+        return getTasks(taskStore.getIds(TaskType.EPIC));
     }
 
+    @Override
     public List<Task> getAllTasks() {
-        List<Task> resultAllTaskList = new ArrayList<>();
+        List<Task> resultAllTaskList = new ArrayList<>(taskStore.size());
 
-        resultAllTaskList.addAll(idToTaskMap.values());
-        resultAllTaskList.addAll(idToSubTaskMap.values());
-        resultAllTaskList.addAll(idToEpicMap.values());
+        resultAllTaskList.addAll(getAllTaskType());
+        resultAllTaskList.addAll(getAllSubtaskType());
+        resultAllTaskList.addAll(getAllEpicType());
         return resultAllTaskList;
     }
 
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        List<Task> resultTaskList = new ArrayList<>();
+        for (TaskType taskType : TaskType.values()) {
+            resultTaskList.addAll(getTasksByStatus(status, taskType));
+        }
+        return resultTaskList;
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status, TaskType taskType) {
+        return getTasks(taskStatusIndex.getTaskIds(status, taskType));
+    }
+
+    @Override
+    public List<Integer> search(String query, int limit) {
+        return taskSearchIndex.search(query, limit);
+    }
+
+    @Override
     public List<Task> getAllEpicSubtasks(Epic epic) {
         List<Task> resultEpicSubtaskList = new ArrayList<>();
-        for (int idSubtask : epic.getSubtaskIdList()) {
-            resultEpicSubtaskList.add(idToSubTaskMap.get(idSubtask));
+        for (int idSubtask : epic.getSubtaskIds().toArray()) {
+            resultEpicSubtaskList.add(taskStore.get(idSubtask));
         }
         return resultEpicSubtaskList;
     }
 
+    @Override
     public List<Task> getAllEpicSubtasks(int id) {
-        return (idToEpicMap.containsKey(id)) ? getAllEpicSubtasks(idToEpicMap.get(id)) : new ArrayList<>();
+        return isEpicExisted(id) ? getAllEpicSubtasks(getEpic(id)) : new ArrayList<>();
     }
 
-    public List<Task> getPrioritizedTasks() {
-        return new ArrayList<>(prioritizedTasksByStartTime);
+    @Override
+    public List<Task> getChildEpics(int id) {
+        TaskIdSet childEpicIds = epicIdToChildEpicIds.get(id);
+        return childEpicIds != null ? getTasks(childEpicIds) : new ArrayList<>();
     }
 
-    public List<Task> deleteTaskById(int id) {
-        List<Task> deletedTasks = new ArrayList<>();
-
-        if (idToTaskMap.containsKey(id)) {
-            Task deletedTask = idToTaskMap.remove(id);
-            removeFromPrioritizedTasks(deletedTask);
-            deletedTasks.add(deletedTask);
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        if (!recurringTaskIndex.isEmpty()) {
+            return getPrioritizedTasks(null, null, 0, null).getTasks();
         }
+        List<Task> prioritizedTasks = new ArrayList<>(taskIntervalIndex.size() + unscheduledTaskIds.size());
+        taskIntervalIndex.iterator(null, Integer.MIN_VALUE, true, null)
+                .forEachRemaining((int id) -> prioritizedTasks.add(taskStore.get(id)));
+        unscheduledTaskIds.forEach(id -> prioritizedTasks.add(taskStore.get(id)));
+        return prioritizedTasks;
+    }
 
-        if (idToSubTaskMap.containsKey(id)) {
-            Subtask deletedTask = idToSubTaskMap.remove(id);
-            int epicId = idToSubTaskMap.get(id).getEpicId();
-            Epic epic = idToEpicMap.get(epicId);
+    @Override
+    public TaskPage getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit, String cursor) {
+        LocalDateTime lowerStartTime = from;
+        int lowerId = Integer.MIN_VALUE;
+        boolean isLowerBoundInclusive = true;
+        boolean isCursorUnscheduled = false;
+        if (cursor != null) {
+            Task cursorTask = decodePrioritizedTasksCursor(cursor);
+            if (cursorTask.getStartTime() == DEFAULT_NULL_TASK_START_TIME) {
+                isCursorUnscheduled = true;
+                lowerId = cursorTask.getId();
+            } else if (from == null || !cursorTask.getStartTime().isBefore(from)) {
+                lowerStartTime = cursorTask.getStartTime();
+                lowerId = cursorTask.getId();
+                isLowerBoundInclusive = false;
+            }
+        }
 
-            removeFromPrioritizedTasks(deletedTask);
-            deleteSubtaskInsideEpic(epic, id);
-            Status newEpicStatus = calculateNewEpicStatus(epic);
-            epic.setStatus(newEpicStatus);
-            calculateAndSetNewEpicTimeProperties(epic);
+        Iterator<Integer> scheduledIds = isCursorUnscheduled
+                ? Collections.emptyIterator()
+                : taskIntervalIndex.iterator(lowerStartTime, lowerId, isLowerBoundInclusive, to);
+        Iterator<RecurringTaskIndex.Occurrence> occurrences = isCursorUnscheduled
+                ? Collections.emptyIterator()
+                : recurringTaskIndex.iterator(from, lowerStartTime, lowerId, isLowerBoundInclusive, to);
+        Iterator<Integer> unscheduledIds;
+        if (to != null) {
+            unscheduledIds = Collections.emptyIterator();
+        } else if (isCursorUnscheduled) {
+            unscheduledIds = unscheduledTaskIds.tailSet(lowerId, false).iterator();
+        } else {
+            unscheduledIds = unscheduledTaskIds.iterator();
+        }
 
-            deletedTasks.add(idToSubTaskMap.remove(id));
+        List<Task> pageTasks = new ArrayList<>();
+        Task scheduledTask = scheduledIds.hasNext() ? taskStore.get(scheduledIds.next()) : null;
+        Task occurrenceTask = occurrences.hasNext() ? createOccurrence(occurrences.next()) : null;
+        while (limit <= 0 || pageTasks.size() < limit) {
+            if (scheduledTask != null
+                    && (occurrenceTask == null || START_TIME_ORDER.compare(scheduledTask, occurrenceTask) < 0)) {
+                pageTasks.add(scheduledTask);
+                scheduledTask = scheduledIds.hasNext() ? taskStore.get(scheduledIds.next()) : null;
+            } else if (occurrenceTask != null) {
+                pageTasks.add(occurrenceTask);
+                occurrenceTask = occurrences.hasNext() ? createOccurrence(occurrences.next()) : null;
+            } else if (unscheduledIds.hasNext()) {
+                pageTasks.add(taskStore.get(unscheduledIds.next()));
+            } else {
+                break;
+            }
         }
+        boolean hasNextPage = scheduledTask != null || occurrenceTask != null || unscheduledIds.hasNext();
+        String nextCursor = hasNextPage ? encodePrioritizedTasksCursor(pageTasks.get(pageTasks.size() - 1)) : null;
+        return new TaskPage(pageTasks, nextCursor);
+    }
 
-        if (idToEpicMap.containsKey(id)) {
-            deletedTasks.add(idToEpicMap.get(id));
-            deletedTasks.addAll(deleteSubtaskConnectedWithEpic(idToEpicMap.get(id)));
-            idToEpicMap.remove(id);
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count) {
+        if (durationInMinutes <= 0) {
+            throw new IllegalArgumentException("Slot duration should be positive: " + durationInMinutes);
         }
-        return deletedTasks;
+        if (recurringTaskIndex.isEmpty() || after == null) {
+            return taskIntervalIndex.findFreeSlots(after, durationInMinutes, count);
+        }
+
+        LocalDateTime latestEndTime = taskIntervalIndex.getLatestEndTime();
+        LocalDateTime patternEndTime = recurringTaskIndex.getRegularPatternEnd(
+                latestEndTime != null && latestEndTime.isAfter(after) ? latestEndTime : after);
+        List<TimeSlot> freeSlots = taskIntervalIndex.findFreeSlots(after, durationInMinutes, count,
+                recurringTaskIndex.busySlots(after.minusMinutes(recurringTaskIndex.getMaxDurationInMinutes()),
+                        patternEndTime));
+        freeSlots.removeIf(slot -> slot.getEndTime().isAfter(patternEndTime)
+                && recurringTaskIndex.isOverlapping(slot.getStartTime(), slot.getEndTime(), Integer.MIN_VALUE));
+        return freeSlots;
+    }
+
+    @Override
+    public List<Task> getTasksForDay(LocalDate day) {
+        return getScheduledTasks(taskCalendarIndex.getTaskIds(day, day), day.atStartOfDay(),
+                day.plusDays(1).atStartOfDay());
     }
 
+    @Override
+    public List<Task> getTasksForWeek(LocalDate day) {
+        LocalDate monday = day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        TaskIdSet weekTaskIds = taskCalendarIndex.getTaskIds(monday, monday.plusDays(DayOfWeek.values().length - 1));
+        return getScheduledTasks(weekTaskIds, monday.atStartOfDay(),
+                monday.plusDays(DayOfWeek.values().length).atStartOfDay());
+    }
+
+    @Override
+    public void addDependency(int taskId, int blockedByTaskId) throws DependencyCycleException {
+        runDeferred(() -> {
+            restoreFromArchive(taskId);
+            restoreFromArchive(blockedByTaskId);
+            checkDependencyTask(taskId);
+            checkDependencyTask(blockedByTaskId);
+            taskDependencyGraph.addDependency(taskId, blockedByTaskId);
+        });
+    }
+
+    @Override
+    public void removeDependency(int taskId, int blockedByTaskId) {
+        taskDependencyGraph.removeDependency(taskId, blockedByTaskId);
+    }
+
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        return taskDependencyGraph.getBlockedByIds(taskId);
+    }
+
+    @Override
+    public TaskSchedule getTaskSchedule(int taskId) {
+        return taskDependencyGraph.getSchedule(taskId);
+    }
+
+    @Override
+    public List<Task> getCriticalPath() {
+        List<Task> criticalPath = new ArrayList<>();
+        taskDependencyGraph.getCriticalPath().forEach(id -> criticalPath.add(taskStore.get(id)));
+        return criticalPath;
+    }
+
+    @Override
+    public List<Task> deleteTaskById(int id) {
+        return callDeferred(() -> {
+            restoreFromArchive(id);
+            List<Task> deletedTasks = new ArrayList<>();
+            TaskType taskType = taskStore.getType(id);
+
+            if (taskType == TaskType.TASK) {
+                Task deletedTask = removeFromIndexes(id);
+                removeFromPrioritizedTasks(deletedTask);
+                deletedTasks.add(deletedTask);
+            }
+
+            if (taskType == TaskType.SUBTASK) {
+                Subtask deletedTask = (Subtask) removeFromIndexes(id);
+                int epicId = deletedTask.getEpicId();
+
+                removeFromPrioritizedTasks(deletedTask);
+                deleteSubtaskInsideEpic(getEpic(epicId), id);
+                changeEpicStatusAndTimeProperties(epicId);
+
+                deletedTasks.add(deletedTask);
+            }
+
+            if (taskType == TaskType.EPIC) {
+                int parentEpicId = getEpic(id).getParentEpicId();
+                deletedTasks.addAll(deleteEpic(id));
+                detachFromParentEpic(id, parentEpicId);
+            }
+            return deletedTasks;
+        });
+    }
+
+    @Override
     public List<Task> deleteAllTaskType() {
-        List<Task> deletedTasks = new ArrayList<>(idToTaskMap.values());
-        idToTaskMap.clear();
+        return callDeferred(() -> {
+            restoreAllFromArchive(TaskType.TASK);
+            List<Task> deletedTasks = removeAllFromIndexes(TaskType.TASK);
 
-        prioritizedTasksByStartTime.removeAll(deletedTasks);
-        return deletedTasks;
+            removeFromPrioritizedTasks(deletedTasks);
+            return deletedTasks;
+        });
     }
 
+    @Override
     public List<Task> deleteAllSubtaskType() {
-        List<Task> deletedTasks = new ArrayList<>(idToSubTaskMap.values());
-        idToSubTaskMap.clear();
-        deleteAllSubTaskInsideAllEpic();
+        return callDeferred(() -> {
+            restoreAllFromArchive(TaskType.EPIC);
+            List<Task> deletedTasks = removeAllFromIndexes(TaskType.SUBTASK);
+            deleteAllSubTaskInsideAllEpic();
 
-        prioritizedTasksByStartTime.removeAll(deletedTasks);
-        return deletedTasks;
+            removeFromPrioritizedTasks(deletedTasks);
+            return deletedTasks;
+        });
     }
 
+    @Override
     public List<Task> deleteAllEpicType() {
-        List<Task> deletedEpics = new ArrayList<>(idToEpicMap.values());
-        List<Task> deletedSubtasks = new ArrayList<>(idToSubTaskMap.values());
-        idToSubTaskMap.clear();
-        idToEpicMap.clear();
-
-        prioritizedTasksByStartTime.removeAll(deletedSubtasks);
-        List<Task> allDeletedTasks = new ArrayList<>();
-        allDeletedTasks.addAll(deletedEpics);
-        allDeletedTasks.addAll(deletedSubtasks);
-        return allDeletedTasks;
+        return callDeferred(() -> {
+            restoreAllFromArchive(TaskType.EPIC);
+            List<Task> deletedSubtasks = removeAllFromIndexes(TaskType.SUBTASK);
+            List<Task> deletedEpics = removeAllFromIndexes(TaskType.EPIC);
+            epicIdToRollup.clear();
+            epicIdToChildEpicIds.clear();
+
+            removeFromPrioritizedTasks(deletedSubtasks);
+            List<Task> allDeletedTasks = new ArrayList<>();
+            allDeletedTasks.addAll(deletedEpics);
+            allDeletedTasks.addAll(deletedSubtasks);
+            return allDeletedTasks;
+        });
     }
 
+    @Override
     public List<Task> deleteAllTasks() {
-        List<Task> deletedTasks = getAllTasks();
-
-        idToTaskMap.clear();
-        idToSubTaskMap.clear();
-        idToEpicMap.clear();
-        prioritizedTasksByStartTime.clear();
-        return deletedTasks;
+        return callDeferred(() -> {
+            restoreAllFromArchive(TaskType.TASK);
+            restoreAllFromArchive(TaskType.EPIC);
+            List<Task> deletedTasks = getAllTasks();
+
+            taskStore.clear();
+            taskStatusIndex.clear();
+            taskSearchIndex.clear();
+            epicIdToRollup.clear();
+            epicIdToChildEpicIds.clear();
+            unscheduledTaskIds.clear();
+            taskIntervalIndex.clear();
+            taskCalendarIndex.clear();
+            recurringTaskIndex.clear();
+            taskDependencyGraph.clear();
+            doneSinceEpochMinutes.clear();
+            for (Task deletedTask : deletedTasks) {
+                publishChange(TaskChangeType.DELETED, deletedTask, TaskType.valueOf(deletedTask.getTaskTypeUpperCase()),
+                        deletedTask.getVersion());
+            }
+            return deletedTasks;
+        });
     }
 
+    @Override
     public void checkForTimeOverlap(Task task) throws TimeOverlapException {
-        if (task instanceof Epic) {
+        if (task instanceof Epic || task.getStartTime() == null) {
             return;
         }
-        List<Task> allTasks = getPrioritizedTasks();
-
-        Optional<Task> overlappingTask = allTasks.stream()
-                .filter(existingTask -> existingTask.getId() != task.getId())
-                .filter(existingTask -> existingTask.getStartTime() != null && task.getStartTime() != null)
-                .filter(existingTask -> isTimeOverlap(existingTask, task))
-                .findFirst();
 
-        if (overlappingTask.isPresent()) {
+        boolean isOverlapping = task.getRecurrenceRule() != null
+                ? isRecurringTaskOverlapping(task)
+                : taskIntervalIndex.isOverlapping(task.getStartTime(), task.getEndTime(), task.getId())
+                || recurringTaskIndex.isOverlapping(task.getStartTime(), task.getEndTime(), task.getId());
+        if (isOverlapping) {
             throw new TimeOverlapException("The time of the task overlaps with another task.");
         }
     }
 
+    private boolean isRecurringTaskOverlapping(Task task) {
+        RecurrenceRule recurrenceRule = task.getRecurrenceRule();
+        if (recurringTaskIndex.isOverlapping(task.getStartTime(), task.getDurationInMinutes(), recurrenceRule,
+                task.getId())) {
+            return true;
+        }
+
+        LocalDateTime latestEndTime = taskIntervalIndex.getLatestEndTime();
+        Iterator<LocalDateTime> occurrences = recurrenceRule.occurrences(task.getStartTime(), null);
+        while (latestEndTime != null && occurrences.hasNext()) {
+            LocalDateTime startTime = occurrences.next();
+            if (!startTime.isBefore(latestEndTime)) {
+                break;
+            }
+            if (taskIntervalIndex.isOverlapping(startTime, startTime.plusMinutes(task.getDurationInMinutes()),
+                    task.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void checkRecurrence(Task task) throws TimeOverlapException {
+        RecurrenceRule recurrenceRule = task.getRecurrenceRule();
+        if (recurrenceRule == null) {
+            return;
+        }
+        if (!task.getClass().getSimpleName().equals(TaskType.TASK.getTaskType())) {
+            throw new IllegalArgumentException("Only tasks of type TASK can recur: " + task.getId());
+        }
+        if (task.getStartTime() == null) {
+            throw new IllegalArgumentException("Recurring task should have a start time: " + task.getId());
+        }
+        recurrenceRule.validate();
+        if (recurrenceRule.getUntil() != null && recurrenceRule.getUntil().isBefore(task.getStartTime())) {
+            throw new IllegalArgumentException("Recurrence should not end before the task starts: " + task.getId());
+        }
+        if (task.getDurationInMinutes() > recurrenceRule.getPeriodInDays() * MINUTES_PER_DAY) {
+            throw new TimeOverlapException("The occurrences of the recurring task overlap each other.");
+        }
+    }
+
     private LocalDateTime getMinStartTime(LocalDateTime currentMinStartTime, LocalDateTime newStartTime) {
         if (currentMinStartTime == DEFAULT_NULL_TASK_START_TIME
                 || (newStartTime != DEFAULT_NULL_TASK_START_TIME && newStartTime.isBefore(currentMinStartTime))) {
@@ -327,97 +757,578 @@ public class AllTasksRepository {
         return currentMaxEndTime;
     }
 
+    private void putToIndexes(int id, Task task, TaskType taskType) {
+        taskStore.put(id, task, taskType);
+        taskStatusIndex.put(id, task.getStatus(), taskType);
+        taskSearchIndex.put(id, task.getName(), task.getDescription());
+        if (taskType != TaskType.EPIC) {
+            taskDependencyGraph.putTask(id, task.getDurationInMinutes());
+        }
+        trackDoneSince(id, task.getStatus());
+    }
+
+    private Task removeFromIndexes(int id) {
+        TaskType taskType = taskStore.getType(id);
+        if (taskType == null) {
+            return null;
+        }
+        Task removedTask = detachFromIndexes(id, taskType);
+        publishChange(TaskChangeType.DELETED, removedTask, taskType, removedTask.getVersion());
+        return removedTask;
+    }
+
+    private Task detachFromIndexes(int id, TaskType taskType) {
+        taskStatusIndex.remove(id, taskType);
+        taskSearchIndex.remove(id);
+        taskDependencyGraph.removeTask(id);
+        doneSinceEpochMinutes.remove(id);
+        return taskStore.remove(id);
+    }
+
+    private void trackDoneSince(int id, Status status) {
+        if (status != Status.DONE) {
+            doneSinceEpochMinutes.remove(id);
+        } else if (doneSinceEpochMinutes.get(id) < 0) {
+            doneSinceEpochMinutes.put(id, toEpochMinute(LocalDateTime.now(clock)));
+        }
+    }
+
+    private void moveToArchive(int id) {
+        TaskType taskType = taskStore.getType(id);
+        Task task = detachFromIndexes(id, taskType);
+        if (taskType != TaskType.EPIC) {
+            removeFromPrioritizedTasks(task);
+        }
+        taskArchive.put(task, taskType);
+        publishChange(TaskChangeType.ARCHIVED, task, taskType, task.getVersion());
+    }
+
+    private void restoreFromArchive(int id) {
+        if (!isArchived(id)) {
+            return;
+        }
+
+        Task task = taskArchive.get(id);
+        if (task instanceof Subtask) {
+            restoreFromArchive(((Subtask) task).getEpicId());
+            return;
+        }
+
+        taskArchive.remove(id);
+        if (task instanceof Epic) {
+            putToIndexes(id, task, TaskType.EPIC);
+            epicIdToRollup.put(id, new EpicRollup());
+            publishChange(TaskChangeType.RESTORED, task, TaskType.EPIC, task.getVersion());
+            for (int subtaskId : ((Epic) task).getSubtaskIds().toArray()) {
+                Subtask subtask = (Subtask) taskArchive.remove(subtaskId);
+                if (subtask != null) {
+                    attachSubtask(subtaskId, subtask);
+                    publishChange(TaskChangeType.RESTORED, subtask, TaskType.SUBTASK, subtask.getVersion());
+                }
+            }
+            changeEpicStatusAndTimeProperties(id);
+        } else {
+            putToIndexes(id, task, TaskType.TASK);
+            addToPrioritizedTasks(task);
+            publishChange(TaskChangeType.RESTORED, task, TaskType.TASK, task.getVersion());
+        }
+    }
+
+    private void restoreAllFromArchive(TaskType taskType) {
+        if (taskArchive != null) {
+            for (int id : taskArchive.getIds(taskType).toArray()) {
+                restoreFromArchive(id);
+            }
+        }
+    }
+
+    private static int toEpochMinute(LocalDateTime time) {
+        return Math.toIntExact(Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60));
+    }
+
+    private List<Task> removeAllFromIndexes(TaskType taskType) {
+        List<Task> removedTasks = new ArrayList<>();
+        for (int id : taskStore.getIds(taskType).toArray()) {
+            removedTasks.add(removeFromIndexes(id));
+        }
+        return removedTasks;
+    }
+
+    private void checkDependencyTask(int id) {
+        if (!taskDependencyGraph.contains(id)) {
+            throw new IllegalArgumentException(String.format("Task or subtask with ID %d does not exist", id));
+        }
+    }
+
+    private Epic getEpic(int id) {
+        return taskStore.contains(id, TaskType.EPIC) ? (Epic) taskStore.get(id) : null;
+    }
+
+    private Subtask getSubtask(int id) {
+        return taskStore.contains(id, TaskType.SUBTASK) ? (Subtask) taskStore.get(id) : null;
+    }
+
+    private List<Task> getTasks(TaskIdSet taskIds) {
+        List<Task> tasks = new ArrayList<>(taskIds.size());
+        taskIds.forEach(id -> tasks.add(taskStore.get(id)));
+        return tasks;
+    }
+
+    private Task createPrioritizedTasksProbe(LocalDateTime startTime, int id) {
+        return new Task(id, null, null, null, startTime, DEFAULT_TASK_DURATION_IN_MINUTES);
+    }
+
+    private String encodePrioritizedTasksCursor(Task task) {
+        String cursor = task.getStartTime() + PRIORITIZED_TASKS_CURSOR_SEPARATOR + task.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Task decodePrioritizedTasksCursor(String cursor) {
+        String[] cursorParts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+                .split(PRIORITIZED_TASKS_CURSOR_SEPARATOR);
+        if (cursorParts.length != 2) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        LocalDateTime startTime = DEFAULT_NULL_TASK_START_TIME_STRING.equals(cursorParts[0])
+                ? DEFAULT_NULL_TASK_START_TIME
+                : LocalDateTime.parse(cursorParts[0]);
+        return createPrioritizedTasksProbe(startTime, Integer.parseInt(cursorParts[1]));
+    }
+
+    private List<Task> getScheduledTasks(TaskIdSet taskIds, LocalDateTime fromTime, LocalDateTime toTime) {
+        List<Task> scheduledTasks = getTasks(taskIds);
+        for (RecurringTaskIndex.Occurrence occurrence : recurringTaskIndex.getOccurrences(fromTime, toTime)) {
+            scheduledTasks.add(createOccurrence(occurrence));
+        }
+        scheduledTasks.sort(START_TIME_ORDER);
+        return scheduledTasks;
+    }
+
     private void addToPrioritizedTasks(Task task) {
-        prioritizedTasksByStartTime.add(task);
+        if (task.getRecurrenceRule() != null && task.getStartTime() != null) {
+            recurringTaskIndex.put(task.getId(), task.getStartTime(), task.getDurationInMinutes(),
+                    task.getRecurrenceRule());
+            return;
+        }
+        if (task.getStartTime() == DEFAULT_NULL_TASK_START_TIME) {
+            unscheduledTaskIds.add(task.getId());
+        }
+        taskIntervalIndex.add(task.getId(), task.getStartTime(), task.getEndTime());
+        taskCalendarIndex.add(task.getId(), task.getStartTime(), task.getEndTime());
     }
 
     private void removeFromPrioritizedTasks(Task task) {
-        prioritizedTasksByStartTime.remove(task);
+        unscheduledTaskIds.remove(task.getId());
+        taskIntervalIndex.remove(task.getId());
+        taskCalendarIndex.remove(task.getId());
+        recurringTaskIndex.remove(task.getId());
+    }
+
+    private Task createOccurrence(RecurringTaskIndex.Occurrence occurrence) {
+        Task series = taskStore.get(occurrence.getTaskId());
+        Task occurrenceTask = new Task(series.getId(), series.getName(), series.getDescription(), series.getStatus(),
+                occurrence.getStartTime(), series.getDurationInMinutes());
+        occurrenceTask.setVersion(series.getVersion());
+        occurrenceTask.setRecurrenceRule(series.getRecurrenceRule());
+        return occurrenceTask;
+    }
+
+    private void removeFromPrioritizedTasks(List<Task> tasks) {
+        tasks.forEach(this::removeFromPrioritizedTasks);
     }
 
     private void addTask(int id, Task task) throws DuplicateTaskIdException {
-        if (idToTaskMap.containsKey(id)) {
+        if (taskStore.contains(id) || isArchived(id)) {
             throw new DuplicateTaskIdException(String.format(DUPLICATE_TASK_ID, id));
         }
-        idToTaskMap.put(id, task);
+        putToIndexes(id, task, TaskType.TASK);
         addToPrioritizedTasks(task);
+        publishChange(TaskChangeType.CREATED, task, TaskType.TASK, task.getVersion());
     }
 
     private void addSubtask(int id, Subtask subtask) throws DuplicateTaskIdException {
+        restoreFromArchive(subtask.getEpicId());
         if (isEpicExisted(subtask.getEpicId())) {
-            if (idToSubTaskMap.containsKey(id)) {
+            if (taskStore.contains(id) || isArchived(id)) {
                 throw new DuplicateTaskIdException(String.format(DUPLICATE_SUBTASK_ID, id));
             }
 
-            idToSubTaskMap.put(id, subtask);
-            addToPrioritizedTasks(subtask);
-
-            if (!idToEpicMap.get(subtask.getEpicId()).getSubtaskIdList().contains(id)) {
-                idToEpicMap.get(subtask.getEpicId()).getSubtaskIdList().add(id);
-                int epicId = subtask.getEpicId();
-                changeEpicStatusAndTimeProperties(epicId);
-            }
+            insertSubtask(id, subtask);
+            changeEpicStatusAndTimeProperties(subtask.getEpicId());
         } else {
             throw new MissingEpicException(String.format("Epic with ID %d does not exist", subtask.getEpicId()));
         }
     }
 
+    private void insertSubtask(int id, Subtask subtask) {
+        attachSubtask(id, subtask);
+        publishChange(TaskChangeType.CREATED, subtask, TaskType.SUBTASK, subtask.getVersion());
+    }
+
+    private void attachSubtask(int id, Subtask subtask) {
+        putToIndexes(id, subtask, TaskType.SUBTASK);
+        addToPrioritizedTasks(subtask);
+
+        int epicId = subtask.getEpicId();
+        getEpic(epicId).getSubtaskIds().add(id);
+        epicIdToRollup.get(epicId).put(id, subtask.getStatus(), subtask.getStartTime(), subtask.getEndTime(),
+                subtask.getDurationInMinutes());
+    }
+
+    private void validateBatch(Collection<Task> tasks) throws TimeOverlapException {
+        Set<Integer> batchIds = new HashSet<>();
+        Set<Integer> batchEpicIds = new HashSet<>();
+        List<Task> scheduledTasks = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getRecurrenceRule() != null) {
+                throw new IllegalArgumentException("Recurring tasks cannot be added in a batch: " + task.getId());
+            }
+            if (taskStore.contains(task.getId()) || isArchived(task.getId()) || !batchIds.add(task.getId())) {
+                throw new DuplicateTaskIdException(String.format(DUPLICATE_TASK_ID, task.getId()));
+            }
+            if (task instanceof Epic) {
+                batchEpicIds.add(task.getId());
+            } else if (task.getStartTime() != null) {
+                scheduledTasks.add(task);
+            }
+        }
+
+        for (Task task : tasks) {
+            if (task instanceof Subtask) {
+                int epicId = ((Subtask) task).getEpicId();
+                if (!batchEpicIds.contains(epicId)) {
+                    restoreFromArchive(epicId);
+                }
+                if (!batchEpicIds.contains(epicId) && !isEpicExisted(epicId)) {
+                    throw new MissingEpicException(String.format("Epic with ID %d does not exist", epicId));
+                }
+            } else if (task instanceof Epic && ((Epic) task).getParentEpicId() != 0) {
+                int parentEpicId = ((Epic) task).getParentEpicId();
+                if (!batchEpicIds.contains(parentEpicId)) {
+                    restoreFromArchive(parentEpicId);
+                }
+                if (!batchEpicIds.contains(parentEpicId) && !isEpicExisted(parentEpicId)) {
+                    throw new MissingEpicException(String.format("Epic with ID %d does not exist", parentEpicId));
+                }
+            }
+        }
+        sortEpicsParentFirst(tasks);
+
+        scheduledTasks.sort(Comparator.comparing(Task::getStartTime).thenComparing(Task::getEndTime));
+        LocalDateTime maxEndTime = null;
+        for (Task task : scheduledTasks) {
+            if ((maxEndTime != null && maxEndTime.isAfter(task.getStartTime()))
+                    || taskIntervalIndex.isOverlapping(task.getStartTime(), task.getEndTime(), task.getId())
+                    || recurringTaskIndex.isOverlapping(task.getStartTime(), task.getEndTime(), task.getId())) {
+                throw new TimeOverlapException("The time of the task overlaps with another task.");
+            }
+            if (maxEndTime == null || task.getEndTime().isAfter(maxEndTime)) {
+                maxEndTime = task.getEndTime();
+            }
+        }
+    }
+
+    /**
+     * Returns the epics of the batch ordered so that every parent epic comes before its children, and
+     * rejects parent links that form a cycle inside the batch.
+     */
+    public static List<Epic> sortEpicsParentFirst(Collection<Task> tasks) {
+        Map<Integer, Epic> idToBatchEpic = new HashMap<>();
+        for (Task task : tasks) {
+            if (task instanceof Epic) {
+                idToBatchEpic.put(task.getId(), (Epic) task);
+            }
+        }
+
+        List<Epic> sortedEpics = new ArrayList<>(idToBatchEpic.size());
+        Set<Integer> sortedIds = new HashSet<>();
+        for (Epic epic : idToBatchEpic.values()) {
+            Deque<Epic> unsortedAncestors = new ArrayDeque<>();
+            Set<Integer> pathIds = new HashSet<>();
+            Epic current = epic;
+            while (current != null && !sortedIds.contains(current.getId())) {
+                if (!pathIds.add(current.getId())) {
+                    throw new IllegalArgumentException("Epic " + current.getId() + " cannot be its own ancestor");
+                }
+                unsortedAncestors.push(current);
+                current = idToBatchEpic.get(current.getParentEpicId());
+            }
+            while (!unsortedAncestors.isEmpty()) {
+                Epic ancestor = unsortedAncestors.pop();
+                sortedIds.add(ancestor.getId());
+                sortedEpics.add(ancestor);
+            }
+        }
+        return sortedEpics;
+    }
+
     private void addEpic(int id, Epic epic) throws DuplicateTaskIdException {
-        if (idToEpicMap.containsKey(id)) {
+        if (taskStore.contains(id) || isArchived(id)) {
             throw new DuplicateTaskIdException(String.format(DUPLICATE_EPIC_ID, id));
         }
-        idToEpicMap.put(id, epic);
+        int parentEpicId = epic.getParentEpicId();
+        if (parentEpicId != 0) {
+            restoreFromArchive(parentEpicId);
+            if (!isEpicExisted(parentEpicId)) {
+                throw new MissingEpicException(String.format("Epic with ID %d does not exist", parentEpicId));
+            }
+        }
+
+        putToIndexes(id, epic, TaskType.EPIC);
+        epicIdToRollup.put(id, new EpicRollup());
+        publishChange(TaskChangeType.CREATED, epic, TaskType.EPIC, epic.getVersion());
+        attachToParentEpic(epic);
+    }
+
+    private void checkParentEpic(int id, int parentEpicId) {
+        if (parentEpicId == 0) {
+            return;
+        }
+        restoreFromArchive(parentEpicId);
+        if (!isEpicExisted(parentEpicId)) {
+            throw new MissingEpicException(String.format("Epic with ID %d does not exist", parentEpicId));
+        }
+        for (Epic ancestor = getEpic(parentEpicId); ancestor != null; ancestor = getEpic(ancestor.getParentEpicId())) {
+            if (ancestor.getId() == id) {
+                throw new IllegalArgumentException("Epic " + id + " cannot be its own ancestor");
+            }
+        }
+    }
+
+    private void attachToParentEpic(Epic epic) {
+        int parentEpicId = epic.getParentEpicId();
+        if (parentEpicId == 0) {
+            return;
+        }
+        epicIdToChildEpicIds.computeIfAbsent(parentEpicId, key -> new TaskIdSet()).add(epic.getId());
+        epicIdToRollup.get(parentEpicId).put(epic.getId(), epic.getStatus(), epic.getStartTime(), epic.getEndTime(),
+                epic.getDurationInMinutes());
+        changeEpicStatusAndTimeProperties(parentEpicId);
+    }
+
+    private void detachFromParentEpic(int id, int parentEpicId) {
+        TaskIdSet childEpicIds = epicIdToChildEpicIds.get(parentEpicId);
+        if (childEpicIds == null || !childEpicIds.remove(id)) {
+            return;
+        }
+        if (childEpicIds.isEmpty()) {
+            epicIdToChildEpicIds.remove(parentEpicId);
+        }
+        EpicRollup parentRollup = epicIdToRollup.get(parentEpicId);
+        if (parentRollup != null) {
+            parentRollup.remove(id);
+            changeEpicStatusAndTimeProperties(parentEpicId);
+        }
+    }
+
+    private boolean isInEpicHierarchy(Epic epic) {
+        return epic.getParentEpicId() != 0 || epicIdToChildEpicIds.containsKey(epic.getId());
+    }
+
+    private List<Task> deleteEpic(int id) {
+        List<Task> deletedTasks = new ArrayList<>();
+        Epic deletedEpic = (Epic) removeFromIndexes(id);
+        deletedTasks.add(deletedEpic);
+        deletedTasks.addAll(deleteSubtaskConnectedWithEpic(deletedEpic));
+        epicIdToRollup.remove(id);
+
+        TaskIdSet childEpicIds = epicIdToChildEpicIds.remove(id);
+        if (childEpicIds != null) {
+            for (int childEpicId : childEpicIds.toArray()) {
+                deletedTasks.addAll(deleteEpic(childEpicId));
+            }
+        }
+        return deletedTasks;
     }
 
     private void deleteSubtaskInsideEpic(Epic epic, int subtaskId) {
-        epic.getSubtaskIdList().remove((Integer) subtaskId);
+        epic.getSubtaskIds().remove(subtaskId);
+        epicIdToRollup.get(epic.getId()).remove(subtaskId);
     }
 
     private void deleteAllSubTaskInsideAllEpic() {
-        for (Epic epic : idToEpicMap.values()) {
-            epic.getSubtaskIdList().clear();
-            epic.setStatus(Status.NEW);
+        int[] epicIds = taskStore.getIds(TaskType.EPIC).toArray();
+        for (int epicId : epicIds) {
+            Epic epic = getEpic(epicId);
+            EpicRollup epicRollup = epicIdToRollup.get(epicId);
+            for (int subtaskId : epic.getSubtaskIds().toArray()) {
+                epicRollup.remove(subtaskId);
+            }
+            epic.getSubtaskIds().clear();
+            taskStore.put(epicId, epic, TaskType.EPIC);
+        }
+        for (int epicId : epicIds) {
+            changeEpicStatusAndTimeProperties(epicId);
         }
     }
 
     private List<Task> deleteSubtaskConnectedWithEpic(Epic epic) {
         List<Task> deletedSubtasks = new ArrayList<>();
-        for (int idSubTask : epic.getSubtaskIdList()) {
-            deletedSubtasks.add(idToSubTaskMap.remove(idSubTask));
+        for (int idSubTask : epic.getSubtaskIds().toArray()) {
+            Task deletedSubtask = removeFromIndexes(idSubTask);
+            if (deletedSubtask != null) {
+                deletedSubtasks.add(deletedSubtask);
+            }
         }
-        prioritizedTasksByStartTime.removeAll(deletedSubtasks);
+        removeFromPrioritizedTasks(deletedSubtasks);
         return deletedSubtasks;
     }
 
+    private Status recalculateEpicStatus(Epic epic) {
+        List<Task> members = getEpicMembers(epic);
+
+        if (members.isEmpty()) {
+            return Status.NEW;
+        }
+
+        boolean isNewTask = false;
+        boolean isDoneTask = false;
+
+        for (Task member : members) {
+            Status status = member.getStatus();
+            if (status == Status.NEW) {
+                isNewTask = true;
+            }
+            if (status == Status.DONE) {
+                isDoneTask = true;
+            }
+            if (isNewTask && isDoneTask) {
+                return Status.IN_PROGRESS;
+            }
+        }
+        if (isNewTask) {
+            return Status.NEW;
+        }
+        if (isDoneTask) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    private void recalculateAndSetEpicTimeProperties(Epic epic) {
+        List<Task> members = getEpicMembers(epic);
+
+        if (members.isEmpty()) {
+            setNewTimeProperties(epic, DEFAULT_NULL_TASK_START_TIME, DEFAULT_TASK_DURATION_IN_MINUTES,
+                    DEFAULT_NULL_TASK_END_TIME);
+            return;
+        }
+
+        LocalDateTime minStartTime = DEFAULT_NULL_TASK_START_TIME;
+        LocalDateTime maxEndTime = DEFAULT_NULL_TASK_END_TIME;
+        int totalDurationInMinutes = 0;
+
+        for (Task member : members) {
+            minStartTime = getMinStartTime(minStartTime, member.getStartTime());
+            maxEndTime = getMaxEndTime(maxEndTime, member.getEndTime());
+
+            totalDurationInMinutes += member.getDurationInMinutes();
+        }
+
+        setNewTimeProperties(epic, minStartTime, totalDurationInMinutes, maxEndTime);
+    }
+
+    private List<Task> getEpicMembers(Epic epic) {
+        List<Task> members = new ArrayList<>();
+        for (int subtaskId : epic.getSubtaskIds().toArray()) {
+            Subtask subtask = getSubtask(subtaskId);
+            if (subtask != null) {
+                members.add(subtask);
+            }
+        }
+        TaskIdSet childEpicIds = epicIdToChildEpicIds.get(epic.getId());
+        if (childEpicIds != null) {
+            members.addAll(getTasks(childEpicIds));
+        }
+        return members;
+    }
+
+    /**
+     * Recomputes the epic from its rollup and, while the result changes, bumps its version,
+     * replaces its contribution in the parent's rollup and moves one level up. A change therefore costs
+     * O(log k) per ancestor it reaches.
+     */
     private void changeEpicStatusAndTimeProperties(int epicId) {
-        changeEpicStatus(epicId);
-        calculateAndSetNewEpicTimeProperties(idToEpicMap.get(epicId));
+        Epic epic = getEpic(epicId);
+        while (epic != null) {
+            Status oldStatus = epic.getStatus();
+            LocalDateTime oldStartTime = epic.getStartTime();
+            LocalDateTime oldEndTime = epic.getEndTime();
+            int oldDurationInMinutes = epic.getDurationInMinutes();
+
+            int previousVersion = epic.getVersion();
+
+            changeEpicStatus(epic);
+            calculateAndSetNewEpicTimeProperties(epic);
+            boolean isChanged = oldStatus != epic.getStatus() || !Objects.equals(oldStartTime, epic.getStartTime())
+                    || !Objects.equals(oldEndTime, epic.getEndTime())
+                    || oldDurationInMinutes != epic.getDurationInMinutes();
+            if (isChanged) {
+                epic.setVersion(previousVersion + 1);
+            }
+            taskStore.put(epic.getId(), epic, TaskType.EPIC);
+
+            if (!isChanged) {
+                return;
+            }
+            publishChange(TaskChangeType.EPIC_ROLLED_UP, epic, TaskType.EPIC, previousVersion);
+
+            EpicRollup parentRollup = epicIdToRollup.get(epic.getParentEpicId());
+            if (parentRollup == null) {
+                return;
+            }
+            parentRollup.put(epic.getId(), epic.getStatus(), epic.getStartTime(), epic.getEndTime(),
+                    epic.getDurationInMinutes());
+            epic = getEpic(epic.getParentEpicId());
+        }
     }
 
-    private void changeEpicStatus(int epicId) {
-        Status newEpicStatus = calculateNewEpicStatus(idToEpicMap.get(epicId));
-        idToEpicMap.get(epicId).setStatus(newEpicStatus);
+    /**
+     * Runs a public mutation and delivers its events once it has finished, so subscribers never see the
+     * repository halfway through a change.
+     */
+    private <T> T callDeferred(Supplier<T> mutation) {
+        if (!taskEventBus.hasSubscribers()) {
+            return mutation.get();
+        }
+        boolean isDeferring = taskEventBus.deferPublishing();
+        try {
+            return mutation.get();
+        } finally {
+            if (isDeferring) {
+                taskEventBus.publishDeferred();
+            }
+        }
     }
 
-    private void setNewTimeProperties(Epic epic, LocalDateTime startTime, int durationInMinutes, LocalDateTime endTime) {
-        epic.setStartTime(startTime);
-        epic.setDurationInMinutes(durationInMinutes);
-        epic.setEndTime(endTime);
+    private void runDeferred(Runnable mutation) {
+        callDeferred(() -> {
+            mutation.run();
+            return null;
+        });
     }
 
-    private boolean isTimeOverlap(Task task1, Task task2) {
-        if (task1.getStartTime() == null || task2.getStartTime() == null) {
-            return false;
+    private void publishChange(TaskChangeType changeType, Task task, TaskType taskType, int previousVersion) {
+        if (taskEventBus.hasSubscribers()) {
+            int epicId = task instanceof Subtask ? ((Subtask) task).getEpicId() : 0;
+            taskEventBus.publish(new TaskChangeEvent(changeType, task.getId(), taskType, epicId, previousVersion,
+                    task.getVersion()));
         }
-        LocalDateTime startTime1 = task1.getStartTime();
-        LocalDateTime endTime1 = task1.getEndTime();
-        LocalDateTime startTime2 = task2.getStartTime();
-        LocalDateTime endTime2 = task2.getEndTime();
+    }
 
-        return (startTime1.isBefore(endTime2) && startTime2.isBefore(endTime1));
+    private void changeEpicStatus(Epic epic) {
+        Status newEpicStatus = calculateNewEpicStatus(epic);
+        if (newEpicStatus != epic.getStatus()) {
+            epic.setStatus(newEpicStatus);
+            taskStatusIndex.put(epic.getId(), newEpicStatus, TaskType.EPIC);
+            trackDoneSince(epic.getId(), newEpicStatus);
+        }
     }
 
-    private void removeTasksFromPrioritizedSetByType(Class<?> taskType) {
-        prioritizedTasksByStartTime.removeIf(task -> task.getClass().equals(taskType));
+    private void setNewTimeProperties(Epic epic, LocalDateTime startTime, int durationInMinutes,
+                                      LocalDateTime endTime) {
+        epic.setStartTime(startTime);
+        epic.setDurationInMinutes(durationInMinutes);
+        epic.setEndTime(endTime);
     }
 }
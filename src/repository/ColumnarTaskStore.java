@@ -0,0 +1,345 @@
+package repository;
+
+import constant.Status;
+import constant.TaskType;
+import model.Epic;
+import model.RecurrenceRule;
+import model.Subtask;
+import model.Task;
+import model.TaskIdSet;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compact store keeping every task field in a primitive column, with times at minute precision. Tasks are
+ * materialized on every read, so changes to a returned task must be written back with {@link #put}.
+ */
+public class ColumnarTaskStore implements TaskStore {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NO_TIME = Integer.MIN_VALUE;
+    private static final int NO_TEXT = -1;
+    private static final byte NO_STATUS = 0;
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final TaskIdIntMap rowIndex = new TaskIdIntMap();
+    private final Map<TaskType, TaskIdSet> taskTypeToIds = new EnumMap<>(TaskType.class);
+
+    private int[] ids;
+    private byte[] types;
+    private byte[] statuses;
+    private int[] startMinutes;
+    private int[] endMinutes;
+    private int[] durations;
+    private int[] epicIds;
+    private int[] versions;
+    private int[] nameOffsets;
+    private int[] nameLengths;
+    private int[] descriptionOffsets;
+    private int[] descriptionLengths;
+    private TaskIdSet[] subtaskIds;
+    private RecurrenceRule[] recurrenceRules;
+    private int rowCount;
+
+    private byte[] text;
+    private int textSize;
+    private int unusedTextSize;
+
+    public ColumnarTaskStore() {
+        for (TaskType taskType : TaskType.values()) {
+            taskTypeToIds.put(taskType, new TaskIdSet());
+        }
+        allocate(DEFAULT_CAPACITY);
+        text = new byte[DEFAULT_CAPACITY * 16];
+    }
+
+    @Override
+    public void put(int id, Task task, TaskType taskType) {
+        int startMinute = toEpochMinute(task.getStartTime());
+        int endMinute = task instanceof Epic ? toEpochMinute(task.getEndTime()) : NO_TIME;
+        int row = rowIndex.get(id);
+        if (row < 0) {
+            if (rowCount == ids.length) {
+                grow();
+            }
+            row = rowCount++;
+            rowIndex.put(id, row);
+            nameLengths[row] = NO_TEXT;
+            descriptionLengths[row] = NO_TEXT;
+        } else if (types[row] != toTypeTag(taskType)) {
+            taskTypeToIds.get(TASK_TYPES[types[row] - 1]).remove(id);
+        }
+        taskTypeToIds.get(taskType).add(id);
+
+        ids[row] = id;
+        types[row] = toTypeTag(taskType);
+        statuses[row] = task.getStatus() != null ? (byte) (task.getStatus().ordinal() + 1) : NO_STATUS;
+        startMinutes[row] = startMinute;
+        durations[row] = task.getDurationInMinutes();
+        epicIds[row] = task instanceof Subtask ? ((Subtask) task).getEpicId()
+                : task instanceof Epic ? ((Epic) task).getParentEpicId() : 0;
+        versions[row] = task.getVersion();
+        endMinutes[row] = endMinute;
+        subtaskIds[row] = task instanceof Epic ? ((Epic) task).getSubtaskIds() : null;
+        recurrenceRules[row] = task.getRecurrenceRule();
+
+        byte[] name = toBytes(task.getName());
+        if (!isSameText(nameOffsets[row], nameLengths[row], name)) {
+            releaseText(nameLengths[row]);
+            nameLengths[row] = NO_TEXT;
+            nameOffsets[row] = appendText(name);
+            nameLengths[row] = name != null ? name.length : NO_TEXT;
+        }
+        byte[] description = toBytes(task.getDescription());
+        if (!isSameText(descriptionOffsets[row], descriptionLengths[row], description)) {
+            releaseText(descriptionLengths[row]);
+            descriptionLengths[row] = NO_TEXT;
+            descriptionOffsets[row] = appendText(description);
+            descriptionLengths[row] = description != null ? description.length : NO_TEXT;
+        }
+    }
+
+    @Override
+    public void checkStorable(Task task) {
+        toEpochMinute(task.getStartTime());
+        toEpochMinute(task.getEndTime());
+    }
+
+    @Override
+    public ChronoUnit getTimePrecision() {
+        return ChronoUnit.MINUTES;
+    }
+
+    @Override
+    public Task get(int id) {
+        int row = rowIndex.get(id);
+        return row >= 0 ? materialize(row) : null;
+    }
+
+    @Override
+    public TaskType getType(int id) {
+        int row = rowIndex.get(id);
+        return row >= 0 ? TASK_TYPES[types[row] - 1] : null;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return rowIndex.get(id) >= 0;
+    }
+
+    @Override
+    public boolean contains(int id, TaskType taskType) {
+        int row = rowIndex.get(id);
+        return row >= 0 && types[row] == toTypeTag(taskType);
+    }
+
+    @Override
+    public Task remove(int id) {
+        int row = rowIndex.get(id);
+        if (row < 0) {
+            return null;
+        }
+
+        Task removedTask = materialize(row);
+        taskTypeToIds.get(TASK_TYPES[types[row] - 1]).remove(id);
+        rowIndex.remove(id);
+        releaseText(nameLengths[row]);
+        releaseText(descriptionLengths[row]);
+
+        int lastRow = --rowCount;
+        if (row != lastRow) {
+            moveRow(lastRow, row);
+            rowIndex.put(ids[row], row);
+        }
+        subtaskIds[lastRow] = null;
+        recurrenceRules[lastRow] = null;
+        return removedTask;
+    }
+
+    @Override
+    public TaskIdSet getIds(TaskType taskType) {
+        return taskTypeToIds.get(taskType);
+    }
+
+    @Override
+    public void clear() {
+        rowIndex.clear();
+        taskTypeToIds.values().forEach(TaskIdSet::clear);
+        Arrays.fill(subtaskIds, 0, rowCount, null);
+        Arrays.fill(recurrenceRules, 0, rowCount, null);
+        rowCount = 0;
+        textSize = 0;
+        unusedTextSize = 0;
+    }
+
+    @Override
+    public int size() {
+        return rowCount;
+    }
+
+    private Task materialize(int row) {
+        int id = ids[row];
+        String name = readText(nameOffsets[row], nameLengths[row]);
+        String description = readText(descriptionOffsets[row], descriptionLengths[row]);
+        Status status = statuses[row] != NO_STATUS ? STATUSES[statuses[row] - 1] : null;
+        LocalDateTime startTime = toLocalDateTime(startMinutes[row]);
+
+        Task task;
+        switch (TASK_TYPES[types[row] - 1]) {
+            case SUBTASK:
+                task = new Subtask(id, name, description, status, epicIds[row], startTime, durations[row]);
+                break;
+            case EPIC:
+                Epic epic = new Epic(id, name, description, status);
+                epic.setStartTime(startTime);
+                epic.setDurationInMinutes(durations[row]);
+                epic.setEndTime(toLocalDateTime(endMinutes[row]));
+                epic.setSubtaskIds(subtaskIds[row]);
+                epic.setParentEpicId(epicIds[row]);
+                task = epic;
+                break;
+            default:
+                task = new Task(id, name, description, status, startTime, durations[row]);
+        }
+        task.setVersion(versions[row]);
+        task.setRecurrenceRule(recurrenceRules[row]);
+        return task;
+    }
+
+    private void moveRow(int fromRow, int toRow) {
+        ids[toRow] = ids[fromRow];
+        types[toRow] = types[fromRow];
+        statuses[toRow] = statuses[fromRow];
+        startMinutes[toRow] = startMinutes[fromRow];
+        endMinutes[toRow] = endMinutes[fromRow];
+        durations[toRow] = durations[fromRow];
+        epicIds[toRow] = epicIds[fromRow];
+        versions[toRow] = versions[fromRow];
+        nameOffsets[toRow] = nameOffsets[fromRow];
+        nameLengths[toRow] = nameLengths[fromRow];
+        descriptionOffsets[toRow] = descriptionOffsets[fromRow];
+        descriptionLengths[toRow] = descriptionLengths[fromRow];
+        subtaskIds[toRow] = subtaskIds[fromRow];
+        recurrenceRules[toRow] = recurrenceRules[fromRow];
+    }
+
+    private boolean isSameText(int offset, int length, byte[] value) {
+        if (value == null || length == NO_TEXT) {
+            return value == null && length == NO_TEXT;
+        }
+        return Arrays.equals(text, offset, offset + length, value, 0, value.length);
+    }
+
+    private int appendText(byte[] value) {
+        if (value == null) {
+            return 0;
+        }
+        if (textSize + value.length > text.length) {
+            if (unusedTextSize > textSize / 2) {
+                compactText();
+            }
+            if (textSize + value.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textSize + value.length));
+            }
+        }
+        int offset = textSize;
+        System.arraycopy(value, 0, text, offset, value.length);
+        textSize += value.length;
+        return offset;
+    }
+
+    private void releaseText(int length) {
+        if (length != NO_TEXT) {
+            unusedTextSize += length;
+        }
+    }
+
+    private void compactText() {
+        byte[] compactedText = new byte[text.length];
+        int compactedSize = 0;
+        for (int row = 0; row < rowCount; row++) {
+            if (nameLengths[row] != NO_TEXT) {
+                System.arraycopy(text, nameOffsets[row], compactedText, compactedSize, nameLengths[row]);
+                nameOffsets[row] = compactedSize;
+                compactedSize += nameLengths[row];
+            }
+            if (descriptionLengths[row] != NO_TEXT) {
+                System.arraycopy(text, descriptionOffsets[row], compactedText, compactedSize, descriptionLengths[row]);
+                descriptionOffsets[row] = compactedSize;
+                compactedSize += descriptionLengths[row];
+            }
+        }
+        text = compactedText;
+        textSize = compactedSize;
+        unusedTextSize = 0;
+    }
+
+    private String readText(int offset, int length) {
+        return length != NO_TEXT ? new String(text, offset, length, StandardCharsets.UTF_8) : null;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        endMinutes = Arrays.copyOf(endMinutes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        descriptionOffsets = Arrays.copyOf(descriptionOffsets, capacity);
+        descriptionLengths = Arrays.copyOf(descriptionLengths, capacity);
+        subtaskIds = Arrays.copyOf(subtaskIds, capacity);
+        recurrenceRules = Arrays.copyOf(recurrenceRules, capacity);
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        types = new byte[capacity];
+        statuses = new byte[capacity];
+        startMinutes = new int[capacity];
+        endMinutes = new int[capacity];
+        durations = new int[capacity];
+        epicIds = new int[capacity];
+        versions = new int[capacity];
+        nameOffsets = new int[capacity];
+        nameLengths = new int[capacity];
+        descriptionOffsets = new int[capacity];
+        descriptionLengths = new int[capacity];
+        subtaskIds = new TaskIdSet[capacity];
+        recurrenceRules = new RecurrenceRule[capacity];
+    }
+
+    private static byte[] toBytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int toEpochMinute(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        long epochMinute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+        if (epochMinute <= NO_TIME || epochMinute > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Time is out of the range of the task store: " + time);
+        }
+        return (int) epochMinute;
+    }
+
+    private static LocalDateTime toLocalDateTime(int epochMinute) {
+        return epochMinute != NO_TIME ? LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC) : null;
+    }
+
+    private static byte toTypeTag(TaskType taskType) {
+        return (byte) (taskType.ordinal() + 1);
+    }
+}
@@ -0,0 +1,321 @@
+package repository;
+
+import constant.Status;
+import constant.TaskType;
+import exception.DependencyCycleException;
+import exception.TaskVersionConflictException;
+import exception.TimeOverlapException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TimeSlot;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe repository delegating to an {@link AllTasksRepository} under a {@link StampedLock}. Change
+ * events are delivered after the write lock is released.
+ */
+public class ConcurrentAllTasksRepository implements TaskRepository {
+
+    private final AllTasksRepository delegate;
+    private final StampedLock lock = new StampedLock();
+
+    public ConcurrentAllTasksRepository() {
+        this(new HeapTaskStore());
+    }
+
+    public ConcurrentAllTasksRepository(TaskStore taskStore) {
+        this.delegate = new AllTasksRepository(taskStore);
+    }
+
+    public ConcurrentAllTasksRepository(TaskStore taskStore, TaskArchive taskArchive, Clock clock) {
+        this.delegate = new AllTasksRepository(taskStore, taskArchive, clock);
+    }
+
+    @Override
+    public void addTask(Task task) throws TimeOverlapException {
+        execute(() -> delegate.addTask(task));
+    }
+
+    @Override
+    public void addTasks(Collection<Task> tasks) throws TimeOverlapException {
+        execute(() -> delegate.addTasks(tasks));
+    }
+
+    @Override
+    public void updateTask(Task task) throws TimeOverlapException {
+        execute(() -> delegate.updateTask(task));
+    }
+
+    @Override
+    public void updateTask(Task task, int expectedVersion) throws TimeOverlapException, TaskVersionConflictException {
+        execute(() -> delegate.updateTask(task, expectedVersion));
+    }
+
+    @Override
+    public TaskEventBus getTaskEventBus() {
+        return delegate.getTaskEventBus();
+    }
+
+    @Override
+    public boolean isEpicExisted(Epic epic) {
+        return optimisticRead(() -> delegate.isEpicExisted(epic));
+    }
+
+    @Override
+    public boolean isTaskExisted(Task task) {
+        return optimisticRead(() -> delegate.isTaskExisted(task));
+    }
+
+    @Override
+    public boolean isEpicExisted(int id) {
+        return optimisticRead(() -> delegate.isEpicExisted(id));
+    }
+
+    @Override
+    public boolean isSubtaskExisted(Subtask subtask) {
+        return optimisticRead(() -> delegate.isSubtaskExisted(subtask));
+    }
+
+    @Override
+    public Status calculateNewEpicStatus(Epic epic) {
+        return read(() -> delegate.calculateNewEpicStatus(epic));
+    }
+
+    @Override
+    public void calculateAndSetNewEpicTimeProperties(Epic epic) {
+        execute(() -> delegate.calculateAndSetNewEpicTimeProperties(epic));
+    }
+
+    @Override
+    public boolean verifyEpicRollups() {
+        return read(delegate::verifyEpicRollups);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        Task task = optimisticRead(() -> delegate.getHotTaskById(id));
+        if (task == null && read(() -> delegate.isArchived(id))) {
+            task = write(() -> delegate.getTaskById(id));
+        }
+        return task;
+    }
+
+    @Override
+    public Task peekTaskById(int id) {
+        Task task = optimisticRead(() -> delegate.getHotTaskById(id));
+        if (task == null) {
+            task = read(() -> delegate.peekTaskById(id));
+        }
+        return task;
+    }
+
+    @Override
+    public boolean isArchived(int id) {
+        return read(() -> delegate.isArchived(id));
+    }
+
+    @Override
+    public int archiveDoneTasks(Duration minDoneAge) {
+        return write(() -> delegate.archiveDoneTasks(minDoneAge));
+    }
+
+    @Override
+    public int getMaxArchivedTaskId() {
+        return read(delegate::getMaxArchivedTaskId);
+    }
+
+    @Override
+    public TaskTierStats getTaskTierStats() {
+        return read(delegate::getTaskTierStats);
+    }
+
+    @Override
+    public List<Task> getAllTaskType() {
+        return read(delegate::getAllTaskType);
+    }
+
+    @Override
+    public List<Task> getAllSubtaskType() {
+        return read(delegate::getAllSubtaskType);
+    }
+
+    @Override
+    public List<Task> getAllEpicType() {
+        return read(delegate::getAllEpicType);
+    }
+
+    @Override
+    public List<Task> getAllTasks() {
+        return read(delegate::getAllTasks);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return read(() -> delegate.getTasksByStatus(status));
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status, TaskType taskType) {
+        return read(() -> delegate.getTasksByStatus(status, taskType));
+    }
+
+    @Override
+    public List<Integer> search(String query, int limit) {
+        return read(() -> delegate.search(query, limit));
+    }
+
+    @Override
+    public List<Task> getAllEpicSubtasks(Epic epic) {
+        return read(() -> delegate.getAllEpicSubtasks(epic));
+    }
+
+    @Override
+    public List<Task> getAllEpicSubtasks(int id) {
+        return read(() -> delegate.getAllEpicSubtasks(id));
+    }
+
+    @Override
+    public List<Task> getChildEpics(int id) {
+        return read(() -> delegate.getChildEpics(id));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return read(delegate::getPrioritizedTasks);
+    }
+
+    @Override
+    public TaskPage getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit, String cursor) {
+        return read(() -> delegate.getPrioritizedTasks(from, to, limit, cursor));
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count) {
+        return read(() -> delegate.findFreeSlots(after, durationInMinutes, count));
+    }
+
+    @Override
+    public List<Task> getTasksForDay(LocalDate day) {
+        return read(() -> delegate.getTasksForDay(day));
+    }
+
+    @Override
+    public List<Task> getTasksForWeek(LocalDate day) {
+        return read(() -> delegate.getTasksForWeek(day));
+    }
+
+    @Override
+    public void addDependency(int taskId, int blockedByTaskId) throws DependencyCycleException {
+        execute(() -> delegate.addDependency(taskId, blockedByTaskId));
+    }
+
+    @Override
+    public void removeDependency(int taskId, int blockedByTaskId) {
+        execute(() -> delegate.removeDependency(taskId, blockedByTaskId));
+    }
+
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        return read(() -> delegate.getDependencies(taskId));
+    }
+
+    @Override
+    public TaskSchedule getTaskSchedule(int taskId) {
+        return read(() -> delegate.getTaskSchedule(taskId));
+    }
+
+    @Override
+    public List<Task> getCriticalPath() {
+        return read(delegate::getCriticalPath);
+    }
+
+    @Override
+    public List<Task> deleteTaskById(int id) {
+        return write(() -> delegate.deleteTaskById(id));
+    }
+
+    @Override
+    public List<Task> deleteAllTaskType() {
+        return write(delegate::deleteAllTaskType);
+    }
+
+    @Override
+    public List<Task> deleteAllSubtaskType() {
+        return write(delegate::deleteAllSubtaskType);
+    }
+
+    @Override
+    public List<Task> deleteAllEpicType() {
+        return write(delegate::deleteAllEpicType);
+    }
+
+    @Override
+    public List<Task> deleteAllTasks() {
+        return write(delegate::deleteAllTasks);
+    }
+
+    @Override
+    public void checkForTimeOverlap(Task task) throws TimeOverlapException {
+        read(() -> {
+            delegate.checkForTimeOverlap(task);
+            return null;
+        });
+    }
+
+    private <T> T optimisticRead(Supplier<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException ex) {
+                // The structure was changed by a writer during the read, the read is retried under the lock.
+            }
+        }
+        return read(reader);
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        TaskEventBus taskEventBus = delegate.getTaskEventBus();
+        boolean isDeferring = taskEventBus.deferPublishing();
+        long stamp = lock.writeLock();
+        try {
+            return writer.get();
+        } finally {
+            lock.unlockWrite(stamp);
+            if (isDeferring) {
+                taskEventBus.publishDeferred();
+            }
+        }
+    }
+
+    private void execute(Runnable writer) {
+        write(() -> {
+            writer.run();
+            return null;
+        });
+    }
+}
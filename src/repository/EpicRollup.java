@@ -0,0 +1,126 @@
+package repository;
+
+import constant.Status;
+import model.Epic;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static constant.Constants.DEFAULT_NULL_TASK_END_TIME;
+import static constant.Constants.DEFAULT_NULL_TASK_START_TIME;
+
+/**
+ * Status counters, total duration and ordered start/end time multisets of the subtasks of one epic.
+ * Every subtask change is applied as "remove old contribution, add new one", so the epic status and
+ * time properties never require a scan over all of its subtasks.
+ */
+class EpicRollup {
+
+    private static class Contribution {
+        final Status status;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+        final int durationInMinutes;
+
+        Contribution(Status status, LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes) {
+            this.status = status;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.durationInMinutes = durationInMinutes;
+        }
+    }
+
+    private final Map<Integer, Contribution> memberIdToContribution = new HashMap<>();
+    private final int[] statusCounters = new int[Status.values().length];
+    private final TreeMap<LocalDateTime, Integer> startTimes = new TreeMap<>();
+    private final TreeMap<LocalDateTime, Integer> endTimes = new TreeMap<>();
+    private long totalDurationInMinutes;
+
+    void put(int memberId, Status status, LocalDateTime startTime, LocalDateTime endTime, int durationInMinutes) {
+        remove(memberId);
+        Contribution contribution = new Contribution(status, startTime, endTime, durationInMinutes);
+        memberIdToContribution.put(memberId, contribution);
+
+        if (status != null) {
+            statusCounters[status.ordinal()]++;
+        }
+        increment(startTimes, startTime);
+        increment(endTimes, endTime);
+        totalDurationInMinutes += durationInMinutes;
+    }
+
+    void remove(int memberId) {
+        Contribution contribution = memberIdToContribution.remove(memberId);
+        if (contribution == null) {
+            return;
+        }
+
+        if (contribution.status != null) {
+            statusCounters[contribution.status.ordinal()]--;
+        }
+        decrement(startTimes, contribution.startTime);
+        decrement(endTimes, contribution.endTime);
+        totalDurationInMinutes -= contribution.durationInMinutes;
+    }
+
+    void clear() {
+        memberIdToContribution.clear();
+        startTimes.clear();
+        endTimes.clear();
+        Arrays.fill(statusCounters, 0);
+        totalDurationInMinutes = 0;
+    }
+
+    Status getStatus() {
+        if (memberIdToContribution.isEmpty()) {
+            return Status.NEW;
+        }
+
+        boolean isNewTask = statusCounters[Status.NEW.ordinal()] > 0;
+        boolean isDoneTask = statusCounters[Status.DONE.ordinal()] > 0;
+
+        if (isNewTask && isDoneTask) {
+            return Status.IN_PROGRESS;
+        }
+        if (isNewTask) {
+            return Status.NEW;
+        }
+        if (isDoneTask) {
+            return Status.DONE;
+        }
+        return Status.IN_PROGRESS;
+    }
+
+    LocalDateTime getStartTime() {
+        return startTimes.isEmpty() ? DEFAULT_NULL_TASK_START_TIME : startTimes.firstKey();
+    }
+
+    LocalDateTime getEndTime() {
+        return endTimes.isEmpty() ? DEFAULT_NULL_TASK_END_TIME : endTimes.lastKey();
+    }
+
+    int getDurationInMinutes() {
+        return (int) totalDurationInMinutes;
+    }
+
+    void applyTimePropertiesTo(Epic epic) {
+        epic.setStartTime(getStartTime());
+        epic.setDurationInMinutes(getDurationInMinutes());
+        epic.setEndTime(getEndTime());
+    }
+
+    private void increment(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime time) {
+        if (time != null) {
+            multiset.merge(time, 1, Integer::sum);
+        }
+    }
+
+    private void decrement(TreeMap<LocalDateTime, Integer> multiset, LocalDateTime time) {
+        if (time != null) {
+            multiset.computeIfPresent(time, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package repository;
+
+import constant.TaskType;
+import model.Task;
+import model.TaskIdSet;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Default store keeping the task objects themselves, so a task read from the repository is the same
+ * instance that was added to it.
+ */
+public class HeapTaskStore implements TaskStore {
+
+    private final TaskIdIndex taskIdIndex = new TaskIdIndex();
+    private final Map<TaskType, TaskIdSet> taskTypeToIds = new EnumMap<>(TaskType.class);
+
+    public HeapTaskStore() {
+        for (TaskType taskType : TaskType.values()) {
+            taskTypeToIds.put(taskType, new TaskIdSet());
+        }
+    }
+
+    @Override
+    public void put(int id, Task task, TaskType taskType) {
+        TaskType oldTaskType = taskIdIndex.getType(id);
+        if (oldTaskType != null && oldTaskType != taskType) {
+            taskTypeToIds.get(oldTaskType).remove(id);
+        }
+        taskIdIndex.put(id, task, taskType);
+        taskTypeToIds.get(taskType).add(id);
+    }
+
+    @Override
+    public Task get(int id) {
+        return taskIdIndex.get(id);
+    }
+
+    @Override
+    public TaskType getType(int id) {
+        return taskIdIndex.getType(id);
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return taskIdIndex.contains(id);
+    }
+
+    @Override
+    public boolean contains(int id, TaskType taskType) {
+        return taskIdIndex.contains(id, taskType);
+    }
+
+    @Override
+    public Task remove(int id) {
+        TaskType taskType = taskIdIndex.getType(id);
+        if (taskType == null) {
+            return null;
+        }
+        taskTypeToIds.get(taskType).remove(id);
+        return taskIdIndex.remove(id);
+    }
+
+    @Override
+    public TaskIdSet getIds(TaskType taskType) {
+        return taskTypeToIds.get(taskType);
+    }
+
+    @Override
+    public void clear() {
+        taskIdIndex.clear();
+        taskTypeToIds.values().forEach(TaskIdSet::clear);
+    }
+
+    @Override
+    public int size() {
+        return taskIdIndex.size();
+    }
+}
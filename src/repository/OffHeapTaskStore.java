@@ -0,0 +1,329 @@
+package repository;
+
+import constant.Status;
+import constant.TaskType;
+import model.Epic;
+import model.RecurrenceRule;
+import model.Subtask;
+import model.Task;
+import model.TaskIdSet;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Store keeping task records and texts in direct buffers, with freed space reused through free-lists.
+ * Only the id lookup, id sets and recurrence rules stay on the heap, as do the repository's own indexes.
+ */
+public class OffHeapTaskStore implements TaskStore {
+
+    private static final int ID_OFFSET = 0;
+    private static final int TYPE_OFFSET = 4;
+    private static final int STATUS_OFFSET = 5;
+    private static final int TEXT_SIZE_CLASS_OFFSET = 6;
+    private static final int START_MINUTE_OFFSET = 8;
+    private static final int END_MINUTE_OFFSET = 12;
+    private static final int DURATION_OFFSET = 16;
+    private static final int EPIC_ID_OFFSET = 20;
+    private static final int TEXT_OFFSET = 24;
+    private static final int VERSION_OFFSET = 28;
+    private static final int RECORD_SIZE = 32;
+
+    private static final int TEXT_HEADER_SIZE = 8;
+    private static final int MIN_TEXT_BLOCK_SHIFT = 4;
+    private static final int TEXT_SIZE_CLASSES = 31 - MIN_TEXT_BLOCK_SHIFT;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NO_TIME = Integer.MIN_VALUE;
+    private static final int NO_TEXT = -1;
+    private static final int NO_FREE_BLOCK = -1;
+    private static final byte NO_STATUS = 0;
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final TaskIdIntMap recordIndex = new TaskIdIntMap();
+    private final Map<TaskType, TaskIdSet> taskTypeToIds = new EnumMap<>(TaskType.class);
+    private final Map<Integer, TaskIdSet> epicIdToSubtaskIds = new HashMap<>();
+    private final Map<Integer, RecurrenceRule> taskIdToRecurrenceRule = new HashMap<>();
+
+    private ByteBuffer records;
+    private int usedRecords;
+    private int freeRecordHead = NO_FREE_BLOCK;
+    private int size;
+
+    private ByteBuffer text;
+    private int usedText;
+    private final int[] freeTextBlockHeads = new int[TEXT_SIZE_CLASSES];
+
+    public OffHeapTaskStore() {
+        for (TaskType taskType : TaskType.values()) {
+            taskTypeToIds.put(taskType, new TaskIdSet());
+        }
+        records = ByteBuffer.allocateDirect(DEFAULT_CAPACITY * RECORD_SIZE);
+        text = ByteBuffer.allocateDirect(DEFAULT_CAPACITY << (MIN_TEXT_BLOCK_SHIFT + 1));
+        Arrays.fill(freeTextBlockHeads, NO_FREE_BLOCK);
+    }
+
+    @Override
+    public void put(int id, Task task, TaskType taskType) {
+        int startMinute = toEpochMinute(task.getStartTime());
+        int endMinute = task instanceof Epic ? toEpochMinute(task.getEndTime()) : NO_TIME;
+        int record = recordIndex.get(id);
+        if (record < 0) {
+            record = allocateRecord();
+            recordIndex.put(id, record);
+            records.put(record + TEXT_SIZE_CLASS_OFFSET, (byte) NO_TEXT);
+            size++;
+        } else if (getType(id) != taskType) {
+            taskTypeToIds.get(getType(id)).remove(id);
+            epicIdToSubtaskIds.remove(id);
+        }
+        taskTypeToIds.get(taskType).add(id);
+
+        records.putInt(record + ID_OFFSET, id);
+        records.put(record + TYPE_OFFSET, (byte) taskType.ordinal());
+        records.put(record + STATUS_OFFSET,
+                task.getStatus() != null ? (byte) (task.getStatus().ordinal() + 1) : NO_STATUS);
+        records.putInt(record + START_MINUTE_OFFSET, startMinute);
+        records.putInt(record + END_MINUTE_OFFSET, endMinute);
+        records.putInt(record + DURATION_OFFSET, task.getDurationInMinutes());
+        records.putInt(record + EPIC_ID_OFFSET, task instanceof Subtask ? ((Subtask) task).getEpicId()
+                : task instanceof Epic ? ((Epic) task).getParentEpicId() : 0);
+        records.putInt(record + VERSION_OFFSET, task.getVersion());
+        if (task instanceof Epic) {
+            epicIdToSubtaskIds.put(id, ((Epic) task).getSubtaskIds());
+        }
+        if (task.getRecurrenceRule() != null) {
+            taskIdToRecurrenceRule.put(id, task.getRecurrenceRule());
+        } else {
+            taskIdToRecurrenceRule.remove(id);
+        }
+        writeText(record, toBytes(task.getName()), toBytes(task.getDescription()));
+    }
+
+    @Override
+    public void checkStorable(Task task) {
+        toEpochMinute(task.getStartTime());
+        toEpochMinute(task.getEndTime());
+    }
+
+    @Override
+    public ChronoUnit getTimePrecision() {
+        return ChronoUnit.MINUTES;
+    }
+
+    @Override
+    public Task get(int id) {
+        int record = recordIndex.get(id);
+        return record >= 0 ? materialize(record) : null;
+    }
+
+    @Override
+    public TaskType getType(int id) {
+        int record = recordIndex.get(id);
+        return record >= 0 ? TASK_TYPES[records.get(record + TYPE_OFFSET)] : null;
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return recordIndex.get(id) >= 0;
+    }
+
+    @Override
+    public boolean contains(int id, TaskType taskType) {
+        int record = recordIndex.get(id);
+        return record >= 0 && records.get(record + TYPE_OFFSET) == taskType.ordinal();
+    }
+
+    @Override
+    public Task remove(int id) {
+        int record = recordIndex.get(id);
+        if (record < 0) {
+            return null;
+        }
+
+        Task removedTask = materialize(record);
+        taskTypeToIds.get(getType(id)).remove(id);
+        epicIdToSubtaskIds.remove(id);
+        taskIdToRecurrenceRule.remove(id);
+        recordIndex.remove(id);
+        releaseTextBlock(record);
+        records.putInt(record + ID_OFFSET, freeRecordHead);
+        freeRecordHead = record;
+        size--;
+        return removedTask;
+    }
+
+    @Override
+    public TaskIdSet getIds(TaskType taskType) {
+        return taskTypeToIds.get(taskType);
+    }
+
+    @Override
+    public void clear() {
+        recordIndex.clear();
+        taskTypeToIds.values().forEach(TaskIdSet::clear);
+        epicIdToSubtaskIds.clear();
+        taskIdToRecurrenceRule.clear();
+        usedRecords = 0;
+        freeRecordHead = NO_FREE_BLOCK;
+        size = 0;
+        usedText = 0;
+        Arrays.fill(freeTextBlockHeads, NO_FREE_BLOCK);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private Task materialize(int record) {
+        int id = records.getInt(record + ID_OFFSET);
+        byte statusTag = records.get(record + STATUS_OFFSET);
+        Status status = statusTag != NO_STATUS ? STATUSES[statusTag - 1] : null;
+        LocalDateTime startTime = toLocalDateTime(records.getInt(record + START_MINUTE_OFFSET));
+        int durationInMinutes = records.getInt(record + DURATION_OFFSET);
+
+        String name = null;
+        String description = null;
+        if (records.get(record + TEXT_SIZE_CLASS_OFFSET) != NO_TEXT) {
+            int textBlock = records.getInt(record + TEXT_OFFSET);
+            int nameLength = text.getInt(textBlock);
+            int descriptionLength = text.getInt(textBlock + 4);
+            int nameOffset = textBlock + TEXT_HEADER_SIZE;
+            name = readText(nameOffset, nameLength);
+            description = readText(nameOffset + Math.max(nameLength, 0), descriptionLength);
+        }
+
+        Task task;
+        switch (TASK_TYPES[records.get(record + TYPE_OFFSET)]) {
+            case SUBTASK:
+                task = new Subtask(id, name, description, status, records.getInt(record + EPIC_ID_OFFSET),
+                        startTime, durationInMinutes);
+                break;
+            case EPIC:
+                Epic epic = new Epic(id, name, description, status);
+                epic.setStartTime(startTime);
+                epic.setDurationInMinutes(durationInMinutes);
+                epic.setEndTime(toLocalDateTime(records.getInt(record + END_MINUTE_OFFSET)));
+                epic.setSubtaskIds(epicIdToSubtaskIds.get(id));
+                epic.setParentEpicId(records.getInt(record + EPIC_ID_OFFSET));
+                task = epic;
+                break;
+            default:
+                task = new Task(id, name, description, status, startTime, durationInMinutes);
+        }
+        task.setVersion(records.getInt(record + VERSION_OFFSET));
+        task.setRecurrenceRule(taskIdToRecurrenceRule.get(id));
+        return task;
+    }
+
+    private int allocateRecord() {
+        if (freeRecordHead != NO_FREE_BLOCK) {
+            int record = freeRecordHead;
+            freeRecordHead = records.getInt(record + ID_OFFSET);
+            return record;
+        }
+        if (usedRecords + RECORD_SIZE > records.capacity()) {
+            records = copyOf(records, usedRecords, records.capacity() * 2);
+        }
+        int record = usedRecords;
+        usedRecords += RECORD_SIZE;
+        return record;
+    }
+
+    private void writeText(int record, byte[] name, byte[] description) {
+        int requiredSize = TEXT_HEADER_SIZE + (name != null ? name.length : 0)
+                + (description != null ? description.length : 0);
+        int sizeClass = toSizeClass(requiredSize);
+        if (records.get(record + TEXT_SIZE_CLASS_OFFSET) != sizeClass) {
+            releaseTextBlock(record);
+            records.putInt(record + TEXT_OFFSET, allocateTextBlock(sizeClass));
+            records.put(record + TEXT_SIZE_CLASS_OFFSET, (byte) sizeClass);
+        }
+
+        int textBlock = records.getInt(record + TEXT_OFFSET);
+        text.putInt(textBlock, name != null ? name.length : NO_TEXT);
+        text.putInt(textBlock + 4, description != null ? description.length : NO_TEXT);
+        int offset = textBlock + TEXT_HEADER_SIZE;
+        if (name != null) {
+            text.put(offset, name);
+            offset += name.length;
+        }
+        if (description != null) {
+            text.put(offset, description);
+        }
+    }
+
+    private int allocateTextBlock(int sizeClass) {
+        int textBlock = freeTextBlockHeads[sizeClass];
+        if (textBlock != NO_FREE_BLOCK) {
+            freeTextBlockHeads[sizeClass] = text.getInt(textBlock);
+            return textBlock;
+        }
+
+        int blockSize = 1 << (sizeClass + MIN_TEXT_BLOCK_SHIFT);
+        if (usedText + blockSize > text.capacity()) {
+            text = copyOf(text, usedText, Math.max(text.capacity() * 2, usedText + blockSize));
+        }
+        textBlock = usedText;
+        usedText += blockSize;
+        return textBlock;
+    }
+
+    private void releaseTextBlock(int record) {
+        byte sizeClass = records.get(record + TEXT_SIZE_CLASS_OFFSET);
+        if (sizeClass != NO_TEXT) {
+            int textBlock = records.getInt(record + TEXT_OFFSET);
+            text.putInt(textBlock, freeTextBlockHeads[sizeClass]);
+            freeTextBlockHeads[sizeClass] = textBlock;
+            records.put(record + TEXT_SIZE_CLASS_OFFSET, (byte) NO_TEXT);
+        }
+    }
+
+    private String readText(int offset, int length) {
+        if (length == NO_TEXT) {
+            return null;
+        }
+        byte[] value = new byte[length];
+        text.get(offset, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer buffer, int usedBytes, int capacity) {
+        ByteBuffer copy = ByteBuffer.allocateDirect(capacity);
+        copy.put(0, buffer, 0, usedBytes);
+        return copy;
+    }
+
+    private static int toSizeClass(int requiredSize) {
+        int blockShift = 32 - Integer.numberOfLeadingZeros(Math.max(requiredSize, 1 << MIN_TEXT_BLOCK_SHIFT) - 1);
+        return blockShift - MIN_TEXT_BLOCK_SHIFT;
+    }
+
+    private static byte[] toBytes(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int toEpochMinute(LocalDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        long epochMinute = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+        if (epochMinute <= NO_TIME || epochMinute > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Time is out of the range of the task store: " + time);
+        }
+        return (int) epochMinute;
+    }
+
+    private static LocalDateTime toLocalDateTime(int epochMinute) {
+        return epochMinute != NO_TIME ? LocalDateTime.ofEpochSecond(epochMinute * 60L, 0, ZoneOffset.UTC) : null;
+    }
+}
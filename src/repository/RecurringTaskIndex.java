@@ -0,0 +1,392 @@
+package repository;
+
+import model.RecurrenceRule;
+import model.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+
+/**
+ * Index of recurring tasks. Only the series themselves are kept; their occurrences are generated lazily
+ * for the window a query asks for, so an endless series costs as much as a single task. Window iterators
+ * merge the occurrences of all series in (start time, id) order, the same order as {@link TaskIntervalIndex}.
+ */
+public class RecurringTaskIndex {
+
+    public static class Occurrence {
+        private final int taskId;
+        private final LocalDateTime startTime;
+
+        public Occurrence(int taskId, LocalDateTime startTime) {
+            this.taskId = taskId;
+            this.startTime = startTime;
+        }
+
+        public int getTaskId() {
+            return taskId;
+        }
+
+        public LocalDateTime getStartTime() {
+            return startTime;
+        }
+    }
+
+    private static class Series {
+        final int id;
+        final LocalDateTime firstStartTime;
+        final int durationInMinutes;
+        final RecurrenceRule recurrenceRule;
+
+        Series(int id, LocalDateTime firstStartTime, int durationInMinutes, RecurrenceRule recurrenceRule) {
+            this.id = id;
+            this.firstStartTime = firstStartTime;
+            this.durationInMinutes = durationInMinutes;
+            this.recurrenceRule = recurrenceRule;
+        }
+
+        Iterator<LocalDateTime> occurrences(LocalDateTime fromStartTime) {
+            return recurrenceRule.occurrences(firstStartTime, fromStartTime);
+        }
+
+        boolean isOverlapping(LocalDateTime startTime, LocalDateTime endTime) {
+            Iterator<LocalDateTime> occurrences = occurrences(startTime.minusMinutes(durationInMinutes));
+            while (occurrences.hasNext()) {
+                LocalDateTime occurrenceStartTime = occurrences.next();
+                if (!occurrenceStartTime.isBefore(endTime)) {
+                    return false;
+                }
+                if (occurrenceStartTime.plusMinutes(durationInMinutes).isAfter(startTime)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        LocalDateTime getLastIrregularTime() {
+            LocalDateTime lastIrregularTime = firstStartTime;
+            for (LocalDateTime excludedStartTime : recurrenceRule.getExcludedStartTimes()) {
+                if (excludedStartTime.isAfter(lastIrregularTime)) {
+                    lastIrregularTime = excludedStartTime;
+                }
+            }
+            return lastIrregularTime;
+        }
+    }
+
+    private static class OccurrenceCursor {
+        final Series series;
+        final Iterator<LocalDateTime> startTimes;
+        LocalDateTime startTime;
+
+        OccurrenceCursor(Series series, Iterator<LocalDateTime> startTimes) {
+            this.series = series;
+            this.startTimes = startTimes;
+            this.startTime = startTimes.next();
+        }
+    }
+
+    private static final long MAX_COMMON_PERIOD_IN_DAYS = 4 * 366;
+    private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+    private static final Comparator<Occurrence> OCCURRENCE_ORDER =
+            Comparator.comparing(Occurrence::getStartTime).thenComparingInt(Occurrence::getTaskId);
+    private static final Comparator<OccurrenceCursor> CURSOR_ORDER =
+            Comparator.comparing((OccurrenceCursor cursor) -> cursor.startTime)
+                    .thenComparingInt(cursor -> cursor.series.id);
+
+    private final Map<Integer, Series> idToSeries = new HashMap<>();
+    private final TreeSet<Occurrence> seriesByFirstStartTime = new TreeSet<>(OCCURRENCE_ORDER);
+
+    public void put(int id, LocalDateTime firstStartTime, int durationInMinutes, RecurrenceRule recurrenceRule) {
+        remove(id);
+        idToSeries.put(id, new Series(id, firstStartTime, durationInMinutes, recurrenceRule));
+        seriesByFirstStartTime.add(new Occurrence(id, firstStartTime));
+    }
+
+    public void remove(int id) {
+        Series series = idToSeries.remove(id);
+        if (series != null) {
+            seriesByFirstStartTime.remove(new Occurrence(id, series.firstStartTime));
+        }
+    }
+
+    public void clear() {
+        idToSeries.clear();
+        seriesByFirstStartTime.clear();
+    }
+
+    public boolean isEmpty() {
+        return idToSeries.isEmpty();
+    }
+
+    public boolean isOverlapping(LocalDateTime startTime, LocalDateTime endTime, int excludedId) {
+        for (Series series : idToSeries.values()) {
+            if (series.id != excludedId && series.isOverlapping(startTime, endTime)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks a whole series against the indexed ones. Endless series are decided by the offset of their first
+     * starts modulo the greatest common divisor of their periods. A series with an end is scanned up to it, or
+     * up to one common period past the last irregular time when that comes first.
+     */
+    public boolean isOverlapping(LocalDateTime firstStartTime, int durationInMinutes, RecurrenceRule recurrenceRule,
+                                 int excludedId) {
+        Series newSeries = new Series(excludedId, firstStartTime, durationInMinutes, recurrenceRule);
+        for (Series series : idToSeries.values()) {
+            if (series.id == excludedId || !isPatternOverlapping(newSeries, series)) {
+                continue;
+            }
+            LocalDateTime lastTime = getLastCommonTime(newSeries, series);
+            if (lastTime == null) {
+                return true;
+            }
+
+            LocalDateTime fromTime = getLatest(newSeries.firstStartTime, series.firstStartTime);
+            LocalDateTime irregularTime = getLatest(newSeries.getLastIrregularTime(), series.getLastIrregularTime());
+            long commonPeriodInDays = lcm(newSeries.recurrenceRule.getPeriodInDays(),
+                    series.recurrenceRule.getPeriodInDays());
+            LocalDateTime toTime = lastTime;
+            if (commonPeriodInDays <= MAX_COMMON_PERIOD_IN_DAYS) {
+                LocalDateTime regularTime = irregularTime.plusDays(commonPeriodInDays
+                        + series.recurrenceRule.getPeriodInDays());
+                toTime = regularTime.isBefore(lastTime) ? regularTime : lastTime;
+            } else if (ChronoUnit.DAYS.between(getLatest(fromTime, irregularTime), lastTime)
+                    > MAX_COMMON_PERIOD_IN_DAYS) {
+                throw new IllegalArgumentException(String.format(
+                        "Recurring tasks %d and %d repeat together too rarely to be checked for overlaps",
+                        newSeries.id, series.id));
+            }
+            Iterator<LocalDateTime> occurrences = newSeries.occurrences(fromTime.minusMinutes(durationInMinutes));
+            while (occurrences.hasNext()) {
+                LocalDateTime startTime = occurrences.next();
+                if (startTime.isAfter(toTime)) {
+                    break;
+                }
+                if (series.isOverlapping(startTime, startTime.plusMinutes(durationInMinutes))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the occurrences touching [{@code fromTime}, {@code toTime}) in (start time, id) order.
+     */
+    public List<Occurrence> getOccurrences(LocalDateTime fromTime, LocalDateTime toTime) {
+        List<Occurrence> occurrences = new ArrayList<>();
+        for (Series series : idToSeries.values()) {
+            Iterator<LocalDateTime> startTimes = series.occurrences(fromTime.minusMinutes(series.durationInMinutes));
+            while (startTimes.hasNext()) {
+                LocalDateTime startTime = startTimes.next();
+                if (!startTime.isBefore(toTime)) {
+                    break;
+                }
+                if (!startTime.isBefore(fromTime)
+                        || startTime.plusMinutes(series.durationInMinutes).isAfter(fromTime)) {
+                    occurrences.add(new Occurrence(series.id, startTime));
+                }
+            }
+        }
+        occurrences.sort(OCCURRENCE_ORDER);
+        return occurrences;
+    }
+
+    /**
+     * Iterates over occurrences in (start time, id) order after the given bound (or from the first one when
+     * {@code fromStartTime} is null) and before {@code toStartTime}. Without an upper bound every series is
+     * returned once, at its first occurrence not before {@code windowStartTime}.
+     */
+    public Iterator<Occurrence> iterator(LocalDateTime windowStartTime, LocalDateTime fromStartTime, int fromId,
+                                        boolean isFromInclusive, LocalDateTime toStartTime) {
+        if (toStartTime == null) {
+            return getFirstOccurrences(windowStartTime, fromStartTime, fromId, isFromInclusive);
+        }
+
+        PriorityQueue<OccurrenceCursor> cursors = new PriorityQueue<>(CURSOR_ORDER);
+        for (Series series : idToSeries.values()) {
+            Iterator<LocalDateTime> startTimes = series.occurrences(fromStartTime);
+            if (startTimes.hasNext()) {
+                cursors.add(new OccurrenceCursor(series, startTimes));
+            }
+        }
+
+        return new Iterator<>() {
+            private Occurrence nextOccurrence = findNext();
+
+            @Override
+            public boolean hasNext() {
+                return nextOccurrence != null;
+            }
+
+            @Override
+            public Occurrence next() {
+                if (nextOccurrence == null) {
+                    throw new NoSuchElementException();
+                }
+                Occurrence occurrence = nextOccurrence;
+                nextOccurrence = findNext();
+                return occurrence;
+            }
+
+            private Occurrence findNext() {
+                while (!cursors.isEmpty()) {
+                    OccurrenceCursor cursor = cursors.poll();
+                    Occurrence occurrence = new Occurrence(cursor.series.id, cursor.startTime);
+                    if (!cursor.startTime.isBefore(toStartTime)) {
+                        cursors.clear();
+                        return null;
+                    }
+                    if (cursor.startTimes.hasNext()) {
+                        cursor.startTime = cursor.startTimes.next();
+                        cursors.add(cursor);
+                    }
+                    if (fromStartTime == null || isFromInclusive || !isAtOrBeforeBound(occurrence)) {
+                        return occurrence;
+                    }
+                }
+                return null;
+            }
+
+            private boolean isAtOrBeforeBound(Occurrence occurrence) {
+                return occurrence.getStartTime().equals(fromStartTime) && occurrence.getTaskId() <= fromId;
+            }
+        };
+    }
+
+    /**
+     * Iterates over the occurrences starting in [{@code fromStartTime}, {@code toStartTime}) as busy slots.
+     */
+    public Iterator<TimeSlot> busySlots(LocalDateTime fromStartTime, LocalDateTime toStartTime) {
+        Iterator<Occurrence> occurrences = idToSeries.isEmpty()
+                ? Collections.emptyIterator()
+                : iterator(fromStartTime, fromStartTime, Integer.MIN_VALUE, true, toStartTime);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return occurrences.hasNext();
+            }
+
+            @Override
+            public TimeSlot next() {
+                Occurrence occurrence = occurrences.next();
+                int durationInMinutes = idToSeries.get(occurrence.getTaskId()).durationInMinutes;
+                return new TimeSlot(occurrence.getStartTime(),
+                        occurrence.getStartTime().plusMinutes(durationInMinutes));
+            }
+        };
+    }
+
+    private Iterator<Occurrence> getFirstOccurrences(LocalDateTime windowStartTime, LocalDateTime fromStartTime,
+                                                     int fromId, boolean isFromInclusive) {
+        if (windowStartTime == null) {
+            return fromStartTime == null
+                    ? seriesByFirstStartTime.iterator()
+                    : seriesByFirstStartTime.tailSet(new Occurrence(fromId, fromStartTime), isFromInclusive).iterator();
+        }
+
+        Occurrence bound = fromStartTime != null ? new Occurrence(fromId, fromStartTime) : null;
+        List<Occurrence> firstOccurrences = new ArrayList<>();
+        for (Series series : idToSeries.values()) {
+            Iterator<LocalDateTime> startTimes = series.occurrences(windowStartTime);
+            if (!startTimes.hasNext()) {
+                continue;
+            }
+            Occurrence occurrence = new Occurrence(series.id, startTimes.next());
+            int order = bound != null ? OCCURRENCE_ORDER.compare(occurrence, bound) : 1;
+            if (order > 0 || order == 0 && isFromInclusive) {
+                firstOccurrences.add(occurrence);
+            }
+        }
+        firstOccurrences.sort(OCCURRENCE_ORDER);
+        return firstOccurrences.iterator();
+    }
+
+    public int getMaxDurationInMinutes() {
+        int maxDurationInMinutes = 0;
+        for (Series series : idToSeries.values()) {
+            maxDurationInMinutes = Math.max(maxDurationInMinutes, series.durationInMinutes);
+        }
+        return maxDurationInMinutes;
+    }
+
+    /**
+     * Returns a time after which the occurrences of all series repeat with their common period: one common
+     * period after the latest first start or skipped occurrence, or after {@code after} if it is later. The
+     * common period is capped, so callers check slots past the returned time against the series themselves.
+     */
+    public LocalDateTime getRegularPatternEnd(LocalDateTime after) {
+        LocalDateTime lastIrregularTime = after;
+        long commonPeriodInDays = 1;
+        for (Series series : idToSeries.values()) {
+            lastIrregularTime = getLatest(lastIrregularTime, series.getLastIrregularTime());
+            commonPeriodInDays = Math.min(lcm(commonPeriodInDays, series.recurrenceRule.getPeriodInDays()),
+                    MAX_COMMON_PERIOD_IN_DAYS);
+        }
+        return lastIrregularTime.plusDays(commonPeriodInDays).plusMinutes(getMaxDurationInMinutes());
+    }
+
+    /**
+     * Whether some occurrences of the two series would overlap if neither had an end or skipped occurrences.
+     * Their start offsets take every value congruent to the offset of their first starts modulo the greatest
+     * common divisor of their periods, so only the two values closest to zero need checking.
+     */
+    private static boolean isPatternOverlapping(Series first, Series second) {
+        long commonDivisorInSeconds = gcd(first.recurrenceRule.getPeriodInDays(),
+                second.recurrenceRule.getPeriodInDays()) * SECONDS_PER_DAY;
+        Duration offset = Duration.between(second.firstStartTime, first.firstStartTime);
+        Duration remainder = Duration.ofSeconds(Math.floorMod(offset.getSeconds(), commonDivisorInSeconds),
+                offset.getNano());
+        return remainder.compareTo(Duration.ofMinutes(second.durationInMinutes)) < 0
+                || Duration.ofSeconds(commonDivisorInSeconds).minus(remainder)
+                .compareTo(Duration.ofMinutes(first.durationInMinutes)) < 0;
+    }
+
+    /**
+     * Returns the latest start of the first series that can still overlap the second one, or null when both are
+     * endless.
+     */
+    private static LocalDateTime getLastCommonTime(Series first, Series second) {
+        LocalDateTime firstUntil = first.recurrenceRule.getUntil();
+        LocalDateTime secondUntil = second.recurrenceRule.getUntil() != null
+                ? second.recurrenceRule.getUntil().plusMinutes(second.durationInMinutes)
+                : null;
+        if (firstUntil == null || secondUntil == null) {
+            return firstUntil != null ? firstUntil : secondUntil;
+        }
+        return firstUntil.isBefore(secondUntil) ? firstUntil : secondUntil;
+    }
+
+    private static long gcd(long first, long second) {
+        long a = first;
+        long b = second;
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    private static long lcm(long first, long second) {
+        return first / gcd(first, second) * second;
+    }
+
+    private static LocalDateTime getLatest(LocalDateTime first, LocalDateTime second) {
+        return second.isAfter(first) ? second : first;
+    }
+}
@@ -0,0 +1,351 @@
+package repository;
+
+import constant.RecurrenceFrequency;
+import constant.Status;
+import constant.TaskType;
+import exception.TaskLoadingException;
+import exception.TaskSavingException;
+import model.Epic;
+import model.RecurrenceRule;
+import model.Subtask;
+import model.Task;
+import model.TaskIdSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cold tier of the repository: archived tasks as binary records in one file, with only their offsets in
+ * memory. The file is compacted once removed records outgrow the live ones.
+ */
+public class TaskArchive implements Closeable {
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int NO_TEXT = -1;
+    private static final byte NO_STATUS = 0;
+    private static final int RECORD_LENGTH_SIZE = 4;
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+    private static final RecurrenceFrequency[] FREQUENCIES = RecurrenceFrequency.values();
+
+    private final Path filePath;
+    private final Map<Integer, Long> idToOffset = new HashMap<>();
+    private final Map<TaskType, TaskIdSet> taskTypeToIds = new EnumMap<>(TaskType.class);
+    private RandomAccessFile file;
+    private long garbageSize;
+    private int maxId;
+
+    public TaskArchive(Path filePath) {
+        this.filePath = filePath;
+        for (TaskType taskType : TaskType.values()) {
+            taskTypeToIds.put(taskType, new TaskIdSet());
+        }
+        try {
+            file = new RandomAccessFile(filePath.toFile(), "rw");
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error opening the task archive " + filePath, ex);
+        }
+        indexRecords();
+    }
+
+    public void put(Task task, TaskType taskType) {
+        if (idToOffset.containsKey(task.getId())) {
+            remove(task.getId());
+        }
+        try {
+            byte[] record = toRecord(task, taskType);
+            long offset = file.length();
+            file.seek(offset);
+            file.writeInt(record.length);
+            file.write(record);
+            idToOffset.put(task.getId(), offset);
+            taskTypeToIds.get(taskType).add(task.getId());
+            maxId = Math.max(maxId, task.getId());
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error archiving task " + task.getId(), ex);
+        }
+    }
+
+    public synchronized Task get(int id) {
+        Long offset = idToOffset.get(id);
+        return offset != null ? readRecord(offset) : null;
+    }
+
+    public Task remove(int id) {
+        Long offset = idToOffset.remove(id);
+        if (offset == null) {
+            return null;
+        }
+
+        Task task = readRecord(offset);
+        taskTypeToIds.values().forEach(ids -> ids.remove(id));
+        int recordLength = readRecordLength(offset);
+        try {
+            file.seek(offset);
+            file.writeInt(-recordLength);
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error removing task " + id + " from the archive", ex);
+        }
+        garbageSize += RECORD_LENGTH_SIZE + recordLength;
+        return task;
+    }
+
+    public boolean contains(int id) {
+        return idToOffset.containsKey(id);
+    }
+
+    public TaskIdSet getIds(TaskType taskType) {
+        return taskTypeToIds.get(taskType);
+    }
+
+    public int size() {
+        return idToOffset.size();
+    }
+
+    /**
+     * Largest id ever archived, including removed records still in a reopened file.
+     */
+    public int getMaxId() {
+        return maxId;
+    }
+
+    public long getFileSize() {
+        try {
+            return file.length();
+        } catch (IOException ex) {
+            throw new TaskLoadingException("Error reading the task archive " + filePath, ex);
+        }
+    }
+
+    public void compactIfNeeded() {
+        long fileSize = getFileSize();
+        if (garbageSize == 0 || garbageSize * 2 < fileSize) {
+            return;
+        }
+
+        Path compactedPath = filePath.resolveSibling(filePath.getFileName() + ".compacting");
+        try (RandomAccessFile compactedFile = new RandomAccessFile(compactedPath.toFile(), "rw")) {
+            compactedFile.setLength(0);
+            for (Map.Entry<Integer, Long> entry : idToOffset.entrySet()) {
+                int recordLength = readRecordLength(entry.getValue());
+                byte[] record = new byte[recordLength];
+                file.seek(entry.getValue() + RECORD_LENGTH_SIZE);
+                file.readFully(record);
+                entry.setValue(compactedFile.getFilePointer());
+                compactedFile.writeInt(recordLength);
+                compactedFile.write(record);
+            }
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error compacting the task archive " + filePath, ex);
+        }
+
+        try {
+            file.close();
+            Files.move(compactedPath, filePath, StandardCopyOption.REPLACE_EXISTING);
+            file = new RandomAccessFile(filePath.toFile(), "rw");
+            garbageSize = 0;
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error replacing the task archive " + filePath, ex);
+        }
+    }
+
+    public void clear() {
+        idToOffset.clear();
+        taskTypeToIds.values().forEach(TaskIdSet::clear);
+        garbageSize = 0;
+        try {
+            file.setLength(0);
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error clearing the task archive " + filePath, ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            file.close();
+        } catch (IOException ex) {
+            throw new TaskSavingException("Error closing the task archive " + filePath, ex);
+        }
+    }
+
+    /**
+     * Scans the file and indexes every live record by the id and type at its head. A truncated record at
+     * the end, left by a write that did not finish, is cut off.
+     */
+    private void indexRecords() {
+        try {
+            long fileSize = file.length();
+            long offset = 0;
+            while (offset + RECORD_LENGTH_SIZE <= fileSize) {
+                file.seek(offset);
+                int recordLength = file.readInt();
+                long nextOffset = offset + RECORD_LENGTH_SIZE + Math.abs((long) recordLength);
+                if (nextOffset > fileSize) {
+                    break;
+                }
+                int id = file.readInt();
+                if (recordLength < 0) {
+                    garbageSize += nextOffset - offset;
+                } else {
+                    idToOffset.put(id, offset);
+                    taskTypeToIds.get(TASK_TYPES[file.readByte()]).add(id);
+                }
+                maxId = Math.max(maxId, id);
+                offset = nextOffset;
+            }
+            if (offset < fileSize) {
+                file.setLength(offset);
+            }
+        } catch (IOException ex) {
+            throw new TaskLoadingException("Error reading the task archive " + filePath, ex);
+        }
+    }
+
+    private byte[] toRecord(Task task, TaskType taskType) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        record.writeInt(task.getId());
+        record.writeByte(taskType.ordinal());
+        record.writeByte(task.getStatus() != null ? task.getStatus().ordinal() + 1 : NO_STATUS);
+        writeText(record, task.getName());
+        writeText(record, task.getDescription());
+        record.writeLong(toEpochSecond(task.getStartTime()));
+        record.writeInt(task.getDurationInMinutes());
+        record.writeInt(task.getVersion());
+        if (task instanceof Subtask) {
+            record.writeInt(((Subtask) task).getEpicId());
+        } else if (task instanceof Epic) {
+            record.writeLong(toEpochSecond(task.getEndTime()));
+            record.writeInt(((Epic) task).getParentEpicId());
+            int[] subtaskIds = ((Epic) task).getSubtaskIds().toArray();
+            record.writeInt(subtaskIds.length);
+            for (int subtaskId : subtaskIds) {
+                record.writeInt(subtaskId);
+            }
+        } else {
+            writeRecurrenceRule(record, task.getRecurrenceRule());
+        }
+        record.flush();
+        return bytes.toByteArray();
+    }
+
+    private Task readRecord(long offset) {
+        try {
+            byte[] bytes = new byte[readRecordLength(offset)];
+            file.seek(offset + RECORD_LENGTH_SIZE);
+            file.readFully(bytes);
+            ByteBuffer record = ByteBuffer.wrap(bytes);
+
+            int id = record.getInt();
+            TaskType taskType = TASK_TYPES[record.get()];
+            byte statusTag = record.get();
+            Status status = statusTag != NO_STATUS ? STATUSES[statusTag - 1] : null;
+            String name = readText(record);
+            String description = readText(record);
+            LocalDateTime startTime = toLocalDateTime(record.getLong());
+            int durationInMinutes = record.getInt();
+            int version = record.getInt();
+
+            Task task;
+            if (taskType == TaskType.SUBTASK) {
+                task = new Subtask(id, name, description, status, record.getInt(), startTime, durationInMinutes);
+            } else if (taskType == TaskType.EPIC) {
+                Epic epic = new Epic(id, name, description, status);
+                epic.setStartTime(startTime);
+                epic.setDurationInMinutes(durationInMinutes);
+                epic.setEndTime(toLocalDateTime(record.getLong()));
+                epic.setParentEpicId(record.getInt());
+                int subtasksCount = record.getInt();
+                for (int i = 0; i < subtasksCount; i++) {
+                    epic.getSubtaskIds().add(record.getInt());
+                }
+                task = epic;
+            } else {
+                task = new Task(id, name, description, status, startTime, durationInMinutes);
+                task.setRecurrenceRule(readRecurrenceRule(record));
+            }
+            task.setVersion(version);
+            return task;
+        } catch (IOException ex) {
+            throw new TaskLoadingException("Error reading the task archive " + filePath, ex);
+        }
+    }
+
+    private int readRecordLength(long offset) {
+        try {
+            file.seek(offset);
+            return file.readInt();
+        } catch (IOException ex) {
+            throw new TaskLoadingException("Error reading the task archive " + filePath, ex);
+        }
+    }
+
+    private static void writeRecurrenceRule(DataOutputStream record, RecurrenceRule recurrenceRule) throws IOException {
+        record.writeBoolean(recurrenceRule != null);
+        if (recurrenceRule == null) {
+            return;
+        }
+        record.writeByte(recurrenceRule.getFrequency().ordinal());
+        record.writeInt(recurrenceRule.getInterval());
+        record.writeLong(toEpochSecond(recurrenceRule.getUntil()));
+        record.writeInt(recurrenceRule.getExcludedStartTimes().size());
+        for (LocalDateTime excludedStartTime : recurrenceRule.getExcludedStartTimes()) {
+            record.writeLong(toEpochSecond(excludedStartTime));
+        }
+    }
+
+    private static RecurrenceRule readRecurrenceRule(ByteBuffer record) {
+        if (record.get() == 0) {
+            return null;
+        }
+        RecurrenceRule recurrenceRule = new RecurrenceRule(FREQUENCIES[record.get()], record.getInt(),
+                toLocalDateTime(record.getLong()));
+        int excludedCount = record.getInt();
+        for (int i = 0; i < excludedCount; i++) {
+            recurrenceRule.excludeOccurrence(toLocalDateTime(record.getLong()));
+        }
+        return recurrenceRule;
+    }
+
+    private static void writeText(DataOutputStream record, String text) throws IOException {
+        if (text == null) {
+            record.writeInt(NO_TEXT);
+            return;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        record.writeInt(bytes.length);
+        record.write(bytes);
+    }
+
+    private static String readText(ByteBuffer record) {
+        int length = record.getInt();
+        if (length == NO_TEXT) {
+            return null;
+        }
+        String text = new String(record.array(), record.position(), length, StandardCharsets.UTF_8);
+        record.position(record.position() + length);
+        return text;
+    }
+
+    private static long toEpochSecond(LocalDateTime time) {
+        return time != null ? time.toEpochSecond(ZoneOffset.UTC) : NO_TIME;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochSecond) {
+        return epochSecond != NO_TIME ? LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC) : null;
+    }
+}
@@ -0,0 +1,97 @@
+package repository;
+
+import model.TaskIdSet;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index of scheduled task ids bucketed by day. Tasks longer than {@code MAX_BUCKETED_DAYS} days are kept
+ * apart and checked on every query.
+ */
+public class TaskCalendarIndex {
+
+    private static final int MAX_BUCKETED_DAYS = 31;
+
+    private final Map<LocalDate, TaskIdSet> dayToTaskIds = new HashMap<>();
+    private final TreeMap<LocalDate, TaskIdSet> firstDayToLongTaskIds = new TreeMap<>();
+    private final Map<Integer, LocalDate[]> taskIdToDays = new HashMap<>();
+
+    public void add(int id, LocalDateTime startTime, LocalDateTime endTime) {
+        remove(id);
+        if (startTime == null || endTime == null) {
+            return;
+        }
+
+        LocalDate firstDay = startTime.toLocalDate();
+        LocalDate lastDay = endTime.isAfter(startTime) ? endTime.minusNanos(1).toLocalDate() : firstDay;
+        if (isLongTask(firstDay, lastDay)) {
+            firstDayToLongTaskIds.computeIfAbsent(firstDay, key -> new TaskIdSet()).add(id);
+        } else {
+            for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+                dayToTaskIds.computeIfAbsent(day, key -> new TaskIdSet()).add(id);
+            }
+        }
+        taskIdToDays.put(id, new LocalDate[]{firstDay, lastDay});
+    }
+
+    public void remove(int id) {
+        LocalDate[] days = taskIdToDays.remove(id);
+        if (days == null) {
+            return;
+        }
+
+        if (isLongTask(days[0], days[1])) {
+            removeFromBucket(firstDayToLongTaskIds, days[0], id);
+            return;
+        }
+        for (LocalDate day = days[0]; !day.isAfter(days[1]); day = day.plusDays(1)) {
+            removeFromBucket(dayToTaskIds, day, id);
+        }
+    }
+
+    /**
+     * Returns a new set with the ids of the tasks touching any day from {@code firstDay} to {@code lastDay}.
+     */
+    public TaskIdSet getTaskIds(LocalDate firstDay, LocalDate lastDay) {
+        TaskIdSet taskIds = new TaskIdSet();
+        for (LocalDate day = firstDay; !day.isAfter(lastDay); day = day.plusDays(1)) {
+            TaskIdSet dayTaskIds = dayToTaskIds.get(day);
+            if (dayTaskIds != null) {
+                taskIds.addAll(dayTaskIds);
+            }
+        }
+        for (TaskIdSet longTaskIds : firstDayToLongTaskIds.headMap(lastDay, true).values()) {
+            longTaskIds.forEach(id -> {
+                if (!taskIdToDays.get(id)[1].isBefore(firstDay)) {
+                    taskIds.add(id);
+                }
+            });
+        }
+        return taskIds;
+    }
+
+    public void clear() {
+        dayToTaskIds.clear();
+        firstDayToLongTaskIds.clear();
+        taskIdToDays.clear();
+    }
+
+    private static boolean isLongTask(LocalDate firstDay, LocalDate lastDay) {
+        return ChronoUnit.DAYS.between(firstDay, lastDay) >= MAX_BUCKETED_DAYS;
+    }
+
+    private static void removeFromBucket(Map<LocalDate, TaskIdSet> buckets, LocalDate day, int id) {
+        TaskIdSet taskIds = buckets.get(day);
+        if (taskIds != null) {
+            taskIds.remove(id);
+            if (taskIds.isEmpty()) {
+                buckets.remove(day);
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package repository;
+
+import model.TaskChangeEvent;
+
+public interface TaskChangeListener {
+
+    void onTaskChange(TaskChangeEvent event);
+}
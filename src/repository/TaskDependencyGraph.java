@@ -0,0 +1,303 @@
+package repository;
+
+import exception.DependencyCycleException;
+import model.TaskIdSet;
+import model.TaskSchedule;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Directed acyclic graph of "blocked by" relationships with earliest starts in minutes from the project
+ * start. Only tasks with dependencies get a node.
+ */
+public class TaskDependencyGraph {
+
+    private static class Node {
+        final int id;
+        int durationInMinutes;
+        long earliestStart;
+        TaskIdSet blockedByIds;
+        TaskIdSet blockingIds;
+
+        Node(int id, int durationInMinutes) {
+            this.id = id;
+            this.durationInMinutes = durationInMinutes;
+        }
+
+        long getEarliestFinish() {
+            return earliestStart + durationInMinutes;
+        }
+
+        boolean hasDependencies() {
+            return blockedByIds != null && !blockedByIds.isEmpty() || blockingIds != null && !blockingIds.isEmpty();
+        }
+    }
+
+    private final TaskIdIntMap idToDuration = new TaskIdIntMap();
+    private final Map<Integer, Node> idToNode = new HashMap<>();
+    private final TreeMap<Long, TaskIdSet> earliestFinishToIds = new TreeMap<>();
+
+    public void putTask(int id, int durationInMinutes) {
+        int duration = Math.max(durationInMinutes, 0);
+        int oldDuration = idToDuration.get(id);
+        if (oldDuration == duration) {
+            return;
+        }
+        if (oldDuration >= 0) {
+            removeEarliestFinish(id, getEarliestFinish(id));
+        }
+        idToDuration.put(id, duration);
+        Node node = idToNode.get(id);
+        if (node != null) {
+            node.durationInMinutes = duration;
+        }
+        addEarliestFinish(id, getEarliestFinish(id));
+        if (node != null) {
+            recompute(getIds(node.blockingIds));
+        }
+    }
+
+    public void removeTask(int id) {
+        if (!contains(id)) {
+            return;
+        }
+        removeEarliestFinish(id, getEarliestFinish(id));
+        idToDuration.remove(id);
+        Node node = idToNode.remove(id);
+        if (node == null) {
+            return;
+        }
+
+        List<Integer> neighbourIds = new ArrayList<>(getIds(node.blockedByIds));
+        if (node.blockedByIds != null) {
+            node.blockedByIds.forEach(blockedById -> idToNode.get(blockedById).blockingIds.remove(id));
+        }
+        if (node.blockingIds != null) {
+            node.blockingIds.forEach(blockingId -> idToNode.get(blockingId).blockedByIds.remove(id));
+            recompute(getIds(node.blockingIds));
+            neighbourIds.addAll(getIds(node.blockingIds));
+        }
+        neighbourIds.forEach(this::dropNodeIfIndependent);
+    }
+
+    public boolean contains(int id) {
+        return idToDuration.get(id) >= 0;
+    }
+
+    public boolean hasDependencies(int id) {
+        Node node = idToNode.get(id);
+        return node != null && node.hasDependencies();
+    }
+
+    public void addDependency(int id, int blockedById) throws DependencyCycleException {
+        Node node = idToNode.get(id);
+        if (node != null && node.blockedByIds != null && node.blockedByIds.contains(blockedById)) {
+            return;
+        }
+        if (isReachable(id, blockedById)) {
+            throw new DependencyCycleException(
+                    String.format("Task with ID %d already depends on task with ID %d", blockedById, id));
+        }
+
+        node = getOrCreateNode(id);
+        Node blockedByNode = getOrCreateNode(blockedById);
+        if (node.blockedByIds == null) {
+            node.blockedByIds = new TaskIdSet();
+        }
+        if (blockedByNode.blockingIds == null) {
+            blockedByNode.blockingIds = new TaskIdSet();
+        }
+        node.blockedByIds.add(blockedById);
+        blockedByNode.blockingIds.add(id);
+        recompute(List.of(id));
+    }
+
+    public void removeDependency(int id, int blockedById) {
+        Node node = idToNode.get(id);
+        if (node == null || node.blockedByIds == null || !node.blockedByIds.remove(blockedById)) {
+            return;
+        }
+        idToNode.get(blockedById).blockingIds.remove(id);
+        recompute(List.of(id));
+        dropNodeIfIndependent(id);
+        dropNodeIfIndependent(blockedById);
+    }
+
+    public List<Integer> getBlockedByIds(int id) {
+        Node node = idToNode.get(id);
+        return node != null && node.blockedByIds != null ? getIds(node.blockedByIds) : new ArrayList<>();
+    }
+
+    public TaskSchedule getSchedule(int id) {
+        Node node = idToNode.get(id);
+        if (node != null) {
+            return new TaskSchedule(id, node.earliestStart, node.getEarliestFinish());
+        }
+        return contains(id) ? new TaskSchedule(id, 0, idToDuration.get(id)) : null;
+    }
+
+    public List<Integer> getCriticalPath() {
+        List<Integer> criticalPath = new ArrayList<>();
+        if (earliestFinishToIds.isEmpty()) {
+            return criticalPath;
+        }
+
+        int id = getMinId(earliestFinishToIds.lastEntry().getValue());
+        while (true) {
+            criticalPath.add(id);
+            Node node = idToNode.get(id);
+            if (node == null || node.blockedByIds == null) {
+                break;
+            }
+            Node criticalBlocker = null;
+            for (int blockedById : node.blockedByIds.toArray()) {
+                Node blocker = idToNode.get(blockedById);
+                if (blocker.getEarliestFinish() == node.earliestStart
+                        && (criticalBlocker == null || blocker.id < criticalBlocker.id)) {
+                    criticalBlocker = blocker;
+                }
+            }
+            if (criticalBlocker == null) {
+                break;
+            }
+            id = criticalBlocker.id;
+        }
+        Collections.reverse(criticalPath);
+        return criticalPath;
+    }
+
+    public void clear() {
+        idToDuration.clear();
+        idToNode.clear();
+        earliestFinishToIds.clear();
+    }
+
+    private void recompute(List<Integer> changedIds) {
+        Set<Integer> dirtyIds = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>(changedIds);
+        while (!stack.isEmpty()) {
+            int id = stack.pop();
+            if (dirtyIds.add(id)) {
+                Node node = idToNode.get(id);
+                if (node.blockingIds != null) {
+                    node.blockingIds.forEach(stack::push);
+                }
+            }
+        }
+
+        Map<Integer, Integer> idToDirtyBlockersCount = new HashMap<>();
+        Deque<Node> ready = new ArrayDeque<>();
+        for (int id : dirtyIds) {
+            Node node = idToNode.get(id);
+            int dirtyBlockersCount = 0;
+            if (node.blockedByIds != null) {
+                for (int blockedById : node.blockedByIds.toArray()) {
+                    if (dirtyIds.contains(blockedById)) {
+                        dirtyBlockersCount++;
+                    }
+                }
+            }
+            if (dirtyBlockersCount == 0) {
+                ready.add(node);
+            } else {
+                idToDirtyBlockersCount.put(id, dirtyBlockersCount);
+            }
+        }
+
+        while (!ready.isEmpty()) {
+            Node node = ready.poll();
+            long earliestStart = 0;
+            if (node.blockedByIds != null) {
+                for (int blockedById : node.blockedByIds.toArray()) {
+                    earliestStart = Math.max(earliestStart, idToNode.get(blockedById).getEarliestFinish());
+                }
+            }
+            if (earliestStart != node.earliestStart) {
+                removeEarliestFinish(node.id, node.getEarliestFinish());
+                node.earliestStart = earliestStart;
+                addEarliestFinish(node.id, node.getEarliestFinish());
+            }
+
+            if (node.blockingIds != null) {
+                node.blockingIds.forEach(blockingId -> {
+                    if (idToDirtyBlockersCount.merge(blockingId, -1, Integer::sum) == 0) {
+                        idToDirtyBlockersCount.remove(blockingId);
+                        ready.add(idToNode.get(blockingId));
+                    }
+                });
+            }
+        }
+    }
+
+    private boolean isReachable(int fromId, int toId) {
+        Set<Integer> visitedIds = new HashSet<>();
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(fromId);
+        while (!stack.isEmpty()) {
+            int id = stack.pop();
+            if (id == toId) {
+                return true;
+            }
+            if (visitedIds.add(id)) {
+                Node node = idToNode.get(id);
+                if (node != null && node.blockingIds != null) {
+                    node.blockingIds.forEach(stack::push);
+                }
+            }
+        }
+        return false;
+    }
+
+    private Node getOrCreateNode(int id) {
+        return idToNode.computeIfAbsent(id, key -> new Node(key, idToDuration.get(key)));
+    }
+
+    /**
+     * Drops the node of a task left without dependencies. Its earliest start is then zero again, so its
+     * earliest finish stays indexed under its duration.
+     */
+    private void dropNodeIfIndependent(int id) {
+        Node node = idToNode.get(id);
+        if (node != null && !node.hasDependencies()) {
+            idToNode.remove(id);
+        }
+    }
+
+    private long getEarliestFinish(int id) {
+        Node node = idToNode.get(id);
+        return node != null ? node.getEarliestFinish() : idToDuration.get(id);
+    }
+
+    private void addEarliestFinish(int id, long earliestFinish) {
+        earliestFinishToIds.computeIfAbsent(earliestFinish, key -> new TaskIdSet()).add(id);
+    }
+
+    private void removeEarliestFinish(int id, long earliestFinish) {
+        TaskIdSet ids = earliestFinishToIds.get(earliestFinish);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            earliestFinishToIds.remove(earliestFinish);
+        }
+    }
+
+    private static List<Integer> getIds(TaskIdSet taskIds) {
+        return taskIds != null ? taskIds.asList() : new ArrayList<>();
+    }
+
+    private static int getMinId(TaskIdSet taskIds) {
+        int minId = Integer.MAX_VALUE;
+        for (int id : taskIds.toArray()) {
+            minId = Math.min(minId, id);
+        }
+        return minId;
+    }
+}
@@ -0,0 +1,127 @@
+package repository;
+
+import model.TaskChangeEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream of typed task changes, delivered after each change completes. Events of concurrent writers may
+ * interleave. Asynchronous subscribers drop and count events when their queue is full.
+ */
+public class TaskEventBus {
+
+    private final List<TaskChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<TaskChangeEvent>> deferredEvents = new ThreadLocal<>();
+
+    public TaskEventSubscription subscribe(TaskChangeListener listener) {
+        listeners.add(listener);
+        return new TaskEventSubscription(this, listener);
+    }
+
+    public TaskEventSubscription subscribeAsync(TaskChangeListener listener, int queueCapacity) {
+        AsyncListener asyncListener = new AsyncListener(listener, queueCapacity);
+        listeners.add(asyncListener);
+        return new TaskEventSubscription(this, asyncListener);
+    }
+
+    public boolean hasSubscribers() {
+        return !listeners.isEmpty();
+    }
+
+    public void publish(TaskChangeEvent event) {
+        List<TaskChangeEvent> events = deferredEvents.get();
+        if (events != null) {
+            events.add(event);
+            return;
+        }
+        deliver(event);
+    }
+
+    /**
+     * Collects the events published by the current thread until {@link #publishDeferred} delivers them.
+     * Returns false if the thread already defers its events, then the outer caller delivers them.
+     */
+    boolean deferPublishing() {
+        if (deferredEvents.get() != null) {
+            return false;
+        }
+        deferredEvents.set(new ArrayList<>());
+        return true;
+    }
+
+    void publishDeferred() {
+        List<TaskChangeEvent> events = deferredEvents.get();
+        deferredEvents.remove();
+        if (events != null) {
+            events.forEach(this::deliver);
+        }
+    }
+
+    private void deliver(TaskChangeEvent event) {
+        for (TaskChangeListener listener : listeners) {
+            try {
+                listener.onTaskChange(event);
+            } catch (RuntimeException ex) {
+                System.err.println("Task change listener failed: " + ex.getMessage());
+            }
+        }
+    }
+
+    void unsubscribe(TaskChangeListener listener) {
+        if (listeners.remove(listener) && listener instanceof AsyncListener) {
+            ((AsyncListener) listener).stop();
+        }
+    }
+
+    static class AsyncListener implements TaskChangeListener {
+
+        private final TaskChangeListener listener;
+        private final BlockingQueue<TaskChangeEvent> queue;
+        private final AtomicLong droppedEventsCount = new AtomicLong();
+        private final Thread worker;
+
+        AsyncListener(TaskChangeListener listener, int queueCapacity) {
+            this.listener = listener;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.worker = new Thread(this::deliverEvents, "task-event-subscriber");
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        @Override
+        public void onTaskChange(TaskChangeEvent event) {
+            if (!queue.offer(event)) {
+                droppedEventsCount.incrementAndGet();
+            }
+        }
+
+        long getDroppedEventsCount() {
+            return droppedEventsCount.get();
+        }
+
+        void stop() {
+            worker.interrupt();
+        }
+
+        private void deliverEvents() {
+            while (!Thread.currentThread().isInterrupted()) {
+                TaskChangeEvent event;
+                try {
+                    event = queue.take();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                try {
+                    listener.onTaskChange(event);
+                } catch (RuntimeException ex) {
+                    System.err.println("Task change listener failed: " + ex.getMessage());
+                }
+            }
+        }
+    }
+}
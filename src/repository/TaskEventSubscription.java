@@ -0,0 +1,26 @@
+package repository;
+
+/**
+ * Handle of a listener subscribed to a {@link TaskEventBus}. For asynchronous subscribers it also reports
+ * how many events were dropped because the queue of the subscriber was full.
+ */
+public class TaskEventSubscription {
+
+    private final TaskEventBus taskEventBus;
+    private final TaskChangeListener registeredListener;
+
+    TaskEventSubscription(TaskEventBus taskEventBus, TaskChangeListener registeredListener) {
+        this.taskEventBus = taskEventBus;
+        this.registeredListener = registeredListener;
+    }
+
+    public long getDroppedEventsCount() {
+        return registeredListener instanceof TaskEventBus.AsyncListener
+                ? ((TaskEventBus.AsyncListener) registeredListener).getDroppedEventsCount()
+                : 0;
+    }
+
+    public void unsubscribe() {
+        taskEventBus.unsubscribe(registeredListener);
+    }
+}
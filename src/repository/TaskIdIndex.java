@@ -0,0 +1,155 @@
+package repository;
+
+import constant.TaskType;
+import model.Task;
+
+import java.util.Arrays;
+
+/**
+ * Primary id index of the repository: an open-addressing hash table with primitive int keys and a
+ * task type tag per slot, so a lookup by id is a single probe sequence without boxing.
+ */
+public class TaskIdIndex {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final byte EMPTY_SLOT = 0;
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+
+    private int[] keys;
+    private Task[] values;
+    private byte[] typeTags;
+    private int size;
+    private int mask;
+
+    public TaskIdIndex() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    public Task get(int id) {
+        int slot = findSlot(id);
+        return slot >= 0 ? values[slot] : null;
+    }
+
+    public TaskType getType(int id) {
+        int slot = findSlot(id);
+        return slot >= 0 ? TASK_TYPES[typeTags[slot] - 1] : null;
+    }
+
+    public boolean contains(int id) {
+        return findSlot(id) >= 0;
+    }
+
+    public boolean contains(int id, TaskType taskType) {
+        int slot = findSlot(id);
+        return slot >= 0 && typeTags[slot] == toTypeTag(taskType);
+    }
+
+    public void put(int id, Task task, TaskType taskType) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int slot = hash(id) & mask;
+        while (typeTags[slot] != EMPTY_SLOT) {
+            if (keys[slot] == id) {
+                values[slot] = task;
+                typeTags[slot] = toTypeTag(taskType);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        values[slot] = task;
+        typeTags[slot] = toTypeTag(taskType);
+        size++;
+    }
+
+    public Task remove(int id) {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return null;
+        }
+
+        Task removedTask = values[slot];
+        deleteSlot(slot);
+        size--;
+        return removedTask;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        Arrays.fill(typeTags, EMPTY_SLOT);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private int findSlot(int id) {
+        int slot = hash(id) & mask;
+        while (typeTags[slot] != EMPTY_SLOT) {
+            if (keys[slot] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void deleteSlot(int slot) {
+        int emptySlot = slot;
+        int currentSlot = (slot + 1) & mask;
+
+        while (typeTags[currentSlot] != EMPTY_SLOT) {
+            int homeSlot = hash(keys[currentSlot]) & mask;
+            boolean canMoveBack = emptySlot <= currentSlot
+                    ? homeSlot <= emptySlot || homeSlot > currentSlot
+                    : homeSlot <= emptySlot && homeSlot > currentSlot;
+            if (canMoveBack) {
+                keys[emptySlot] = keys[currentSlot];
+                values[emptySlot] = values[currentSlot];
+                typeTags[emptySlot] = typeTags[currentSlot];
+                emptySlot = currentSlot;
+            }
+            currentSlot = (currentSlot + 1) & mask;
+        }
+        values[emptySlot] = null;
+        typeTags[emptySlot] = EMPTY_SLOT;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        Task[] oldValues = values;
+        byte[] oldTypeTags = typeTags;
+
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldTypeTags[i] != EMPTY_SLOT) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (typeTags[slot] != EMPTY_SLOT) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                typeTags[slot] = oldTypeTags[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Task[capacity];
+        typeTags = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    private static byte toTypeTag(TaskType taskType) {
+        return (byte) (taskType.ordinal() + 1);
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
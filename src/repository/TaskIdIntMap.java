@@ -0,0 +1,133 @@
+package repository;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash table from task id to a non-negative int value, such as a row number of a
+ * columnar store or a term frequency. Neither keys nor values are boxed.
+ */
+public class TaskIdIntMap {
+
+    public interface EntryConsumer {
+        void accept(int id, int value);
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int EMPTY_SLOT = 0;
+
+    private int[] keys;
+    private int[] valuesPlusOne;
+    private int size;
+    private int mask;
+
+    public TaskIdIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TaskIdIntMap(int capacity) {
+        allocate(Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1);
+    }
+
+    public int get(int id) {
+        int slot = findSlot(id);
+        return slot >= 0 ? valuesPlusOne[slot] - 1 : -1;
+    }
+
+    public void put(int id, int value) {
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+
+        int slot = hash(id) & mask;
+        while (valuesPlusOne[slot] != EMPTY_SLOT) {
+            if (keys[slot] == id) {
+                valuesPlusOne[slot] = value + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = id;
+        valuesPlusOne[slot] = value + 1;
+        size++;
+    }
+
+    public void remove(int id) {
+        int slot = findSlot(id);
+        if (slot < 0) {
+            return;
+        }
+
+        int emptySlot = slot;
+        int currentSlot = (slot + 1) & mask;
+        while (valuesPlusOne[currentSlot] != EMPTY_SLOT) {
+            int homeSlot = hash(keys[currentSlot]) & mask;
+            boolean canMoveBack = emptySlot <= currentSlot
+                    ? homeSlot <= emptySlot || homeSlot > currentSlot
+                    : homeSlot <= emptySlot && homeSlot > currentSlot;
+            if (canMoveBack) {
+                keys[emptySlot] = keys[currentSlot];
+                valuesPlusOne[emptySlot] = valuesPlusOne[currentSlot];
+                emptySlot = currentSlot;
+            }
+            currentSlot = (currentSlot + 1) & mask;
+        }
+        valuesPlusOne[emptySlot] = EMPTY_SLOT;
+        size--;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (valuesPlusOne[slot] != EMPTY_SLOT) {
+                consumer.accept(keys[slot], valuesPlusOne[slot] - 1);
+            }
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(valuesPlusOne, EMPTY_SLOT);
+        size = 0;
+    }
+
+    private int findSlot(int id) {
+        int slot = hash(id) & mask;
+        while (valuesPlusOne[slot] != EMPTY_SLOT) {
+            if (keys[slot] == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        int[] oldRowsPlusOne = valuesPlusOne;
+
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldRowsPlusOne[i] != EMPTY_SLOT) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (valuesPlusOne[slot] != EMPTY_SLOT) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                valuesPlusOne[slot] = oldRowsPlusOne[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        valuesPlusOne = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int hash(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
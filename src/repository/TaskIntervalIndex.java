@@ -0,0 +1,309 @@
+package repository;
+
+import model.TimeSlot;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * Interval index over scheduled tasks. It is a treap ordered by (start time, id) where every node
+ * also keeps the latest end time of its subtree, so an overlap query can skip whole subtrees
+ * that end before the requested interval starts.
+ */
+public class TaskIntervalIndex {
+
+    private static class Node {
+        final int id;
+        final LocalDateTime startTime;
+        final LocalDateTime endTime;
+        final int priority;
+        LocalDateTime maxEndTime;
+        Node left;
+        Node right;
+
+        Node(int id, LocalDateTime startTime, LocalDateTime endTime, int priority) {
+            this.id = id;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.priority = priority;
+            this.maxEndTime = endTime;
+        }
+    }
+
+    private static final int NO_OVERLAP = Integer.MIN_VALUE;
+
+    private final Map<Integer, Node> idToNode = new HashMap<>();
+    private final Random random = new Random();
+    private Node root;
+
+    public void add(int id, LocalDateTime startTime, LocalDateTime endTime) {
+        if (startTime == null || endTime == null) {
+            return;
+        }
+        remove(id);
+        Node node = new Node(id, startTime, endTime, random.nextInt());
+        root = insert(root, node);
+        idToNode.put(id, node);
+    }
+
+    public void remove(int id) {
+        Node node = idToNode.remove(id);
+        if (node != null) {
+            root = delete(root, node);
+        }
+    }
+
+    public void clear() {
+        idToNode.clear();
+        root = null;
+    }
+
+    public int size() {
+        return idToNode.size();
+    }
+
+    public LocalDateTime getLatestEndTime() {
+        return root != null ? root.maxEndTime : null;
+    }
+
+    public boolean isOverlapping(LocalDateTime startTime, LocalDateTime endTime, int excludedId) {
+        return findOverlapping(startTime, endTime, excludedId) != NO_OVERLAP;
+    }
+
+    /**
+     * Iterates over the ids of the tasks in (start time, id) order, starting after the given bound
+     * (or from the first task when {@code fromStartTime} is null) and stopping before {@code toStartTime}.
+     */
+    public PrimitiveIterator.OfInt iterator(LocalDateTime fromStartTime, int fromId, boolean isFromInclusive,
+                                            LocalDateTime toStartTime) {
+        Deque<Node> nextNodes = new ArrayDeque<>();
+        Node node = root;
+        while (node != null) {
+            if (fromStartTime == null || isAfterLowerBound(node, fromStartTime, fromId, isFromInclusive)) {
+                nextNodes.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+
+        return new PrimitiveIterator.OfInt() {
+            @Override
+            public boolean hasNext() {
+                return !nextNodes.isEmpty()
+                        && (toStartTime == null || nextNodes.peek().startTime.isBefore(toStartTime));
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Node nextNode = nextNodes.pop();
+                for (Node child = nextNode.right; child != null; child = child.left) {
+                    nextNodes.push(child);
+                }
+                return nextNode.id;
+            }
+        };
+    }
+
+    /**
+     * Returns the earliest free slot of every gap in the schedule after the given time, at most {@code count}
+     * slots, the last one possibly being after the latest task. Tasks starting before {@code after} are
+     * accounted for through the subtree end times on the search path, later tasks are visited in start order.
+     */
+    public List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count) {
+        return findFreeSlots(after, durationInMinutes, count, Collections.emptyIterator());
+    }
+
+    /**
+     * Same as {@link #findFreeSlots(LocalDateTime, int, int)}, with {@code extraBusySlots} merged into the scan.
+     * They must come in start order and include every extra slot still running at {@code after}.
+     */
+    public List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count,
+                                        Iterator<TimeSlot> extraBusySlots) {
+        List<TimeSlot> freeSlots = new ArrayList<>();
+        if (after == null || count <= 0) {
+            return freeSlots;
+        }
+
+        LocalDateTime freeFrom = after;
+        Deque<Node> nextNodes = new ArrayDeque<>();
+        Node node = root;
+        while (node != null) {
+            if (node.startTime.isAfter(after)) {
+                nextNodes.push(node);
+                node = node.left;
+            } else {
+                freeFrom = getLatest(freeFrom, node.endTime);
+                if (node.left != null) {
+                    freeFrom = getLatest(freeFrom, node.left.maxEndTime);
+                }
+                node = node.right;
+            }
+        }
+
+        TimeSlot nextExtraBusySlot = extraBusySlots.hasNext() ? extraBusySlots.next() : null;
+        while ((!nextNodes.isEmpty() || nextExtraBusySlot != null) && freeSlots.size() < count) {
+            LocalDateTime busyStartTime;
+            LocalDateTime busyEndTime;
+            if (nextExtraBusySlot == null
+                    || (!nextNodes.isEmpty()
+                    && nextNodes.peek().startTime.isBefore(nextExtraBusySlot.getStartTime()))) {
+                Node nextNode = nextNodes.pop();
+                for (Node child = nextNode.right; child != null; child = child.left) {
+                    nextNodes.push(child);
+                }
+                busyStartTime = nextNode.startTime;
+                busyEndTime = nextNode.endTime;
+            } else {
+                busyStartTime = nextExtraBusySlot.getStartTime();
+                busyEndTime = nextExtraBusySlot.getEndTime();
+                nextExtraBusySlot = extraBusySlots.hasNext() ? extraBusySlots.next() : null;
+            }
+            LocalDateTime slotEndTime = freeFrom.plusMinutes(durationInMinutes);
+            if (!slotEndTime.isAfter(busyStartTime)) {
+                freeSlots.add(new TimeSlot(freeFrom, slotEndTime));
+            }
+            freeFrom = getLatest(freeFrom, busyEndTime);
+        }
+
+        if (freeSlots.size() < count) {
+            freeSlots.add(new TimeSlot(freeFrom, freeFrom.plusMinutes(durationInMinutes)));
+        }
+        return freeSlots;
+    }
+
+    private int findOverlapping(LocalDateTime startTime, LocalDateTime endTime, int excludedId) {
+        if (startTime == null || endTime == null) {
+            return NO_OVERLAP;
+        }
+        return findOverlapping(root, startTime, endTime, excludedId);
+    }
+
+    private int findOverlapping(Node node, LocalDateTime startTime, LocalDateTime endTime, int excludedId) {
+        while (node != null && node.maxEndTime.isAfter(startTime)) {
+            int foundInLeft = findOverlapping(node.left, startTime, endTime, excludedId);
+            if (foundInLeft != NO_OVERLAP) {
+                return foundInLeft;
+            }
+            if (!node.startTime.isBefore(endTime)) {
+                return NO_OVERLAP;
+            }
+            if (node.id != excludedId && node.endTime.isAfter(startTime)) {
+                return node.id;
+            }
+            node = node.right;
+        }
+        return NO_OVERLAP;
+    }
+
+    private Node insert(Node current, Node node) {
+        if (current == null) {
+            return node;
+        }
+        if (compare(node, current) < 0) {
+            current.left = insert(current.left, node);
+            if (current.left.priority > current.priority) {
+                current = rotateRight(current);
+            }
+        } else {
+            current.right = insert(current.right, node);
+            if (current.right.priority > current.priority) {
+                current = rotateLeft(current);
+            }
+        }
+        updateMaxEndTime(current);
+        return current;
+    }
+
+    private Node delete(Node current, Node node) {
+        if (current == null) {
+            return null;
+        }
+        int comparison = compare(node, current);
+        if (comparison < 0) {
+            current.left = delete(current.left, node);
+        } else if (comparison > 0) {
+            current.right = delete(current.right, node);
+        } else {
+            return merge(current.left, current.right);
+        }
+        updateMaxEndTime(current);
+        return current;
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            updateMaxEndTime(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        updateMaxEndTime(right);
+        return right;
+    }
+
+    private Node rotateRight(Node node) {
+        Node newRoot = node.left;
+        node.left = newRoot.right;
+        newRoot.right = node;
+        updateMaxEndTime(node);
+        updateMaxEndTime(newRoot);
+        return newRoot;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node newRoot = node.right;
+        node.right = newRoot.left;
+        newRoot.left = node;
+        updateMaxEndTime(node);
+        updateMaxEndTime(newRoot);
+        return newRoot;
+    }
+
+    private void updateMaxEndTime(Node node) {
+        LocalDateTime maxEndTime = node.endTime;
+        if (node.left != null && node.left.maxEndTime.isAfter(maxEndTime)) {
+            maxEndTime = node.left.maxEndTime;
+        }
+        if (node.right != null && node.right.maxEndTime.isAfter(maxEndTime)) {
+            maxEndTime = node.right.maxEndTime;
+        }
+        node.maxEndTime = maxEndTime;
+    }
+
+    private boolean isAfterLowerBound(Node node, LocalDateTime fromStartTime, int fromId, boolean isFromInclusive) {
+        int comparison = node.startTime.compareTo(fromStartTime);
+        if (comparison == 0) {
+            comparison = Integer.compare(node.id, fromId);
+        }
+        return isFromInclusive ? comparison >= 0 : comparison > 0;
+    }
+
+    private LocalDateTime getLatest(LocalDateTime time1, LocalDateTime time2) {
+        return time2.isAfter(time1) ? time2 : time1;
+    }
+
+    private int compare(Node node1, Node node2) {
+        int comparison = node1.startTime.compareTo(node2.startTime);
+        return comparison != 0 ? comparison : Integer.compare(node1.id, node2.id);
+    }
+}
@@ -0,0 +1,115 @@
+package repository;
+
+import constant.Status;
+import constant.TaskType;
+import exception.DependencyCycleException;
+import exception.TaskVersionConflictException;
+import exception.TimeOverlapException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TimeSlot;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Task storage with its indexes, epic rollups and change events. {@link AllTasksRepository} is the plain
+ * single-threaded implementation, {@link ConcurrentAllTasksRepository} guards one with a lock.
+ */
+public interface TaskRepository {
+
+    void addTask(Task task) throws TimeOverlapException;
+
+    void addTasks(Collection<Task> tasks) throws TimeOverlapException;
+
+    void updateTask(Task task) throws TimeOverlapException;
+
+    void updateTask(Task task, int expectedVersion) throws TimeOverlapException, TaskVersionConflictException;
+
+    TaskEventBus getTaskEventBus();
+
+    boolean isEpicExisted(Epic epic);
+
+    boolean isTaskExisted(Task task);
+
+    boolean isEpicExisted(int id);
+
+    boolean isSubtaskExisted(Subtask subtask);
+
+    Status calculateNewEpicStatus(Epic epic);
+
+    void calculateAndSetNewEpicTimeProperties(Epic epic);
+
+    boolean verifyEpicRollups();
+
+    Task getTaskById(int id);
+
+    Task peekTaskById(int id);
+
+    boolean isArchived(int id);
+
+    int archiveDoneTasks(Duration minDoneAge);
+
+    int getMaxArchivedTaskId();
+
+    TaskTierStats getTaskTierStats();
+
+    List<Task> getAllTaskType();
+
+    List<Task> getAllSubtaskType();
+
+    List<Task> getAllEpicType();
+
+    List<Task> getAllTasks();
+
+    List<Task> getTasksByStatus(Status status);
+
+    List<Task> getTasksByStatus(Status status, TaskType taskType);
+
+    List<Integer> search(String query, int limit);
+
+    List<Task> getAllEpicSubtasks(Epic epic);
+
+    List<Task> getAllEpicSubtasks(int id);
+
+    List<Task> getChildEpics(int id);
+
+    List<Task> getPrioritizedTasks();
+
+    TaskPage getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit, String cursor);
+
+    List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count);
+
+    List<Task> getTasksForDay(LocalDate day);
+
+    List<Task> getTasksForWeek(LocalDate day);
+
+    void addDependency(int taskId, int blockedByTaskId) throws DependencyCycleException;
+
+    void removeDependency(int taskId, int blockedByTaskId);
+
+    List<Integer> getDependencies(int taskId);
+
+    TaskSchedule getTaskSchedule(int taskId);
+
+    List<Task> getCriticalPath();
+
+    List<Task> deleteTaskById(int id);
+
+    List<Task> deleteAllTaskType();
+
+    List<Task> deleteAllSubtaskType();
+
+    List<Task> deleteAllEpicType();
+
+    List<Task> deleteAllTasks();
+
+    void checkForTimeOverlap(Task task) throws TimeOverlapException;
+}
@@ -0,0 +1,159 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over task names and descriptions. Each term points to the ids of the tasks that
+ * contain it together with the term frequency; every task keeps its distinct terms, so an update only
+ * touches the postings of the terms that actually changed.
+ */
+public class TaskSearchIndex {
+
+    private static class Postings {
+        final String term;
+        final TaskIdIntMap taskIdToTermFrequency = new TaskIdIntMap(INITIAL_POSTINGS_CAPACITY);
+
+        Postings(String term) {
+            this.term = term;
+        }
+    }
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final int INITIAL_POSTINGS_CAPACITY = 2;
+    private static final String[] NO_TERMS = new String[0];
+
+    private final Map<String, Postings> termToPostings = new HashMap<>();
+    private final Map<Integer, String[]> taskIdToTerms = new HashMap<>();
+
+    public void put(int id, String name, String description) {
+        Map<String, Integer> newTermFrequencies = new HashMap<>();
+        addTerms(newTermFrequencies, name);
+        addTerms(newTermFrequencies, description);
+
+        String[] oldTerms = taskIdToTerms.getOrDefault(id, NO_TERMS);
+        if (hasSameTerms(id, oldTerms, newTermFrequencies)) {
+            return;
+        }
+
+        for (String term : oldTerms) {
+            if (!newTermFrequencies.containsKey(term)) {
+                removePosting(term, id);
+            }
+        }
+        String[] newTerms = new String[newTermFrequencies.size()];
+        int termIndex = 0;
+        for (Map.Entry<String, Integer> termFrequency : newTermFrequencies.entrySet()) {
+            Postings postings = termToPostings.computeIfAbsent(termFrequency.getKey(), Postings::new);
+            postings.taskIdToTermFrequency.put(id, termFrequency.getValue());
+            newTerms[termIndex++] = postings.term;
+        }
+
+        if (newTerms.length == 0) {
+            taskIdToTerms.remove(id);
+        } else {
+            taskIdToTerms.put(id, newTerms);
+        }
+    }
+
+    public void remove(int id) {
+        String[] terms = taskIdToTerms.remove(id);
+        if (terms != null) {
+            for (String term : terms) {
+                removePosting(term, id);
+            }
+        }
+    }
+
+    public void clear() {
+        termToPostings.clear();
+        taskIdToTerms.clear();
+    }
+
+    public List<Integer> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        int documentsCount = taskIdToTerms.size();
+        Map<Integer, Double> taskIdToScore = new HashMap<>();
+        for (String term : queryTerms) {
+            Postings postings = termToPostings.get(term);
+            if (postings == null) {
+                continue;
+            }
+            double inverseDocumentFrequency =
+                    Math.log(1.0 + (double) documentsCount / postings.taskIdToTermFrequency.size());
+            postings.taskIdToTermFrequency.forEach((id, termFrequency) ->
+                    taskIdToScore.merge(id, termFrequency * inverseDocumentFrequency, Double::sum));
+        }
+
+        PriorityQueue<Map.Entry<Integer, Double>> topResults = new PriorityQueue<>((result1, result2) -> {
+            int scoreComparison = Double.compare(result1.getValue(), result2.getValue());
+            return scoreComparison != 0 ? scoreComparison : Integer.compare(result2.getKey(), result1.getKey());
+        });
+        for (Map.Entry<Integer, Double> result : taskIdToScore.entrySet()) {
+            topResults.add(result);
+            if (topResults.size() > limit) {
+                topResults.poll();
+            }
+        }
+
+        List<Integer> rankedIds = new ArrayList<>(topResults.size());
+        while (!topResults.isEmpty()) {
+            rankedIds.add(topResults.poll().getKey());
+        }
+        Collections.reverse(rankedIds);
+        return rankedIds;
+    }
+
+    private boolean hasSameTerms(int id, String[] oldTerms, Map<String, Integer> newTermFrequencies) {
+        if (oldTerms.length != newTermFrequencies.size()) {
+            return false;
+        }
+        for (String term : oldTerms) {
+            Integer newTermFrequency = newTermFrequencies.get(term);
+            if (newTermFrequency == null
+                    || termToPostings.get(term).taskIdToTermFrequency.get(id) != newTermFrequency) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removePosting(String term, int id) {
+        Postings postings = termToPostings.get(term);
+        if (postings != null) {
+            postings.taskIdToTermFrequency.remove(id);
+            if (postings.taskIdToTermFrequency.size() == 0) {
+                termToPostings.remove(term);
+            }
+        }
+    }
+
+    private void addTerms(Map<String, Integer> termFrequencies, String text) {
+        for (String term : tokenize(text)) {
+            termFrequencies.merge(term, 1, Integer::sum);
+        }
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                terms.add(token);
+            }
+        }
+        return terms;
+    }
+}
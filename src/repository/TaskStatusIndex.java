@@ -0,0 +1,48 @@
+package repository;
+
+import constant.Status;
+import constant.TaskType;
+import model.TaskIdSet;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Secondary index of task ids by status and task type. A task is kept in exactly one
+ * (status, type) bucket, so a query by status costs only the size of the result.
+ */
+public class TaskStatusIndex {
+
+    private final Map<Status, Map<TaskType, TaskIdSet>> statusToTaskIds = new EnumMap<>(Status.class);
+
+    public TaskStatusIndex() {
+        for (Status status : Status.values()) {
+            Map<TaskType, TaskIdSet> taskTypeToTaskIds = new EnumMap<>(TaskType.class);
+            for (TaskType taskType : TaskType.values()) {
+                taskTypeToTaskIds.put(taskType, new TaskIdSet());
+            }
+            statusToTaskIds.put(status, taskTypeToTaskIds);
+        }
+    }
+
+    public void put(int id, Status status, TaskType taskType) {
+        remove(id, taskType);
+        if (status != null) {
+            statusToTaskIds.get(status).get(taskType).add(id);
+        }
+    }
+
+    public void remove(int id, TaskType taskType) {
+        for (Map<TaskType, TaskIdSet> taskTypeToTaskIds : statusToTaskIds.values()) {
+            taskTypeToTaskIds.get(taskType).remove(id);
+        }
+    }
+
+    public TaskIdSet getTaskIds(Status status, TaskType taskType) {
+        return statusToTaskIds.get(status).get(taskType);
+    }
+
+    public void clear() {
+        statusToTaskIds.values().forEach(taskTypeToTaskIds -> taskTypeToTaskIds.values().forEach(TaskIdSet::clear));
+    }
+}
@@ -0,0 +1,47 @@
+package repository;
+
+import constant.TaskType;
+import model.Task;
+import model.TaskIdSet;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Primary storage of the repository. Tasks of every type share one id space; the ids of each type
+ * are kept in insertion order so listings do not depend on the storage layout.
+ */
+public interface TaskStore {
+
+    void put(int id, Task task, TaskType taskType);
+
+    Task get(int id);
+
+    TaskType getType(int id);
+
+    boolean contains(int id);
+
+    boolean contains(int id, TaskType taskType);
+
+    Task remove(int id);
+
+    TaskIdSet getIds(TaskType taskType);
+
+    void clear();
+
+    int size();
+
+    /**
+     * Throws {@link IllegalArgumentException} if the task holds a value the store cannot represent. The
+     * repository calls it before it changes any state.
+     */
+    default void checkStorable(Task task) {
+    }
+
+    /**
+     * Unit the store keeps times in. The repository truncates the start time of every incoming task to it,
+     * so its time indexes agree with the tasks the store returns.
+     */
+    default ChronoUnit getTimePrecision() {
+        return ChronoUnit.NANOS;
+    }
+}
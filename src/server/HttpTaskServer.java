@@ -5,24 +5,44 @@ import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import com.sun.net.httpserver.HttpServer;
+import constant.Status;
+import constant.TaskType;
+import exception.DependencyCycleException;
+import exception.MissingEpicException;
+import exception.TaskVersionConflictException;
+import exception.TimeOverlapException;
 import formatter.LocalDateTimeAdapter;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TaskViewCount;
+import model.TimeSlot;
 import service.Managers;
+import service.TaskBoards;
 import service.TaskManager;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.net.HttpURLConnection.HTTP_CREATED;
 import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
 import static java.net.HttpURLConnection.HTTP_OK;
+import static java.net.HttpURLConnection.HTTP_UNAVAILABLE;
 
 public class HttpTaskServer {
 
@@ -30,24 +50,62 @@ public class HttpTaskServer {
     private static final int HTTP_BAD_REQUEST = 400;
     private static final int HTTP_NOT_FOUND = 404;
     private static final int HTTP_METHOD_NOT_ALLOWED = 405;
+    private static final int HTTP_CONFLICT = 409;
+    private static final int HTTP_PRECONDITION_FAILED = 412;
+    private static final String ETAG_HEADER = "ETag";
+    private static final String IF_MATCH_HEADER = "If-Match";
+    private static final String BOARD_ID_HEADER = "X-Board-Id";
+    private static final String USER_ID_HEADER = "X-User-Id";
 
     private static final Pattern allTasksPattern = Pattern.compile("^/tasks/task/$");
     private static final Pattern taskByIdPattern = Pattern.compile("^/tasks/task/\\?id=(\\d+)$");
     private static final Pattern epicSubtasksPattern = Pattern.compile("^/tasks/subtask/epic/\\?id=(\\d+)$");
+    private static final Pattern childEpicsPattern = Pattern.compile("^/tasks/epic/children/\\?id=(\\d+)$");
     private static final Pattern historyPattern = Pattern.compile("^/tasks/history/$");
     private static final Pattern prioritizedTasksPattern = Pattern.compile("^/tasks/$");
     private static final Pattern subtaskPattern = Pattern.compile("^/tasks/subtask/$");
     private static final Pattern epicPattern = Pattern.compile("^/tasks/epic/$");
     private static final Pattern taskTypePattern = Pattern.compile("^/tasks/tasktype/$");
     private static final Pattern updatePattern = Pattern.compile("^/tasks/update/$");
+    private static final Pattern searchPattern = Pattern.compile("^/tasks/search/$");
+    private static final Pattern freeSlotsPattern = Pattern.compile("^/tasks/slots/$");
+    private static final Pattern dayTasksPattern = Pattern.compile("^/tasks/day/$");
+    private static final Pattern weekTasksPattern = Pattern.compile("^/tasks/week/$");
+    private static final Pattern dependencyPattern = Pattern.compile("^/tasks/dependency/$");
+    private static final Pattern schedulePattern = Pattern.compile("^/tasks/schedule/$");
+    private static final Pattern criticalPathPattern = Pattern.compile("^/tasks/critical-path/$");
+    private static final Pattern archivePattern = Pattern.compile("^/tasks/archive/$");
+    private static final Pattern hotTasksPattern = Pattern.compile("^/tasks/hot/$");
+    private static final Pattern boardIdPattern = Pattern.compile("^[A-Za-z0-9_-]{1,64}$");
+    private static final Pattern userIdPattern = Pattern.compile("^[A-Za-z0-9_.@-]{1,64}$");
+    private static final int DEFAULT_SEARCH_LIMIT = 20;
+    private static final int DEFAULT_HOT_TASKS_COUNT = 10;
+    private static final int DEFAULT_FREE_SLOTS_COUNT = 1;
 
 
     private final TaskManager taskManager;
+    private final TaskBoards taskBoards;
+    private final int workerThreads;
     private HttpServer server;
+    private ExecutorService executor;
     private final Gson gson;
 
     public HttpTaskServer(TaskManager taskManager) {
+        this(taskManager, 1);
+    }
+
+    public HttpTaskServer(TaskManager taskManager, int workerThreads) {
+        this(taskManager, null, workerThreads);
+    }
+
+    public HttpTaskServer(TaskBoards taskBoards) {
+        this(null, taskBoards, 1);
+    }
+
+    private HttpTaskServer(TaskManager taskManager, TaskBoards taskBoards, int workerThreads) {
         this.taskManager = taskManager;
+        this.taskBoards = taskBoards;
+        this.workerThreads = workerThreads;
         this.gson = new GsonBuilder()
                 .registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter())
                 .create();
@@ -56,6 +114,10 @@ public class HttpTaskServer {
     public void start() throws IOException {
         server = HttpServer.create(new InetSocketAddress(PORT), 0);
         server.createContext("/tasks", new TaskHandler());
+        if (workerThreads > 1) {
+            executor = Executors.newFixedThreadPool(workerThreads);
+            server.setExecutor(executor);
+        }
         server.start();
         System.out.println("Server started on port " + PORT);
     }
@@ -63,36 +125,87 @@ public class HttpTaskServer {
     private class TaskHandler implements HttpHandler {
         @Override
         public void handle(HttpExchange httpExchange) throws IOException {
-            String method = httpExchange.getRequestMethod();
-            String path = httpExchange.getRequestURI().getPath();
+            if (taskBoards == null) {
+                handleRequest(httpExchange, taskManager);
+                return;
+            }
 
-            switch (method) {
-                case "GET" -> handleGetRequest(path, httpExchange);
-                case "POST" -> handlePostRequest(path, httpExchange);
-                case "PUT" -> handlePutRequest(path, httpExchange);
-                case "DELETE" -> handleDeleteRequest(path, httpExchange);
-                default ->
-                        handleResponse(httpExchange, "Method " + method + " is not allowed", HTTP_METHOD_NOT_ALLOWED);
+            String boardId = httpExchange.getRequestHeaders().getFirst(BOARD_ID_HEADER);
+            if (boardId == null || boardId.isEmpty()) {
+                boardId = TaskBoards.DEFAULT_BOARD_ID;
+            } else if (!boardIdPattern.matcher(boardId).matches()) {
+                handleResponse(httpExchange, "Invalid board id: " + boardId, HTTP_BAD_REQUEST);
+                return;
             }
+            // The exchange is completed on the shard thread of the board, the server thread is released at once.
+            taskBoards.submit(boardId, boardTaskManager -> {
+                try {
+                    handleRequest(httpExchange, boardTaskManager);
+                } catch (IOException | RuntimeException ex) {
+                    System.err.println("Failed to handle the request: " + ex.getMessage());
+                } finally {
+                    httpExchange.close();
+                }
+            }, ex -> {
+                try {
+                    handleResponse(httpExchange, ex.getMessage(), HTTP_UNAVAILABLE);
+                } catch (IOException ioException) {
+                    System.err.println("Failed to handle the request: " + ioException.getMessage());
+                } finally {
+                    httpExchange.close();
+                }
+            });
         }
     }
 
-    private void handleGetRequest(String path, HttpExchange httpExchange) throws IOException {
+    private void handleRequest(HttpExchange httpExchange, TaskManager taskManager) throws IOException {
+        String method = httpExchange.getRequestMethod();
+        String path = httpExchange.getRequestURI().getPath();
+        String userId = httpExchange.getRequestHeaders().getFirst(USER_ID_HEADER);
+        if (userId != null && !userIdPattern.matcher(userId).matches()) {
+            handleResponse(httpExchange, "Invalid user id: " + userId, HTTP_BAD_REQUEST);
+            return;
+        }
+
+        switch (method) {
+            case "GET" -> handleGetRequest(path, httpExchange, taskManager);
+            case "POST" -> handlePostRequest(path, httpExchange, taskManager);
+            case "PUT" -> handlePutRequest(path, httpExchange, taskManager);
+            case "DELETE" -> handleDeleteRequest(path, httpExchange, taskManager);
+            default -> handleResponse(httpExchange, "Method " + method + " is not allowed", HTTP_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private void handleGetRequest(String path, HttpExchange httpExchange, TaskManager taskManager) throws IOException {
         String queryParameters = httpExchange.getRequestURI().getQuery();
         Matcher allTasksMatcher = allTasksPattern.matcher(path);
         Matcher taskByIdMatcher = taskByIdPattern.matcher(path + "?" + queryParameters);
         Matcher epicSubtasksMatcher = epicSubtasksPattern.matcher(path + "?" + queryParameters);
+        Matcher childEpicsMatcher = childEpicsPattern.matcher(path + "?" + queryParameters);
         Matcher historyMatcher = historyPattern.matcher(path);
         Matcher prioritizedTasksMatcher = prioritizedTasksPattern.matcher(path);
         Matcher subtaskMatcher = subtaskPattern.matcher(path);
         Matcher epicMatcher = epicPattern.matcher(path);
         Matcher taskTypeMatcher = taskTypePattern.matcher(path);
+        Matcher searchMatcher = searchPattern.matcher(path);
+        Matcher freeSlotsMatcher = freeSlotsPattern.matcher(path);
+        Matcher dayTasksMatcher = dayTasksPattern.matcher(path);
+        Matcher weekTasksMatcher = weekTasksPattern.matcher(path);
+        Matcher dependencyMatcher = dependencyPattern.matcher(path);
+        Matcher scheduleMatcher = schedulePattern.matcher(path);
+        Matcher criticalPathMatcher = criticalPathPattern.matcher(path);
+        Matcher archiveMatcher = archivePattern.matcher(path);
+        Matcher hotTasksMatcher = hotTasksPattern.matcher(path);
 
         if (taskByIdMatcher.find()) {
             // GET tasks/task/?id
             int taskId = Integer.parseInt(taskByIdMatcher.group(1));
-            Task singleTask = taskManager.getTaskById(taskId);
+            String userId = httpExchange.getRequestHeaders().getFirst(USER_ID_HEADER);
+            Task singleTask = userId != null
+                    ? taskManager.getTaskById(taskId, userId)
+                    : taskManager.getTaskById(taskId);
             if (singleTask != null) {
+                httpExchange.getResponseHeaders().set(ETAG_HEADER, toEntityTag(singleTask.getVersion()));
                 handleResponse(httpExchange, singleTask, HTTP_OK);
             } else {
                 handleResponse(httpExchange, "Task not found", HTTP_NOT_FOUND);
@@ -102,6 +215,11 @@ public class HttpTaskServer {
             int epicId = Integer.parseInt(epicSubtasksMatcher.group(1));
             List<Task> epicSubTasks = taskManager.getAllEpicSubtasks(epicId);
             handleResponse(httpExchange, epicSubTasks, HTTP_OK);
+        } else if (childEpicsMatcher.find()) {
+            // GET /tasks/epic/children/?id=
+            int epicId = Integer.parseInt(childEpicsMatcher.group(1));
+            List<Task> childEpics = taskManager.getChildEpics(epicId);
+            handleResponse(httpExchange, childEpics, HTTP_OK);
         } else if (taskTypeMatcher.find()) {
             // GET /tasks/tasktype/
             List<Task> allTaskType = taskManager.getAllTaskType();
@@ -114,15 +232,117 @@ public class HttpTaskServer {
             // GET /tasks/epic/
             List<Task> epics = taskManager.getAllEpicType();
             handleResponse(httpExchange, epics, HTTP_OK);
+        } else if (searchMatcher.find()) {
+            // GET /tasks/search/?query=&limit=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                int limit = parameters.containsKey("limit")
+                        ? Integer.parseInt(parameters.get("limit"))
+                        : DEFAULT_SEARCH_LIMIT;
+                List<Integer> rankedIds = taskManager.search(parameters.getOrDefault("query", ""), limit);
+                handleResponse(httpExchange, rankedIds, HTTP_OK);
+            } catch (NumberFormatException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (freeSlotsMatcher.find()) {
+            // GET /tasks/slots/?after=&duration=&count=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                LocalDateTime after = parseDateTimeParameter(parameters.get("after"));
+                int duration = Integer.parseInt(parameters.getOrDefault("duration", ""));
+                int count = parameters.containsKey("count")
+                        ? Integer.parseInt(parameters.get("count"))
+                        : DEFAULT_FREE_SLOTS_COUNT;
+                List<TimeSlot> freeSlots = taskManager.findFreeSlots(after != null ? after : LocalDateTime.now(),
+                        duration, count);
+                handleResponse(httpExchange, freeSlots, HTTP_OK);
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (dayTasksMatcher.find() || weekTasksMatcher.find()) {
+            // GET /tasks/day/?date= and GET /tasks/week/?date=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                LocalDate date = parameters.containsKey("date")
+                        ? LocalDate.parse(parameters.get("date"))
+                        : LocalDate.now();
+                List<Task> calendarTasks = dayTasksMatcher.matches()
+                        ? taskManager.getTasksForDay(date)
+                        : taskManager.getTasksForWeek(date);
+                handleResponse(httpExchange, calendarTasks, HTTP_OK);
+            } catch (DateTimeParseException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (dependencyMatcher.find()) {
+            // GET /tasks/dependency/?id=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                List<Integer> blockedByIds = taskManager.getDependencies(
+                        Integer.parseInt(parameters.getOrDefault("id", "")));
+                handleResponse(httpExchange, blockedByIds, HTTP_OK);
+            } catch (NumberFormatException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (scheduleMatcher.find()) {
+            // GET /tasks/schedule/?id=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                TaskSchedule taskSchedule = taskManager.getTaskSchedule(
+                        Integer.parseInt(parameters.getOrDefault("id", "")));
+                if (taskSchedule != null) {
+                    handleResponse(httpExchange, taskSchedule, HTTP_OK);
+                } else {
+                    handleResponse(httpExchange, "Task not found", HTTP_NOT_FOUND);
+                }
+            } catch (NumberFormatException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (criticalPathMatcher.find()) {
+            // GET /tasks/critical-path/
+            List<Task> criticalPath = taskManager.getCriticalPath();
+            handleResponse(httpExchange, criticalPath, HTTP_OK);
+        } else if (archiveMatcher.find()) {
+            // GET /tasks/archive/
+            TaskTierStats taskTierStats = taskManager.getTaskTierStats();
+            handleResponse(httpExchange, taskTierStats, HTTP_OK);
+        } else if (hotTasksMatcher.find()) {
+            // GET /tasks/hot/?k=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                int k = parameters.containsKey("k") ? Integer.parseInt(parameters.get("k")) : DEFAULT_HOT_TASKS_COUNT;
+                List<TaskViewCount> hotTasks = taskManager.getHotTasks(k);
+                handleResponse(httpExchange, hotTasks, HTTP_OK);
+            } catch (IllegalArgumentException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
         } else if (historyMatcher.find()) {
             // GET /tasks/history/
-            List<Task> history = taskManager.getHistory();
+            String userId = httpExchange.getRequestHeaders().getFirst(USER_ID_HEADER);
+            List<Task> history = userId != null ? taskManager.getHistory(userId) : taskManager.getHistory();
             handleResponse(httpExchange, history, HTTP_OK);
-        } else if (allTasksMatcher.find()) {
-            // GET tasks/task/
-            List<Task> allTasks = taskManager.getAllTasks();
-            handleResponse(httpExchange, allTasks, HTTP_OK);
-        } else if (prioritizedTasksMatcher.find()) {
+        } else if (allTasksMatcher.matches()) {
+            // GET tasks/task/ and GET tasks/task/?status=&type=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                List<Task> tasks = getTasksByStatusAndType(taskManager, parameters.get("status"),
+                        parameters.get("type"));
+                handleResponse(httpExchange, tasks, HTTP_OK);
+            } catch (IllegalArgumentException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (prioritizedTasksMatcher.matches() && queryParameters != null) {
+            // GET /tasks/?from=&to=&limit=&cursor=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters);
+                LocalDateTime from = parseDateTimeParameter(parameters.get("from"));
+                LocalDateTime to = parseDateTimeParameter(parameters.get("to"));
+                int limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : 0;
+                TaskPage taskPage = taskManager.getPrioritizedTasks(from, to, limit, parameters.get("cursor"));
+                handleResponse(httpExchange, taskPage, HTTP_OK);
+            } catch (IllegalArgumentException | DateTimeParseException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (prioritizedTasksMatcher.matches()) {
             // GET /tasks/
             List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
             handleResponse(httpExchange, prioritizedTasks, HTTP_OK);
@@ -131,6 +351,57 @@ public class HttpTaskServer {
         }
     }
 
+    private Map<String, String> parseQueryParameters(String queryParameters) {
+        Map<String, String> parameters = new HashMap<>();
+        for (String parameter : queryParameters.split("&")) {
+            int separatorIndex = parameter.indexOf('=');
+            if (separatorIndex > 0) {
+                parameters.put(parameter.substring(0, separatorIndex), parameter.substring(separatorIndex + 1));
+            }
+        }
+        return parameters;
+    }
+
+    private LocalDateTime parseDateTimeParameter(String value) {
+        return value == null || value.isEmpty() ? null : LocalDateTime.parse(value);
+    }
+
+    private String toEntityTag(int version) {
+        return "\"" + version + "\"";
+    }
+
+    private int parseEntityTag(String entityTag) {
+        String value = entityTag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return Integer.parseInt(value);
+    }
+
+    private List<Task> getTasksByStatusAndType(TaskManager taskManager, String status, String type) {
+        if (status == null && type == null) {
+            return taskManager.getAllTasks();
+        }
+        TaskType taskType = type != null ? TaskType.valueOf(type.toUpperCase()) : null;
+        if (status == null) {
+            switch (taskType) {
+                case SUBTASK:
+                    return taskManager.getAllSubtaskType();
+                case EPIC:
+                    return taskManager.getAllEpicType();
+                default:
+                    return taskManager.getAllTaskType();
+            }
+        }
+        Status taskStatus = Status.valueOf(status.toUpperCase());
+        return taskType != null
+                ? taskManager.getTasksByStatus(taskStatus, taskType)
+                : taskManager.getTasksByStatus(taskStatus);
+    }
+
     private void handleResponse(HttpExchange httpExchange, Object data, int statusCode) throws IOException {
         String response = data instanceof String ? (String) data : gson.toJson(data);
         httpExchange.sendResponseHeaders(statusCode, response.getBytes().length);
@@ -139,33 +410,71 @@ public class HttpTaskServer {
         }
     }
 
-    private void handlePostRequest(String path, HttpExchange httpExchange) throws IOException {
+    private void handlePostRequest(String path, HttpExchange httpExchange, TaskManager taskManager) throws IOException {
         String requestBody = new String(httpExchange.getRequestBody().readAllBytes());
         Matcher taskMatcher = taskTypePattern.matcher(path);
         Matcher epicMatcher = epicPattern.matcher(path);
         Matcher subtaskMatcher = subtaskPattern.matcher(path);
+        Matcher dependencyMatcher = dependencyPattern.matcher(path);
+        Matcher archiveMatcher = archivePattern.matcher(path);
 
         if (taskMatcher.find()) {
             // POST /tasks/tasktype/
-            Task task = gson.fromJson(requestBody, Task.class);
-            Task newTask = taskManager.createTask(task);
-            handleResponse(httpExchange, newTask, HTTP_CREATED);
+            handleCreateRequest(httpExchange, taskManager, gson.fromJson(requestBody, Task.class));
         } else if (epicMatcher.find()) {
             // POST /tasks/epic/
-            Epic epic = gson.fromJson(requestBody, Epic.class);
-            Task newEpic = taskManager.createTask(epic);
-            handleResponse(httpExchange, newEpic, HTTP_CREATED);
+            handleCreateRequest(httpExchange, taskManager, gson.fromJson(requestBody, Epic.class));
         } else if (subtaskMatcher.find()) {
             // POST /tasks/subtask/
-            Subtask subtask = gson.fromJson(requestBody, Subtask.class);
-            Task newSubtask = taskManager.createTask(subtask);
-            handleResponse(httpExchange, newSubtask, HTTP_CREATED);
+            handleCreateRequest(httpExchange, taskManager, gson.fromJson(requestBody, Subtask.class));
+        } else if (dependencyMatcher.find()) {
+            // POST /tasks/dependency/?id=&blockedBy=
+            String queryParameters = httpExchange.getRequestURI().getQuery();
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                taskManager.addDependency(Integer.parseInt(parameters.getOrDefault("id", "")),
+                        Integer.parseInt(parameters.getOrDefault("blockedBy", "")));
+                handleResponse(httpExchange, "Dependency successfully added", HTTP_CREATED);
+            } catch (DependencyCycleException ex) {
+                handleResponse(httpExchange, "Dependency cycle: " + ex.getMessage(), HTTP_CONFLICT);
+            } catch (IllegalArgumentException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
+        } else if (archiveMatcher.find()) {
+            // POST /tasks/archive/?minDoneAgeInMinutes=
+            String queryParameters = httpExchange.getRequestURI().getQuery();
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                int minDoneAgeInMinutes = Integer.parseInt(parameters.getOrDefault("minDoneAgeInMinutes", ""));
+                if (minDoneAgeInMinutes < 0) {
+                    throw new IllegalArgumentException("minDoneAgeInMinutes should not be negative");
+                }
+                taskManager.archiveDoneTasks(Duration.ofMinutes(minDoneAgeInMinutes));
+                handleResponse(httpExchange, taskManager.getTaskTierStats(), HTTP_OK);
+            } catch (IllegalStateException ex) {
+                handleResponse(httpExchange, "Task archive is not configured", HTTP_NOT_FOUND);
+            } catch (IllegalArgumentException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
         } else {
             handleResponse(httpExchange, "Invalid path", HTTP_BAD_REQUEST);
         }
     }
 
-    private void handlePutRequest(String path, HttpExchange httpExchange) throws IOException {
+    private void handleCreateRequest(HttpExchange httpExchange, TaskManager taskManager, Task task)
+            throws IOException {
+        try {
+            handleResponse(httpExchange, taskManager.createTask(task), HTTP_CREATED);
+        } catch (MissingEpicException ex) {
+            handleResponse(httpExchange, "Task creation failed: " + ex.getMessage(), HTTP_NOT_FOUND);
+        } catch (TimeOverlapException ex) {
+            handleResponse(httpExchange, "Task creation failed: " + ex.getMessage(), HTTP_CONFLICT);
+        } catch (IllegalArgumentException ex) {
+            handleResponse(httpExchange, "Task creation failed: " + ex.getMessage(), HTTP_BAD_REQUEST);
+        }
+    }
+
+    private void handlePutRequest(String path, HttpExchange httpExchange, TaskManager taskManager) throws IOException {
         String requestBody = new String(httpExchange.getRequestBody().readAllBytes());
 
         Matcher updateMatcher = updatePattern.matcher(path);
@@ -173,9 +482,20 @@ public class HttpTaskServer {
         if (updateMatcher.find()) {
             // PUT /tasks/update/
             Task task = gson.fromJson(requestBody, Task.class);
+            String ifMatch = httpExchange.getRequestHeaders().getFirst(IF_MATCH_HEADER);
             try {
-                taskManager.updateTask(task);
+                if (ifMatch != null) {
+                    taskManager.updateTask(task, parseEntityTag(ifMatch));
+                } else {
+                    taskManager.updateTask(task);
+                }
+                Task storedTask = taskManager.peekTaskById(task.getId());
+                if (storedTask != null) {
+                    httpExchange.getResponseHeaders().set(ETAG_HEADER, toEntityTag(storedTask.getVersion()));
+                }
                 handleResponse(httpExchange, "Task successfully updated", HTTP_OK);
+            } catch (TaskVersionConflictException ex) {
+                handleResponse(httpExchange, "Task update failed: " + ex.getMessage(), HTTP_PRECONDITION_FAILED);
             } catch (Exception e) {
                 handleResponse(httpExchange, "Task update failed: " + e.getMessage(), HTTP_BAD_REQUEST);
             }
@@ -184,7 +504,8 @@ public class HttpTaskServer {
         }
     }
 
-    private void handleDeleteRequest(String path, HttpExchange httpExchange) throws IOException {
+    private void handleDeleteRequest(String path, HttpExchange httpExchange, TaskManager taskManager)
+            throws IOException {
         String queryParameters = httpExchange.getRequestURI().getQuery();
 
         Matcher taskByIdMatcher = taskByIdPattern.matcher(path + "?" + queryParameters);
@@ -192,6 +513,7 @@ public class HttpTaskServer {
         Matcher allSubtasksMatcher = subtaskPattern.matcher(path);
         Matcher allEpicMatcher = epicPattern.matcher(path);
         Matcher allTaskTypeMatcher = taskTypePattern.matcher(path);
+        Matcher dependencyMatcher = dependencyPattern.matcher(path);
 
 
         if (taskByIdMatcher.find()) {
@@ -219,6 +541,16 @@ public class HttpTaskServer {
             // DELETE tasks/tasktype/
             List<Task> remainingTaskTypes = taskManager.deleteAllTaskType();
             handleResponse(httpExchange, remainingTaskTypes, HTTP_OK);
+        } else if (dependencyMatcher.find()) {
+            // DELETE /tasks/dependency/?id=&blockedBy=
+            try {
+                Map<String, String> parameters = parseQueryParameters(queryParameters == null ? "" : queryParameters);
+                taskManager.removeDependency(Integer.parseInt(parameters.getOrDefault("id", "")),
+                        Integer.parseInt(parameters.getOrDefault("blockedBy", "")));
+                handleResponse(httpExchange, "Dependency successfully removed", HTTP_OK);
+            } catch (NumberFormatException ex) {
+                handleResponse(httpExchange, "Invalid query parameters: " + ex.getMessage(), HTTP_BAD_REQUEST);
+            }
         } else {
             handleResponse(httpExchange, "Path not found", HTTP_NOT_FOUND);
         }
@@ -227,6 +559,9 @@ public class HttpTaskServer {
     public void stop() {
         System.out.println("Stopping the server on port " + PORT);
         server.stop(0);
+        if (executor != null) {
+            executor.shutdown();
+        }
     }
 
     public static void main(String[] args) throws Exception {
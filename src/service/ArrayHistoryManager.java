@@ -0,0 +1,131 @@
+package service;
+
+import model.Task;
+import repository.TaskIdIntMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded history keeping its linked list in arrays that grow up to {@code capacity} slots. When all
+ * slots are taken, the least recently viewed task gives up its slot.
+ */
+public class ArrayHistoryManager implements HistoryManager {
+
+    private static final int NO_SLOT = -1;
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private Task[] tasks;
+    private int[] prevSlots;
+    private int[] nextSlots;
+    private final TaskIdIntMap taskIdToSlot = new TaskIdIntMap();
+    private int firstSlot = NO_SLOT;
+    private int lastSlot = NO_SLOT;
+    private int firstFreeSlot = NO_SLOT;
+    private int usedSlots;
+    private int size;
+
+    public ArrayHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        int initialCapacity = Math.min(capacity, INITIAL_CAPACITY);
+        this.tasks = new Task[initialCapacity];
+        this.prevSlots = new int[initialCapacity];
+        this.nextSlots = new int[initialCapacity];
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+
+        int slot = taskIdToSlot.get(task.getId());
+        if (slot != NO_SLOT) {
+            unlink(slot);
+        } else {
+            slot = firstFreeSlot != NO_SLOT ? takeFreeSlot() : usedSlots < capacity ? takeNewSlot() : evictFirst();
+            taskIdToSlot.put(task.getId(), slot);
+        }
+        tasks[slot] = task;
+        linkLast(slot);
+    }
+
+    @Override
+    public void remove(int id) {
+        int slot = taskIdToSlot.get(id);
+        if (slot == NO_SLOT) {
+            return;
+        }
+
+        taskIdToSlot.remove(id);
+        unlink(slot);
+        tasks[slot] = null;
+        nextSlots[slot] = firstFreeSlot;
+        firstFreeSlot = slot;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        List<Task> history = new ArrayList<>(size);
+        for (int slot = firstSlot; slot != NO_SLOT; slot = nextSlots[slot]) {
+            history.add(tasks[slot]);
+        }
+        return history;
+    }
+
+    private int takeFreeSlot() {
+        int slot = firstFreeSlot;
+        firstFreeSlot = nextSlots[slot];
+        return slot;
+    }
+
+    private int takeNewSlot() {
+        if (usedSlots == tasks.length) {
+            int newLength = (int) Math.min((long) tasks.length * 2, capacity);
+            tasks = Arrays.copyOf(tasks, newLength);
+            prevSlots = Arrays.copyOf(prevSlots, newLength);
+            nextSlots = Arrays.copyOf(nextSlots, newLength);
+        }
+        return usedSlots++;
+    }
+
+    private int evictFirst() {
+        int slot = firstSlot;
+        taskIdToSlot.remove(tasks[slot].getId());
+        unlink(slot);
+        return slot;
+    }
+
+    private void linkLast(int slot) {
+        prevSlots[slot] = lastSlot;
+        nextSlots[slot] = NO_SLOT;
+        if (lastSlot == NO_SLOT) {
+            firstSlot = slot;
+        } else {
+            nextSlots[lastSlot] = slot;
+        }
+        lastSlot = slot;
+        size++;
+    }
+
+    private void unlink(int slot) {
+        int prevSlot = prevSlots[slot];
+        int nextSlot = nextSlots[slot];
+        if (prevSlot == NO_SLOT) {
+            firstSlot = nextSlot;
+        } else {
+            nextSlots[prevSlot] = nextSlot;
+        }
+        if (nextSlot == NO_SLOT) {
+            lastSlot = prevSlot;
+        } else {
+            prevSlots[nextSlot] = prevSlot;
+        }
+        size--;
+    }
+}
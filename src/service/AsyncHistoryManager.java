@@ -0,0 +1,105 @@
+package service;
+
+import model.Task;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * History that records views on a daemon thread in batches and runs the batch listener after each batch.
+ * A full queue records the view on the calling thread; reads and removals first apply the pending views.
+ */
+public class AsyncHistoryManager implements HistoryManager {
+
+    private final HistoryManager historyManager;
+    private final BlockingQueue<Task> pendingViews;
+    private final int batchSize;
+    private final Thread recorder;
+    private volatile Runnable batchListener;
+
+    public AsyncHistoryManager(HistoryManager historyManager, int queueCapacity, int batchSize) {
+        this.historyManager = historyManager;
+        this.pendingViews = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.recorder = new Thread(this::recordViews, "history-recorder");
+        recorder.setDaemon(true);
+        recorder.start();
+    }
+
+    public void setBatchListener(Runnable batchListener) {
+        this.batchListener = batchListener;
+    }
+
+    @Override
+    public void add(Task task) {
+        if (task == null) {
+            return;
+        }
+        if (pendingViews.offer(task)) {
+            LockSupport.unpark(recorder);
+            return;
+        }
+        synchronized (this) {
+            recordPendingViews(Integer.MAX_VALUE);
+            historyManager.add(task);
+        }
+    }
+
+    @Override
+    public synchronized void remove(int id) {
+        recordPendingViews(Integer.MAX_VALUE);
+        historyManager.remove(id);
+    }
+
+    @Override
+    public synchronized List<Task> getHistory() {
+        recordPendingViews(Integer.MAX_VALUE);
+        return historyManager.getHistory();
+    }
+
+    /**
+     * Stops the recorder thread and applies the views it left in the queue.
+     */
+    @Override
+    public void close() {
+        recorder.interrupt();
+        try {
+            recorder.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            recordPendingViews(Integer.MAX_VALUE);
+        }
+    }
+
+    private void recordViews() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (pendingViews.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            synchronized (this) {
+                recordPendingViews(batchSize);
+            }
+            Runnable listener = batchListener;
+            if (listener != null) {
+                try {
+                    listener.run();
+                } catch (RuntimeException ex) {
+                    System.err.println("History batch listener failed: " + ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private void recordPendingViews(int maxCount) {
+        Task task;
+        for (int i = 0; i < maxCount && (task = pendingViews.poll()) != null; i++) {
+            historyManager.add(task);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package service;
+
+import model.Task;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Records task views on a daemon thread in batches. A full queue applies the view on the calling thread,
+ * and every other call first applies the pending views.
+ */
+public class AsyncViewRecorder implements AutoCloseable {
+
+    private static class View {
+        final Task task;
+        final String userId;
+
+        View(Task task, String userId) {
+            this.task = task;
+            this.userId = userId;
+        }
+    }
+
+    private final HistoryManager historyManager;
+    private final HotTaskTracker hotTaskTracker;
+    private final UserHistoryStore userHistoryStore;
+    private final Queue<View> pendingViews = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingViewsCount = new AtomicInteger();
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Thread recorder;
+
+    public AsyncViewRecorder(HistoryManager historyManager, HotTaskTracker hotTaskTracker,
+                             UserHistoryStore userHistoryStore, int queueCapacity, int batchSize) {
+        this.historyManager = historyManager;
+        this.hotTaskTracker = hotTaskTracker;
+        this.userHistoryStore = userHistoryStore;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.recorder = new Thread(this::recordViews, "view-recorder");
+        recorder.setDaemon(true);
+        recorder.start();
+    }
+
+    public void record(Task task, String userId) {
+        if (pendingViewsCount.incrementAndGet() <= queueCapacity) {
+            pendingViews.add(new View(task, userId));
+            LockSupport.unpark(recorder);
+            return;
+        }
+        pendingViewsCount.decrementAndGet();
+        synchronized (this) {
+            flush();
+            apply(new View(task, userId));
+        }
+    }
+
+    public synchronized void flush() {
+        applyPendingViews(pendingViewsCount.get());
+    }
+
+    public synchronized List<Task> getHistory() {
+        flush();
+        return historyManager.getHistory();
+    }
+
+    public synchronized void remove(int taskId) {
+        flush();
+        historyManager.remove(taskId);
+        hotTaskTracker.remove(taskId);
+    }
+
+    /**
+     * Stops the recorder thread and applies the views it left in the queue.
+     */
+    @Override
+    public void close() {
+        recorder.interrupt();
+        try {
+            recorder.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private void recordViews() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (pendingViews.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+
+            synchronized (this) {
+                applyPendingViews(batchSize);
+            }
+        }
+    }
+
+    private void applyPendingViews(int maxCount) {
+        View view;
+        for (int i = 0; i < maxCount && (view = pendingViews.poll()) != null; i++) {
+            pendingViewsCount.decrementAndGet();
+            apply(view);
+        }
+    }
+
+    private void apply(View view) {
+        historyManager.add(view.task);
+        hotTaskTracker.recordView(view.task.getId());
+        if (view.userId != null) {
+            userHistoryStore.add(view.userId, view.task.getId());
+        }
+    }
+}
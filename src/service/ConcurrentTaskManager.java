@@ -0,0 +1,69 @@
+package service;
+
+import model.Task;
+import model.TaskViewCount;
+import repository.TaskRepository;
+
+import java.util.List;
+
+import static constant.Constants.HISTORY_RECORDING_BATCH_SIZE;
+import static constant.Constants.HISTORY_RECORDING_QUEUE_CAPACITY;
+
+/**
+ * Task manager for concurrent callers over a thread-safe repository. Reads by id hand their views to an
+ * {@link AsyncViewRecorder}, so the history and the view statistics never serialize the readers.
+ */
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+
+    private final AsyncViewRecorder viewRecorder;
+
+    public ConcurrentTaskManager(TaskRepository allTasksRepository, HistoryManager historyManager) {
+        super(allTasksRepository, historyManager);
+        this.viewRecorder = new AsyncViewRecorder(historyManager, hotTaskTracker, userHistoryStore,
+                HISTORY_RECORDING_QUEUE_CAPACITY, HISTORY_RECORDING_BATCH_SIZE);
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return getTaskById(id, null);
+    }
+
+    @Override
+    public Task getTaskById(int id, String userId) {
+        Task task = allTasksRepository.getTaskById(id);
+        if (task != null) {
+            viewRecorder.record(task, userId);
+        }
+        return task;
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return viewRecorder.getHistory();
+    }
+
+    @Override
+    public List<Task> getHistory(String userId) {
+        viewRecorder.flush();
+        return super.getHistory(userId);
+    }
+
+    @Override
+    public List<TaskViewCount> getHotTasks(int k) {
+        viewRecorder.flush();
+        return super.getHotTasks(k);
+    }
+
+    @Override
+    protected void removeTasksFromHistoryManager(List<Task> tasksList) {
+        for (Task task : tasksList) {
+            viewRecorder.remove(task.getId());
+        }
+    }
+
+    @Override
+    public void close() {
+        viewRecorder.close();
+        super.close();
+    }
+}
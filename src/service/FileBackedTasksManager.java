@@ -5,16 +5,21 @@ import exception.ManageFileNotWellFormedException;
 import exception.ManagerFileNotFoundException;
 import exception.ManagerLoadException;
 import exception.ManagerSaveException;
+import formatter.DependencyFormatter;
 import formatter.HistoryFormatter;
 import model.Epic;
 import model.Task;
 import model.TaskFactoryLoadFromCsvFile;
+import repository.AllTasksRepository;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
@@ -27,9 +32,25 @@ import static constant.Constants.TASK_FILE_PATH;
 public class FileBackedTasksManager extends InMemoryTaskManager {
 
     private final Path filePath;
+    private final boolean isHistoryRecordedAsync;
+    private volatile List<String> savedTaskLines;
+    private volatile String savedDependencyLine;
     private boolean isLoaded = false;
 
     public FileBackedTasksManager(Path filePath) throws IOException {
+        this(filePath, Managers.getDefaultHistory());
+    }
+
+    /**
+     * With an {@link AsyncHistoryManager} reads no longer rewrite the file: the recorder thread writes the
+     * history once per batch of views, next to the task lines of the last save.
+     */
+    public FileBackedTasksManager(Path filePath, HistoryManager historyManager) throws IOException {
+        super(new AllTasksRepository(), historyManager);
+        isHistoryRecordedAsync = historyManager instanceof AsyncHistoryManager;
+        if (isHistoryRecordedAsync) {
+            ((AsyncHistoryManager) historyManager).setBatchListener(this::saveHistory);
+        }
         if (filePath == null) {
             this.filePath = TASK_FILE_PATH;
         } else {
@@ -50,12 +71,37 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         return fileBackedTasksManager;
     }
 
+    /**
+     * Writes the task lines, then the history line and, if there are dependencies, a line of dependency
+     * edges after it.
+     */
     protected void save() {
+        List<String> taskLines = getAllTasks()
+                .stream()
+                .map(Task::toCsvString)
+                .collect(Collectors.toList());
+        String dependencyLine = DependencyFormatter.dependenciesToString(this);
+        synchronized (this) {
+            savedTaskLines = taskLines;
+            savedDependencyLine = dependencyLine;
+        }
+        saveHistory();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        if (isHistoryRecordedAsync) {
+            saveHistory();
+        }
+    }
+
+    private synchronized void saveHistory() {
+        List<String> taskLines = savedTaskLines;
+        if (taskLines == null) {
+            return;
+        }
         try {
-            List<String> taskLines = getAllTasks()
-                    .stream()
-                    .map(Task::toCsvString)
-                    .collect(Collectors.toList());
             String historyLine = HistoryFormatter.historyToString(historyManager);
 
             List<String> allLines = new ArrayList<>();
@@ -63,6 +109,9 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
             allLines.addAll(taskLines);
             allLines.add(HISTORY_SEPARATOR);
             allLines.add(historyLine);
+            if (!savedDependencyLine.isEmpty()) {
+                allLines.add(savedDependencyLine);
+            }
 
             saveToFile(allLines, filePath);
 
@@ -93,9 +142,7 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
                         .filter(Objects::nonNull)
                         .collect(Collectors.toList());
 
-                tasksFromFile.stream()
-                        .filter(task -> task instanceof Epic)
-                        .forEach(this::internalCreateTaskWithId);
+                AllTasksRepository.sortEpicsParentFirst(tasksFromFile).forEach(this::internalCreateTaskWithId);
 
                 tasksFromFile.stream()
                         .filter(task -> !(task instanceof Epic))
@@ -110,6 +157,14 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
 
                     internalAddToHistory(task);
                 });
+                String dependencyLine = "";
+                if (allLines.size() > historySeparatorIndex + 2) {
+                    dependencyLine = allLines.get(historySeparatorIndex + 2);
+                    internalAddDependencies(dependencyLine);
+                }
+                savedDependencyLine = dependencyLine;
+                savedTaskLines = new ArrayList<>(allLines.subList(TASK_DATA_START_INDEX_AFTER_HEADER,
+                        historySeparatorIndex));
             } else {
                 throw new ManagerFileNotFoundException("The file does not exist.");
             }
@@ -126,6 +181,12 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         }
     }
 
+    void internalAddDependencies(String dependencyLine) {
+        for (int[] dependency : DependencyFormatter.dependenciesFromString(dependencyLine)) {
+            allTasksRepository.addDependency(dependency[0], dependency[1]);
+        }
+    }
+
     private Task internalGetTaskById(int id) {
         return allTasksRepository.getTaskById(id);
     }
@@ -134,8 +195,14 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         historyManager.add(task);
     }
 
+    /**
+     * Writes a temporary file next to the target and moves it over the target, so a reader never sees a
+     * half-written file while the history recorder saves concurrently.
+     */
     private void saveToFile(List<String> lines, Path filePath) throws IOException {
-        Files.write(filePath, lines);
+        Path tempFilePath = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+        Files.write(tempFilePath, lines);
+        Files.move(tempFilePath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     private List<String> readFromFile(Path filePath) throws IOException {
@@ -146,7 +213,8 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         generatorTaskId = tasksFromFile.stream()
                 .map(Task::getId)
                 .max(Integer::compareTo)
-                .orElse(0);
+                .map(maxId -> Math.max(maxId, allTasksRepository.getMaxArchivedTaskId()))
+                .orElse(allTasksRepository.getMaxArchivedTaskId());
     }
 
     @Override
@@ -156,10 +224,19 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         return createdTask;
     }
 
+    @Override
+    public List<Task> createTasks(Collection<Task> tasks) {
+        List<Task> createdTasks = super.createTasks(tasks);
+        save();
+        return createdTasks;
+    }
+
     @Override
     public Task getTaskById(int id) {
         Task receivedTask = super.getTaskById(id);
-        save();
+        if (!isHistoryRecordedAsync) {
+            save();
+        }
         return receivedTask;
     }
 
@@ -169,6 +246,31 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         save();
     }
 
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        super.updateTask(task, expectedVersion);
+        save();
+    }
+
+    @Override
+    public void addDependency(int taskId, int blockedByTaskId) {
+        super.addDependency(taskId, blockedByTaskId);
+        save();
+    }
+
+    @Override
+    public void removeDependency(int taskId, int blockedByTaskId) {
+        super.removeDependency(taskId, blockedByTaskId);
+        save();
+    }
+
+    @Override
+    public int archiveDoneTasks(Duration minDoneAge) {
+        int archivedTasksCount = super.archiveDoneTasks(minDoneAge);
+        save();
+        return archivedTasksCount;
+    }
+
     @Override
     public List<Task> deleteTaskById(int id) {
         List<Task> deletedTasks = super.deleteTaskById(id);
@@ -4,11 +4,15 @@ import model.Task;
 
 import java.util.List;
 
-public interface HistoryManager {
+public interface HistoryManager extends AutoCloseable {
 
     void add(Task task);
 
     void remove(int id);
 
     List<Task> getHistory();
+
+    @Override
+    default void close() {
+    }
 }
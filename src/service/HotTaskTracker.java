@@ -0,0 +1,164 @@
+package service;
+
+import model.TaskViewCount;
+import repository.TaskIdIntMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * View-frequency statistics in constant memory: a count-min sketch of {@code depth} by {@code width}
+ * counters plus a min-heap of the {@code capacity} most viewed tasks.
+ */
+public class HotTaskTracker {
+
+    private static final int NOT_TRACKED = -1;
+
+    private long[][] sketch;
+    private final int[] sketchColumns;
+    private final int depth;
+    private final int widthMask;
+    private final int capacity;
+    private final int[] heapTaskIds;
+    private final long[] heapCounts;
+    private final TaskIdIntMap taskIdToHeapIndex;
+    private int heapSize;
+
+    public HotTaskTracker(int depth, int width, int capacity) {
+        if (depth <= 0 || width <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Sketch depth, width and capacity must be positive");
+        }
+        int roundedWidth = Integer.highestOneBit(Math.max(width, 2) - 1) << 1;
+        this.depth = depth;
+        this.sketchColumns = new int[depth];
+        this.widthMask = roundedWidth - 1;
+        this.capacity = capacity;
+        this.heapTaskIds = new int[capacity];
+        this.heapCounts = new long[capacity];
+        this.taskIdToHeapIndex = new TaskIdIntMap(2 * capacity + 2);
+    }
+
+    public synchronized void recordView(int taskId) {
+        long estimate = incrementSketch(taskId);
+
+        int heapIndex = taskIdToHeapIndex.get(taskId);
+        if (heapIndex != NOT_TRACKED) {
+            heapCounts[heapIndex] = estimate;
+            siftDown(heapIndex);
+        } else if (heapSize < capacity) {
+            heapTaskIds[heapSize] = taskId;
+            heapCounts[heapSize] = estimate;
+            taskIdToHeapIndex.put(taskId, heapSize);
+            siftUp(heapSize++);
+        } else if (estimate > heapCounts[0]) {
+            taskIdToHeapIndex.remove(heapTaskIds[0]);
+            heapTaskIds[0] = taskId;
+            heapCounts[0] = estimate;
+            taskIdToHeapIndex.put(taskId, 0);
+            siftDown(0);
+        }
+    }
+
+    public synchronized void remove(int taskId) {
+        int heapIndex = taskIdToHeapIndex.get(taskId);
+        if (heapIndex == NOT_TRACKED) {
+            return;
+        }
+
+        taskIdToHeapIndex.remove(taskId);
+        heapSize--;
+        if (heapIndex == heapSize) {
+            return;
+        }
+        heapTaskIds[heapIndex] = heapTaskIds[heapSize];
+        heapCounts[heapIndex] = heapCounts[heapSize];
+        taskIdToHeapIndex.put(heapTaskIds[heapIndex], heapIndex);
+        siftDown(heapIndex);
+        siftUp(heapIndex);
+    }
+
+    /**
+     * Returns up to {@code k} tracked tasks by descending estimated view count; at most {@code capacity}
+     * tasks are tracked.
+     */
+    public synchronized List<TaskViewCount> getHotTasks(int k) {
+        if (k <= 0) {
+            throw new IllegalArgumentException("The number of hot tasks must be positive: " + k);
+        }
+
+        List<TaskViewCount> hotTasks = new ArrayList<>(heapSize);
+        for (int i = 0; i < heapSize; i++) {
+            hotTasks.add(new TaskViewCount(heapTaskIds[i], heapCounts[i]));
+        }
+        hotTasks.sort(Comparator.comparingLong(TaskViewCount::getEstimatedViewCount).reversed()
+                .thenComparingInt(TaskViewCount::getTaskId));
+        return hotTasks.size() > k ? new ArrayList<>(hotTasks.subList(0, k)) : hotTasks;
+    }
+
+    private long incrementSketch(int taskId) {
+        if (sketch == null) {
+            sketch = new long[depth][widthMask + 1];
+        }
+        long minCount = Long.MAX_VALUE;
+        for (int row = 0; row < sketch.length; row++) {
+            sketchColumns[row] = hash(taskId, row) & widthMask;
+            minCount = Math.min(minCount, sketch[row][sketchColumns[row]]);
+        }
+        long estimate = minCount + 1;
+        for (int row = 0; row < sketch.length; row++) {
+            if (sketch[row][sketchColumns[row]] < estimate) {
+                sketch[row][sketchColumns[row]] = estimate;
+            }
+        }
+        return estimate;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heapCounts[parent] <= heapCounts[index]) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < heapSize && heapCounts[left] < heapCounts[smallest]) {
+                smallest = left;
+            }
+            if (right < heapSize && heapCounts[right] < heapCounts[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int taskId = heapTaskIds[first];
+        long count = heapCounts[first];
+        heapTaskIds[first] = heapTaskIds[second];
+        heapCounts[first] = heapCounts[second];
+        heapTaskIds[second] = taskId;
+        heapCounts[second] = count;
+        taskIdToHeapIndex.put(heapTaskIds[first], first);
+        taskIdToHeapIndex.put(heapTaskIds[second], second);
+    }
+
+    private static int hash(int taskId, int row) {
+        int hash = (taskId + row * 0x632BE5AB) * 0x9E3779B9;
+        hash ^= hash >>> 15;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+}
@@ -5,11 +5,13 @@ import com.google.gson.GsonBuilder;
 import exception.KVClientException;
 import exception.TaskLoadingException;
 import exception.TaskSavingException;
+import formatter.DependencyFormatter;
 import kvclient.KVTaskClient;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskTypeAdapter;
+import repository.AllTasksRepository;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
@@ -18,9 +20,11 @@ import java.util.Arrays;
 public class HttpTaskManager extends FileBackedTasksManager {
     private final KVTaskClient kvTaskClient;
     private static final String TASK_KEY = "tasks";
+    private static final String DEPENDENCY_KEY = "dependencies";
     private final Gson gson;
 
-    public HttpTaskManager(String serverUrl) throws IOException, URISyntaxException, InterruptedException, KVClientException {
+    public HttpTaskManager(String serverUrl)
+            throws IOException, URISyntaxException, InterruptedException, KVClientException {
         super(null);
         this.kvTaskClient = new KVTaskClient(serverUrl);
 
@@ -36,6 +40,7 @@ public class HttpTaskManager extends FileBackedTasksManager {
         String jsonData = gson.toJson(getAllTasks());
         try {
             kvTaskClient.put(TASK_KEY, jsonData);
+            kvTaskClient.put(DEPENDENCY_KEY, gson.toJson(DependencyFormatter.dependenciesToString(this)));
         } catch (KVClientException ex) {
             throw new TaskSavingException("Error saving tasks", ex);
         }
@@ -47,15 +52,14 @@ public class HttpTaskManager extends FileBackedTasksManager {
             String jsonData = kvTaskClient.load(TASK_KEY);
             Task[] tasks = gson.fromJson(jsonData, Task[].class);
 
-            Arrays.stream(tasks)
-                    .filter(task -> task instanceof Epic)
-                    .forEach(this::internalCreateTaskWithId);
+            AllTasksRepository.sortEpicsParentFirst(Arrays.asList(tasks)).forEach(this::internalCreateTaskWithId);
 
             Arrays.stream(tasks)
                     .filter(task -> !(task instanceof Epic))
                     .forEach(this::internalCreateTaskWithId);
 
             synchronizeTaskIdGenerator(Arrays.asList(tasks));
+            internalAddDependencies(gson.fromJson(kvTaskClient.load(DEPENDENCY_KEY), String.class));
         } catch (KVClientException ex) {
             throw new TaskLoadingException("Error loading tasks", ex);
         }
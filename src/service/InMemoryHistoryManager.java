@@ -7,6 +7,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Recently viewed tasks in view order, without duplicates. Once {@code capacity} tasks are in the history,
+ * viewing another one evicts the least recently viewed task, so both the memory and the cost of
+ * {@link #getHistory()} stay bounded on long-running servers.
+ */
 public class InMemoryHistoryManager implements HistoryManager {
 
     private class Node {
@@ -24,10 +29,19 @@ public class InMemoryHistoryManager implements HistoryManager {
     private Node first;
     private Node last;
     private int actualHistorySize = 0;
+    private final int capacity;
     Map<Integer, Node> taskIdToTaskNode;
 
 
     public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
         this.taskIdToTaskNode = new HashMap<>();
     }
 
@@ -38,6 +52,9 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
         removeNode(taskIdToTaskNode.get(task.getId()));
         linkLast(task);
+        if (actualHistorySize > capacity) {
+            removeNode(taskIdToTaskNode.remove(first.task.getId()));
+        }
     }
 
     @Override
@@ -99,14 +116,12 @@ public class InMemoryHistoryManager implements HistoryManager {
 
         if (prevNode == null) {
             first = nextNode;
-            if (nextNode != null) {
-                nextNode.prev = null;
-            }
-        } else if (nextNode == null) {
-            last = prevNode;
-            prevNode.next = null;
         } else {
             prevNode.next = nextNode;
+        }
+        if (nextNode == null) {
+            last = prevNode;
+        } else {
             nextNode.prev = prevNode;
         }
         actualHistorySize--;
@@ -1,21 +1,53 @@
 package service;
 
+import constant.Status;
+import constant.TaskType;
 import exception.DuplicateTaskIdException;
+import exception.MissingEpicException;
 import model.Epic;
+import model.Subtask;
 import model.Task;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TaskViewCount;
+import model.TimeSlot;
 import repository.AllTasksRepository;
+import repository.TaskEventBus;
+import repository.TaskRepository;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class InMemoryTaskManager implements TaskManager {
 
-    protected AllTasksRepository allTasksRepository;
-    protected HistoryManager historyManager = Managers.getDefaultHistory();
-    protected static int generatorTaskId = 0;
+    protected TaskRepository allTasksRepository;
+    protected HistoryManager historyManager;
+    protected UserHistoryStore userHistoryStore;
+    protected HotTaskTracker hotTaskTracker;
+    protected int generatorTaskId = 0;
 
     public InMemoryTaskManager() {
-        this.allTasksRepository = new AllTasksRepository();
-        generatorTaskId = 0;
+        this(new AllTasksRepository(), Managers.getDefaultHistory());
+    }
+
+    public InMemoryTaskManager(TaskRepository allTasksRepository, HistoryManager historyManager) {
+        this(allTasksRepository, historyManager, Managers.getDefaultUserHistoryStore());
+    }
+
+    public InMemoryTaskManager(TaskRepository allTasksRepository, HistoryManager historyManager,
+                               UserHistoryStore userHistoryStore) {
+        this.allTasksRepository = allTasksRepository;
+        this.historyManager = historyManager;
+        this.userHistoryStore = userHistoryStore;
+        this.hotTaskTracker = Managers.getDefaultHotTaskTracker();
+        this.generatorTaskId = allTasksRepository.getMaxArchivedTaskId();
     }
 
     @Override
@@ -30,11 +62,64 @@ public class InMemoryTaskManager implements TaskManager {
         return task;
     }
 
+    /**
+     * Creates the tasks with one block of ids. Inside the batch an epic is referenced by a negative
+     * placeholder id: a subtask or child epic pointing to a negative id is linked to the batch epic with
+     * that id, a positive id always refers to an existing epic. A rejected batch adds no task, takes no ids
+     * and leaves the ids and epic links of the given tasks as they were.
+     */
+    @Override
+    public List<Task> createTasks(Collection<Task> tasks) {
+        List<Task> batch = new ArrayList<>(tasks);
+        Map<Integer, Integer> placeholderIdToIndex = new HashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            Task task = batch.get(i);
+            if (task instanceof Epic && task.getId() < 0 && placeholderIdToIndex.put(task.getId(), i) != null) {
+                throw new IllegalArgumentException(String.format(
+                        "Placeholder id %d is shared by several epics of the batch", task.getId()));
+            }
+        }
+        int[] originalIds = new int[batch.size()];
+        int[] originalEpicIds = new int[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            originalIds[i] = batch.get(i).getId();
+            originalEpicIds[i] = getBatchEpicId(batch.get(i));
+            if (originalEpicIds[i] < 0 && !placeholderIdToIndex.containsKey(originalEpicIds[i])) {
+                throw new MissingEpicException(String.format(
+                        "Epic with placeholder id %d is not in the batch", originalEpicIds[i]));
+            }
+        }
+
+        int firstId = generateTaskIdBlock(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).setId(firstId + i);
+            if (originalEpicIds[i] < 0) {
+                setBatchEpicId(batch.get(i), firstId + placeholderIdToIndex.get(originalEpicIds[i]));
+            }
+        }
+        try {
+            allTasksRepository.addTasks(batch);
+        } catch (RuntimeException ex) {
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).setId(originalIds[i]);
+                setBatchEpicId(batch.get(i), originalEpicIds[i]);
+            }
+            releaseTaskIdBlock(firstId, batch.size());
+            throw ex;
+        }
+        return batch;
+    }
+
     @Override
     public void updateTask(Task task) {
         allTasksRepository.updateTask(task);
     }
 
+    @Override
+    public void updateTask(Task task, int expectedVersion) {
+        allTasksRepository.updateTask(task, expectedVersion);
+    }
+
     @Override
     public List<Task> getAllTasks() {
         return allTasksRepository.getAllTasks();
@@ -47,9 +132,27 @@ public class InMemoryTaskManager implements TaskManager {
             return null;
         }
         historyManager.add(task);
+        hotTaskTracker.recordView(id);
         return task;
     }
 
+    @Override
+    public Task getTaskById(int id, String userId) {
+        Task task = getTaskById(id);
+        if (task != null && userId != null) {
+            userHistoryStore.add(userId, id);
+        }
+        return task;
+    }
+
+    /**
+     * Returns the task without recording a view, so neither the history nor the view statistics change.
+     */
+    @Override
+    public Task peekTaskById(int id) {
+        return allTasksRepository.peekTaskById(id);
+    }
+
     @Override
     public List<Task> getAllTaskType() {
         return allTasksRepository.getAllTaskType();
@@ -65,6 +168,71 @@ public class InMemoryTaskManager implements TaskManager {
         return allTasksRepository.getAllEpicType();
     }
 
+    @Override
+    public List<Task> getTasksByStatus(Status status) {
+        return allTasksRepository.getTasksByStatus(status);
+    }
+
+    @Override
+    public List<Task> getTasksByStatus(Status status, TaskType taskType) {
+        return allTasksRepository.getTasksByStatus(status, taskType);
+    }
+
+    @Override
+    public List<Integer> search(String query, int limit) {
+        return allTasksRepository.search(query, limit);
+    }
+
+    @Override
+    public List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count) {
+        return allTasksRepository.findFreeSlots(after, durationInMinutes, count);
+    }
+
+    @Override
+    public List<Task> getTasksForDay(LocalDate day) {
+        return allTasksRepository.getTasksForDay(day);
+    }
+
+    @Override
+    public List<Task> getTasksForWeek(LocalDate day) {
+        return allTasksRepository.getTasksForWeek(day);
+    }
+
+    @Override
+    public void addDependency(int taskId, int blockedByTaskId) {
+        allTasksRepository.addDependency(taskId, blockedByTaskId);
+    }
+
+    @Override
+    public void removeDependency(int taskId, int blockedByTaskId) {
+        allTasksRepository.removeDependency(taskId, blockedByTaskId);
+    }
+
+    @Override
+    public List<Integer> getDependencies(int taskId) {
+        return allTasksRepository.getDependencies(taskId);
+    }
+
+    @Override
+    public TaskSchedule getTaskSchedule(int taskId) {
+        return allTasksRepository.getTaskSchedule(taskId);
+    }
+
+    @Override
+    public List<Task> getCriticalPath() {
+        return allTasksRepository.getCriticalPath();
+    }
+
+    @Override
+    public int archiveDoneTasks(Duration minDoneAge) {
+        return allTasksRepository.archiveDoneTasks(minDoneAge);
+    }
+
+    @Override
+    public TaskTierStats getTaskTierStats() {
+        return allTasksRepository.getTaskTierStats();
+    }
+
     @Override
     public List<Task> getAllEpicSubtasks(Epic epic) {
         return allTasksRepository.getAllEpicSubtasks(epic);
@@ -75,11 +243,21 @@ public class InMemoryTaskManager implements TaskManager {
         return allTasksRepository.getAllEpicSubtasks(id);
     }
 
+    @Override
+    public List<Task> getChildEpics(int id) {
+        return allTasksRepository.getChildEpics(id);
+    }
+
     @Override
     public List<Task> getPrioritizedTasks() {
         return allTasksRepository.getPrioritizedTasks();
     }
 
+    @Override
+    public TaskPage getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit, String cursor) {
+        return allTasksRepository.getPrioritizedTasks(from, to, limit, cursor);
+    }
+
     @Override
     public List<Task> deleteTaskById(int id) {
         List<Task> deletedTasks = allTasksRepository.deleteTaskById(id);
@@ -120,6 +298,43 @@ public class InMemoryTaskManager implements TaskManager {
         return historyManager.getHistory();
     }
 
+    @Override
+    public List<Task> getHistory(String userId) {
+        List<Task> history = new ArrayList<>();
+        for (int taskId : userHistoryStore.getTaskIds(userId)) {
+            Task task = allTasksRepository.peekTaskById(taskId);
+            if (task != null) {
+                history.add(task);
+            }
+        }
+        return history;
+    }
+
+    @Override
+    public List<TaskViewCount> getHotTasks(int k) {
+        return hotTaskTracker.getHotTasks(k);
+    }
+
+    @Override
+    public TaskEventBus getTaskEventBus() {
+        return allTasksRepository.getTaskEventBus();
+    }
+
+    @Override
+    public synchronized int getLastTaskId() {
+        return generatorTaskId;
+    }
+
+    @Override
+    public synchronized void reserveTaskIds(int lastTaskId) {
+        generatorTaskId = Math.max(generatorTaskId, lastTaskId);
+    }
+
+    @Override
+    public void close() {
+        historyManager.close();
+    }
+
 
     @Override
     public void printTaskList(List<Task> taskList) {
@@ -134,14 +349,45 @@ public class InMemoryTaskManager implements TaskManager {
         }
     }
 
-    private int generateTaskId() {
+    private synchronized int generateTaskId() {
         generatorTaskId++;
         return generatorTaskId;
     }
 
-    private void removeTasksFromHistoryManager(List<Task> tasksList) {
+    private synchronized int generateTaskIdBlock(int count) {
+        int firstId = generatorTaskId + 1;
+        generatorTaskId += count;
+        return firstId;
+    }
+
+    private synchronized void releaseTaskIdBlock(int firstId, int count) {
+        if (generatorTaskId == firstId + count - 1) {
+            generatorTaskId = firstId - 1;
+        }
+    }
+
+    private static int getBatchEpicId(Task task) {
+        if (task instanceof Subtask) {
+            return ((Subtask) task).getEpicId();
+        }
+        if (task instanceof Epic) {
+            return ((Epic) task).getParentEpicId();
+        }
+        return 0;
+    }
+
+    private static void setBatchEpicId(Task task, int epicId) {
+        if (task instanceof Subtask) {
+            ((Subtask) task).setEpicId(epicId);
+        } else if (task instanceof Epic) {
+            ((Epic) task).setParentEpicId(epicId);
+        }
+    }
+
+    protected void removeTasksFromHistoryManager(List<Task> tasksList) {
         for (Task task : tasksList) {
             historyManager.remove(task.getId());
+            hotTaskTracker.remove(task.getId());
         }
     }
 }
\ No newline at end of file
@@ -1,8 +1,26 @@
 package service;
 
+import repository.AllTasksRepository;
+import repository.ColumnarTaskStore;
+import repository.ConcurrentAllTasksRepository;
+import repository.HeapTaskStore;
+import repository.OffHeapTaskStore;
+import repository.TaskArchive;
+
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
 
+import static constant.Constants.DEFAULT_HISTORY_CAPACITY;
+import static constant.Constants.DEFAULT_USER_HISTORY_CAPACITY;
+import static constant.Constants.DEFAULT_USER_HISTORY_IDLE_TIMEOUT_IN_MINUTES;
+import static constant.Constants.HISTORY_RECORDING_BATCH_SIZE;
+import static constant.Constants.HISTORY_RECORDING_QUEUE_CAPACITY;
+import static constant.Constants.HOT_TASKS_CAPACITY;
+import static constant.Constants.HOT_TASKS_SKETCH_DEPTH;
+import static constant.Constants.HOT_TASKS_SKETCH_WIDTH;
 import static constant.Constants.KV_SERVER_URL;
 
 public class Managers {
@@ -15,7 +33,46 @@ public class Managers {
         }
     }
 
+    public static TaskManager getConcurrentTaskManager() {
+        return new ConcurrentTaskManager(new ConcurrentAllTasksRepository(), getDefaultHistory());
+    }
+
+    public static TaskManager getColumnarTaskManager() {
+        return new InMemoryTaskManager(new AllTasksRepository(new ColumnarTaskStore()), getDefaultHistory());
+    }
+
+    public static TaskManager getOffHeapTaskManager() {
+        return new InMemoryTaskManager(new AllTasksRepository(new OffHeapTaskStore()), getDefaultHistory());
+    }
+
+    public static TaskManager getArchivingTaskManager(Path archivePath) {
+        return new InMemoryTaskManager(new AllTasksRepository(new HeapTaskStore(), new TaskArchive(archivePath),
+                Clock.systemDefaultZone()), getDefaultHistory());
+    }
+
+    public static TaskManager getAsyncHistoryFileBackedTaskManager(Path filePath) throws IOException {
+        return new FileBackedTasksManager(filePath, getAsyncHistory());
+    }
+
     public static HistoryManager getDefaultHistory() {
-        return new InMemoryHistoryManager();
+        return getDefaultHistory(DEFAULT_HISTORY_CAPACITY);
+    }
+
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new ArrayHistoryManager(capacity);
+    }
+
+    public static HistoryManager getAsyncHistory() {
+        return new AsyncHistoryManager(getDefaultHistory(), HISTORY_RECORDING_QUEUE_CAPACITY,
+                HISTORY_RECORDING_BATCH_SIZE);
+    }
+
+    public static HotTaskTracker getDefaultHotTaskTracker() {
+        return new HotTaskTracker(HOT_TASKS_SKETCH_DEPTH, HOT_TASKS_SKETCH_WIDTH, HOT_TASKS_CAPACITY);
+    }
+
+    public static UserHistoryStore getDefaultUserHistoryStore() {
+        return new UserHistoryStore(DEFAULT_USER_HISTORY_CAPACITY,
+                Duration.ofMinutes(DEFAULT_USER_HISTORY_IDLE_TIMEOUT_IN_MINUTES), Clock.systemUTC());
     }
 }
@@ -0,0 +1,232 @@
+package service;
+
+import exception.BoardLimitExceededException;
+import model.TaskTierStats;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static constant.Constants.MAX_TASK_BOARDS;
+import static constant.Constants.TASK_BOARD_IDLE_TIMEOUT_IN_MINUTES;
+
+/**
+ * Registry of independent boards, each with its own task manager and pinned by id to a single-threaded shard.
+ * Empty boards without subscribers are evicted once idle for {@code idleTimeout}, keeping their last id so a
+ * recreated board never reuses ids. At most {@code maxBoards} boards exist at a time.
+ */
+public class TaskBoards {
+
+    public static final String DEFAULT_BOARD_ID = "default";
+
+    private final Supplier<TaskManager> taskManagerFactory;
+    private final ExecutorService[] shards;
+    private final long[] shardLastSweepNanos;
+    private final int maxBoards;
+    private final long idleTimeoutNanos;
+    private final Map<String, Board> boardIdToBoard = new ConcurrentHashMap<>();
+    private final Map<String, Integer> boardIdToLastTaskId = new ConcurrentHashMap<>();
+    private final AtomicInteger boardsCount = new AtomicInteger();
+
+    public TaskBoards() {
+        this(InMemoryTaskManager::new, Runtime.getRuntime().availableProcessors(), MAX_TASK_BOARDS);
+    }
+
+    public TaskBoards(Supplier<TaskManager> taskManagerFactory, int shardsCount) {
+        this(taskManagerFactory, shardsCount, MAX_TASK_BOARDS);
+    }
+
+    public TaskBoards(Supplier<TaskManager> taskManagerFactory, int shardsCount, int maxBoards) {
+        this(taskManagerFactory, shardsCount, maxBoards, Duration.ofMinutes(TASK_BOARD_IDLE_TIMEOUT_IN_MINUTES));
+    }
+
+    public TaskBoards(Supplier<TaskManager> taskManagerFactory, int shardsCount, int maxBoards,
+                      Duration idleTimeout) {
+        if (shardsCount <= 0 || maxBoards <= 0) {
+            throw new IllegalArgumentException("Shards count and boards limit must be positive");
+        }
+        if (idleTimeout.isNegative()) {
+            throw new IllegalArgumentException("Idle timeout must not be negative");
+        }
+        this.taskManagerFactory = taskManagerFactory;
+        this.maxBoards = maxBoards;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.shards = new ExecutorService[shardsCount];
+        this.shardLastSweepNanos = new long[shardsCount];
+        long now = System.nanoTime();
+        for (int i = 0; i < shardsCount; i++) {
+            int shardIndex = i;
+            shards[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "task-board-shard-" + shardIndex);
+                thread.setDaemon(true);
+                return thread;
+            });
+            shardLastSweepNanos[i] = now;
+        }
+    }
+
+    /**
+     * Runs the action on the shard of the board. If the board does not exist and cannot be created,
+     * {@code onRejected} is called on the shard thread instead.
+     */
+    public void submit(String boardId, Consumer<TaskManager> action,
+                       Consumer<BoardLimitExceededException> onRejected) {
+        getShard(boardId).execute(() -> {
+            Board board;
+            try {
+                board = getBoard(boardId);
+            } catch (BoardLimitExceededException ex) {
+                onRejected.accept(ex);
+                return;
+            }
+            try {
+                action.accept(board.taskManager);
+            } finally {
+                release(boardId, board);
+            }
+        });
+    }
+
+    public <T> T execute(String boardId, Function<TaskManager, T> action) {
+        Future<T> result = getShard(boardId).submit(() -> {
+            Board board = getBoard(boardId);
+            try {
+                return action.apply(board.taskManager);
+            } finally {
+                release(boardId, board);
+            }
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Board " + boardId + " failed to execute the request", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for board " + boardId, ex);
+        }
+    }
+
+    public Set<String> getBoardIds() {
+        return Set.copyOf(boardIdToBoard.keySet());
+    }
+
+    public int getShardsCount() {
+        return shards.length;
+    }
+
+    /**
+     * Closes the task managers of all boards on their shards and stops the shards.
+     */
+    public void shutdown() {
+        for (int i = 0; i < shards.length; i++) {
+            int shardIndex = i;
+            shards[shardIndex].execute(() -> boardIdToBoard.forEach((boardId, board) -> {
+                if (getShardIndex(boardId) == shardIndex) {
+                    remove(boardId, board);
+                }
+            }));
+            shards[shardIndex].shutdown();
+        }
+    }
+
+    private Board getBoard(String boardId) {
+        Board board = boardIdToBoard.get(boardId);
+        if (board != null) {
+            return board;
+        }
+        if (boardsCount.incrementAndGet() > maxBoards) {
+            boardsCount.decrementAndGet();
+            int shardIndex = getShardIndex(boardId);
+            sweepIdleBoards(shardIndex, System.nanoTime());
+            if (boardsCount.incrementAndGet() > maxBoards) {
+                boardsCount.decrementAndGet();
+                for (int i = 0; i < shards.length; i++) {
+                    int otherShardIndex = i;
+                    if (otherShardIndex != shardIndex) {
+                        shards[otherShardIndex].execute(() -> sweepIdleBoards(otherShardIndex, System.nanoTime()));
+                    }
+                }
+                throw new BoardLimitExceededException(String.format("Board limit of %d is reached", maxBoards));
+            }
+        }
+        TaskManager taskManager = taskManagerFactory.get();
+        taskManager.reserveTaskIds(boardIdToLastTaskId.getOrDefault(boardId, 0));
+        board = new Board(taskManager);
+        boardIdToBoard.put(boardId, board);
+        return board;
+    }
+
+    private void release(String boardId, Board board) {
+        long now = System.nanoTime();
+        board.lastUsedNanos = now;
+        if (isIdle(board.taskManager)
+                && board.taskManager.getLastTaskId() == boardIdToLastTaskId.getOrDefault(boardId, 0)) {
+            remove(boardId, board);
+        }
+        int shardIndex = getShardIndex(boardId);
+        if (now - shardLastSweepNanos[shardIndex] >= idleTimeoutNanos) {
+            sweepIdleBoards(shardIndex, now);
+        }
+    }
+
+    private void sweepIdleBoards(int shardIndex, long now) {
+        shardLastSweepNanos[shardIndex] = now;
+        Iterator<Map.Entry<String, Board>> iterator = boardIdToBoard.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Board> entry = iterator.next();
+            Board board = entry.getValue();
+            if (getShardIndex(entry.getKey()) == shardIndex && now - board.lastUsedNanos >= idleTimeoutNanos
+                    && isIdle(board.taskManager)) {
+                remove(entry.getKey(), board);
+            }
+        }
+    }
+
+    private boolean isIdle(TaskManager taskManager) {
+        TaskTierStats taskTierStats = taskManager.getTaskTierStats();
+        return taskTierStats.getHotTasksCount() == 0 && taskTierStats.getColdTasksCount() == 0
+                && !taskManager.getTaskEventBus().hasSubscribers();
+    }
+
+    private void remove(String boardId, Board board) {
+        if (boardIdToBoard.remove(boardId, board)) {
+            int lastTaskId = board.taskManager.getLastTaskId();
+            if (lastTaskId > 0) {
+                boardIdToLastTaskId.put(boardId, lastTaskId);
+            }
+            boardsCount.decrementAndGet();
+            board.taskManager.close();
+        }
+    }
+
+    private ExecutorService getShard(String boardId) {
+        return shards[getShardIndex(boardId)];
+    }
+
+    private int getShardIndex(String boardId) {
+        return Math.floorMod(boardId.hashCode(), shards.length);
+    }
+
+    private static class Board {
+
+        private final TaskManager taskManager;
+        private long lastUsedNanos;
+
+        private Board(TaskManager taskManager) {
+            this.taskManager = taskManager;
+        }
+    }
+}
@@ -1,30 +1,78 @@
 package service;
 
+import constant.Status;
+import constant.TaskType;
 import model.Epic;
 import model.Task;
-
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TaskViewCount;
+import model.TimeSlot;
+import repository.TaskEventBus;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
-public interface TaskManager {
+public interface TaskManager extends AutoCloseable {
 
     Task createTask(Task task);
 
+    List<Task> createTasks(Collection<Task> tasks);
+
     void updateTask(Task task);
 
+    void updateTask(Task task, int expectedVersion);
+
     List<Task> getAllTasks();
 
     Task getTaskById(int id);
 
+    Task getTaskById(int id, String userId);
+
+    Task peekTaskById(int id);
+
     List<Task> getAllTaskType();
 
     List<Task> getAllSubtaskType();
 
     List<Task> getAllEpicType();
 
+    List<Task> getTasksByStatus(Status status);
+
+    List<Task> getTasksByStatus(Status status, TaskType taskType);
+
+    List<Integer> search(String query, int limit);
+
+    List<TimeSlot> findFreeSlots(LocalDateTime after, int durationInMinutes, int count);
+
+    List<Task> getTasksForDay(LocalDate day);
+
+    List<Task> getTasksForWeek(LocalDate day);
+
     List<Task> getAllEpicSubtasks(Epic epic);
 
     List<Task> getAllEpicSubtasks(int id);
 
+    List<Task> getChildEpics(int id);
+
+    void addDependency(int taskId, int blockedByTaskId);
+
+    void removeDependency(int taskId, int blockedByTaskId);
+
+    List<Integer> getDependencies(int taskId);
+
+    TaskSchedule getTaskSchedule(int taskId);
+
+    List<Task> getCriticalPath();
+
+    int archiveDoneTasks(Duration minDoneAge);
+
+    TaskTierStats getTaskTierStats();
+
     List<Task> deleteTaskById(int id);
 
     List<Task> deleteAllTaskType();
@@ -37,8 +85,23 @@ public interface TaskManager {
 
     List<Task> getHistory();
 
+    List<Task> getHistory(String userId);
+
+    List<TaskViewCount> getHotTasks(int k);
+
+    TaskEventBus getTaskEventBus();
+
+    int getLastTaskId();
+
+    void reserveTaskIds(int lastTaskId);
+
+    @Override
+    void close();
+
     void printTaskList(List<Task> taskList);
 
     List<Task> getPrioritizedTasks();
+
+    TaskPage getPrioritizedTasks(LocalDateTime from, LocalDateTime to, int limit, String cursor);
 }
 
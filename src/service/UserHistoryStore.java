@@ -0,0 +1,91 @@
+package service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Recently viewed task ids of every user, up to {@code historyCapacity} ids each. Histories idle for
+ * {@code idleTimeout} are dropped; ids of deleted tasks are skipped on read.
+ */
+public class UserHistoryStore {
+
+    private static final int INITIAL_HISTORY_CAPACITY = 4;
+
+    private static class UserHistory {
+        int[] taskIds = new int[INITIAL_HISTORY_CAPACITY];
+        int size;
+        long lastAccessMillis;
+    }
+
+    private final int historyCapacity;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+    private final LinkedHashMap<String, UserHistory> userIdToHistory = new LinkedHashMap<>(16, 0.75f, true);
+
+    public UserHistoryStore(int historyCapacity, Duration idleTimeout, Clock clock) {
+        if (historyCapacity <= 0) {
+            throw new IllegalArgumentException("History capacity must be positive: " + historyCapacity);
+        }
+        this.historyCapacity = historyCapacity;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+    }
+
+    public synchronized void add(String userId, int taskId) {
+        long now = clock.millis();
+        evictIdleHistories(now);
+        UserHistory history = userIdToHistory.computeIfAbsent(userId, key -> new UserHistory());
+        history.lastAccessMillis = now;
+
+        int index = indexOf(history, taskId);
+        if (index >= 0) {
+            System.arraycopy(history.taskIds, index + 1, history.taskIds, index, history.size - index - 1);
+            history.size--;
+        } else if (history.size == historyCapacity) {
+            System.arraycopy(history.taskIds, 1, history.taskIds, 0, history.size - 1);
+            history.size--;
+        } else if (history.size == history.taskIds.length) {
+            history.taskIds = Arrays.copyOf(history.taskIds, Math.min(history.size * 2, historyCapacity));
+        }
+        history.taskIds[history.size++] = taskId;
+    }
+
+    public synchronized int[] getTaskIds(String userId) {
+        long now = clock.millis();
+        evictIdleHistories(now);
+        UserHistory history = userIdToHistory.get(userId);
+        if (history == null) {
+            return new int[0];
+        }
+        history.lastAccessMillis = now;
+        return Arrays.copyOf(history.taskIds, history.size);
+    }
+
+    public synchronized int size() {
+        evictIdleHistories(clock.millis());
+        return userIdToHistory.size();
+    }
+
+    private void evictIdleHistories(long now) {
+        Iterator<Map.Entry<String, UserHistory>> iterator = userIdToHistory.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue().lastAccessMillis < idleTimeoutMillis) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    private static int indexOf(UserHistory history, int taskId) {
+        for (int i = 0; i < history.size; i++) {
+            if (history.taskIds[i] == taskId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,20 +1,37 @@
 package repository;
 
 import constant.Status;
+import constant.TaskChangeType;
+import constant.TaskType;
+import exception.DuplicateTaskIdException;
 import exception.TimeOverlapException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskChangeEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static constant.Constants.DEFAULT_NULL_TASK_END_TIME;
 import static constant.Constants.DEFAULT_TASK_DURATION_IN_MINUTES;
 import static constant.Constants.DEFAULT_TASK_START_TIME;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
@@ -151,8 +168,10 @@ class AllTasksRepositoryTest {
         int subtask1Duration = 60;
         LocalDateTime subtask2StartDate = LocalDateTime.of(2023, 1, 1, 12, 0);
         int subtask2Duration = 80;
-        Subtask subtask1 = new Subtask(2, "Subtask 1", "Description 1", Status.NEW, 1, subtask1StartDate, subtask1Duration);
-        Subtask subtask2 = new Subtask(3, "Subtask 2", "Description 2", Status.DONE, 1, subtask2StartDate, subtask2Duration);
+        Subtask subtask1 = new Subtask(2, "Subtask 1", "Description 1", Status.NEW, 1, subtask1StartDate,
+                subtask1Duration);
+        Subtask subtask2 = new Subtask(3, "Subtask 2", "Description 2", Status.DONE, 1, subtask2StartDate,
+                subtask2Duration);
 
         allTasksRepository.addTask(epic);
         allTasksRepository.addTask(subtask1);
@@ -174,7 +193,8 @@ class AllTasksRepositoryTest {
 
         LocalDateTime subtask1StartDate = LocalDateTime.of(2023, 1, 1, 8, 0);
         int subtask1Duration = 60;
-        Subtask subtask1 = new Subtask(2, "Subtask 1", "Description 1", Status.NEW, 1, subtask1StartDate, subtask1Duration);
+        Subtask subtask1 = new Subtask(2, "Subtask 1", "Description 1", Status.NEW, 1, subtask1StartDate,
+                subtask1Duration);
 
         allTasksRepository.addTask(epic);
         allTasksRepository.addTask(subtask1);
@@ -185,7 +205,8 @@ class AllTasksRepositoryTest {
 
         LocalDateTime updatedSubtask1StartDate = LocalDateTime.of(2023, 1, 5, 12, 0);
         int updatedSubtask1Duration = 75;
-        Subtask updatedSubtask1 = new Subtask(2, "Updated Subtask 1", "Updated Description 1", Status.NEW, 1, updatedSubtask1StartDate, updatedSubtask1Duration);
+        Subtask updatedSubtask1 = new Subtask(2, "Updated Subtask 1", "Updated Description 1", Status.NEW, 1,
+                updatedSubtask1StartDate, updatedSubtask1Duration);
         allTasksRepository.updateTask(updatedSubtask1);
         allTasksRepository.calculateAndSetNewEpicTimeProperties(epic);
 
@@ -249,4 +270,390 @@ class AllTasksRepositoryTest {
         allTasksRepository.addTask(task1);
         allTasksRepository.checkForTimeOverlap(task2);
     }
+
+    /**
+     * Overlapping. Moved task does not block its old time slot.
+     */
+    @Test
+    void testNoTimeOverlapWithOldSlotAfterUpdate() throws TimeOverlapException {
+        LocalDateTime task1StartDate = LocalDateTime.of(2023, 9, 20, 9, 0);
+        LocalDateTime task1UpdatedStartDate = LocalDateTime.of(2023, 9, 20, 14, 0);
+        int taskDuration = 60;
+
+        Task task1 = new Task(1, "Task1", "Task1 description", Status.NEW, task1StartDate, taskDuration);
+        Task updatedTask1 = new Task(1, "Task1", "Task1 description", Status.NEW, task1UpdatedStartDate, taskDuration);
+        Task task2 = new Task(2, "Task2", "Task2 description", Status.NEW,
+                task1StartDate.plusMinutes(30), taskDuration);
+
+        allTasksRepository.addTask(task1);
+        allTasksRepository.updateTask(updatedTask1);
+        allTasksRepository.checkForTimeOverlap(task2);
+    }
+
+    /**
+     * Overlapping. Deleted task does not block its time slot.
+     */
+    @Test
+    void testNoTimeOverlapAfterDelete() throws TimeOverlapException {
+        LocalDateTime task1StartDate = LocalDateTime.of(2023, 9, 20, 9, 0);
+        int taskDuration = 60;
+
+        Task task1 = new Task(1, "Task1", "Task1 description", Status.NEW, task1StartDate, taskDuration);
+        Task task2 = new Task(2, "Task2", "Task2 description", Status.NEW, task1StartDate, taskDuration);
+
+        allTasksRepository.addTask(task1);
+        allTasksRepository.deleteTaskById(task1.getId());
+        allTasksRepository.checkForTimeOverlap(task2);
+    }
+
+    /**
+     * Overlapping. A long task overlaps with a task that lies entirely inside it.
+     */
+    @Test
+    void testTimeOverlapWithEnclosingTask() {
+        LocalDateTime task1StartDate = LocalDateTime.of(2023, 9, 20, 9, 0);
+        Task task1 = new Task(1, "Task1", "Task1 description", Status.NEW, task1StartDate, 8 * 60);
+        Task task2 = new Task(2, "Task2", "Task2 description", Status.NEW, task1StartDate.plusHours(3), 15);
+        Task task3 = new Task(3, "Task3", "Task3 description", Status.NEW, task1StartDate.plusHours(9), 30);
+
+        allTasksRepository.addTask(task1);
+        allTasksRepository.addTask(task3);
+        assertThrows(TimeOverlapException.class, () -> allTasksRepository.checkForTimeOverlap(task2));
+    }
+
+    /**
+     * For calculating an Epic status and time incrementally. Subtasks are added, updated and deleted.
+     */
+    @Test
+    public void testEpicRollupAfterSubtaskChanges() {
+        Epic epic = new Epic(1, "Test Epic", "Test Epic Description", Status.NEW);
+        LocalDateTime subtask1StartDate = LocalDateTime.of(2023, 1, 1, 8, 0);
+        LocalDateTime subtask2StartDate = LocalDateTime.of(2023, 1, 2, 8, 0);
+        Subtask subtask1 = new Subtask(2, "Subtask 1", "Description 1", Status.NEW, 1, subtask1StartDate, 30);
+        Subtask subtask2 = new Subtask(3, "Subtask 2", "Description 2", Status.DONE, 1, subtask2StartDate, 45);
+
+        allTasksRepository.addTask(epic);
+        allTasksRepository.addTask(subtask1);
+        allTasksRepository.addTask(subtask2);
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(75, epic.getDurationInMinutes());
+        assertTrue(allTasksRepository.verifyEpicRollups());
+
+        allTasksRepository.updateTask(new Subtask(2, "Subtask 1", "Description 1", Status.DONE, 1,
+                subtask1StartDate, 30));
+        assertEquals(Status.DONE, epic.getStatus());
+        assertTrue(allTasksRepository.verifyEpicRollups());
+
+        allTasksRepository.deleteTaskById(subtask1.getId());
+        assertEquals(subtask2StartDate, epic.getStartTime());
+        assertEquals(45, epic.getDurationInMinutes());
+        assertEquals(subtask2StartDate.plusMinutes(45), epic.getEndTime());
+        assertTrue(allTasksRepository.verifyEpicRollups());
+
+        allTasksRepository.deleteAllSubtaskType();
+        assertEquals(Status.NEW, epic.getStatus());
+        assertEquals(DEFAULT_TASK_START_TIME, epic.getStartTime());
+        assertTrue(allTasksRepository.verifyEpicRollups());
+    }
+
+    /**
+     * Lookup by id. Every task type is found through the single id index and ids are unique across types.
+     */
+    @Test
+    public void testGetTaskByIdForAllTaskTypes() {
+        Task task = new Task(1, "Task1", "Task1 description");
+        Epic epic = new Epic(2, "Epic1", "Epic1 description", Status.NEW);
+        Subtask subtask = new Subtask(3, "Subtask1", "Subtask1 description", Status.NEW, 2);
+
+        allTasksRepository.addTask(task);
+        allTasksRepository.addTask(epic);
+        allTasksRepository.addTask(subtask);
+
+        assertEquals(task, allTasksRepository.getTaskById(1));
+        assertEquals(epic, allTasksRepository.getTaskById(2));
+        assertEquals(subtask, allTasksRepository.getTaskById(3));
+        assertThrows(DuplicateTaskIdException.class,
+                () -> allTasksRepository.addTask(new Epic(1, "Epic2", "Epic2 description", Status.NEW)));
+
+        allTasksRepository.deleteTaskById(epic.getId());
+        assertNull(allTasksRepository.getTaskById(2));
+        assertNull(allTasksRepository.getTaskById(3));
+        assertEquals(task, allTasksRepository.getTaskById(1));
+    }
+
+    /**
+     * Epic subtask membership. Deleting a subtask keeps the insertion order of the remaining ones.
+     */
+    @Test
+    public void testEpicSubtaskIdsKeepInsertionOrderAfterDelete() {
+        Epic epic = new Epic(1, "Test Epic", "Test Epic Description", Status.NEW);
+        allTasksRepository.addTask(epic);
+        for (int id = 2; id <= 6; id++) {
+            allTasksRepository.addTask(new Subtask(id, "Subtask " + id, "Description " + id, Status.NEW, 1));
+        }
+
+        allTasksRepository.deleteTaskById(3);
+        allTasksRepository.deleteTaskById(5);
+
+        assertEquals(List.of(2, 4, 6), epic.getSubtaskIdList());
+        assertFalse(epic.getSubtaskIds().contains(3));
+        assertTrue(epic.getSubtaskIds().contains(6));
+        assertEquals(4, epic.getSubtaskIds().get(1));
+
+        allTasksRepository.deleteTaskById(2);
+        allTasksRepository.addTask(new Subtask(7, "Subtask 7", "Description 7", Status.NEW, 1));
+
+        assertEquals(List.of(4, 6, 7), epic.getSubtaskIdList());
+        assertEquals(7, epic.getSubtaskIds().get(2));
+    }
+
+    /**
+     * Columnar store. Tasks are materialized on read, epic rollups are written back to the columns.
+     */
+    @Test
+    public void testColumnarTaskStore() {
+        AllTasksRepository columnarRepository = new AllTasksRepository(new ColumnarTaskStore());
+        LocalDateTime subtaskStartDate = LocalDateTime.of(2023, 1, 1, 8, 0);
+        Task task = new Task(1, "Task1", "Task1 description");
+        Epic epic = new Epic(2, "Epic1", "Epic1 description", Status.NEW);
+        Subtask subtask = new Subtask(3, "Subtask1", "Subtask1 description", Status.DONE, 2, subtaskStartDate, 30);
+
+        columnarRepository.addTask(task);
+        columnarRepository.addTask(epic);
+        columnarRepository.addTask(subtask);
+
+        assertEquals(task, columnarRepository.getTaskById(1));
+        assertNotSame(task, columnarRepository.getTaskById(1));
+        Epic storedEpic = (Epic) columnarRepository.getTaskById(2);
+        assertEquals(Status.DONE, storedEpic.getStatus());
+        assertEquals(subtaskStartDate, storedEpic.getStartTime());
+        assertEquals(subtaskStartDate.plusMinutes(30), storedEpic.getEndTime());
+        assertEquals(List.of(3), storedEpic.getSubtaskIdList());
+        assertTrue(columnarRepository.verifyEpicRollups());
+
+        columnarRepository.updateTask(new Task(1, "Renamed task", "New description", Status.IN_PROGRESS));
+        assertEquals("Renamed task", columnarRepository.getTaskById(1).getName());
+        assertEquals(Status.IN_PROGRESS, columnarRepository.getTaskById(1).getStatus());
+        assertEquals(List.of(1), columnarRepository.search("renamed", 10));
+
+        columnarRepository.deleteTaskById(3);
+        assertEquals(Status.NEW, columnarRepository.getTaskById(2).getStatus());
+        assertEquals(List.of(), ((Epic) columnarRepository.getTaskById(2)).getSubtaskIdList());
+        assertEquals(2, columnarRepository.getAllTasks().size());
+    }
+
+    /**
+     * Columnar store. Start times are truncated to minutes on entry, so the stored task and the time
+     * indexes agree.
+     */
+    @Test
+    public void testColumnarTaskStoreTruncatesStartTime() {
+        AllTasksRepository columnarRepository = new AllTasksRepository(new ColumnarTaskStore());
+        LocalDateTime startTime = LocalDateTime.of(2023, 1, 1, 8, 0);
+        columnarRepository.addTask(new Task(1, "Task1", "Task1 description", Status.NEW,
+                startTime.plusSeconds(59), 30));
+
+        assertEquals(startTime, columnarRepository.getTaskById(1).getStartTime());
+        assertEquals(startTime, columnarRepository.getPrioritizedTasks().get(0).getStartTime());
+        assertEquals(1, columnarRepository.getPrioritizedTasks(startTime, startTime.plusMinutes(1), 0, null)
+                .getTasks().size());
+
+        columnarRepository.addTask(new Task(2, "Task2", "Task2 description", Status.NEW,
+                startTime.plusMinutes(30).plusSeconds(1), 30));
+        assertEquals(startTime.plusMinutes(30), columnarRepository.getTaskById(2).getStartTime());
+    }
+
+    /**
+     * Off-heap store. Records and text blocks of deleted tasks are reused, updates may change the text size.
+     */
+    @Test
+    public void testOffHeapTaskStore() {
+        AllTasksRepository offHeapRepository = new AllTasksRepository(new OffHeapTaskStore());
+        Epic epic = new Epic(1, "Epic1", "Epic1 description", Status.NEW);
+        Subtask subtask = new Subtask(2, "Subtask1", "Subtask1 description", Status.IN_PROGRESS, 1);
+        Task task = new Task(3, "Task1", null);
+
+        offHeapRepository.addTask(epic);
+        offHeapRepository.addTask(subtask);
+        offHeapRepository.addTask(task);
+
+        assertEquals(subtask, offHeapRepository.getTaskById(2));
+        assertNull(offHeapRepository.getTaskById(3).getDescription());
+        assertEquals(Status.IN_PROGRESS, offHeapRepository.getTaskById(1).getStatus());
+        assertTrue(offHeapRepository.verifyEpicRollups());
+
+        String longDescription = "Long description ".repeat(20);
+        offHeapRepository.updateTask(new Task(3, "Task1", longDescription, Status.DONE));
+        assertEquals(longDescription, offHeapRepository.getTaskById(3).getDescription());
+
+        offHeapRepository.deleteTaskById(2);
+        offHeapRepository.addTask(new Task(4, "Task4", "Task4 description"));
+        assertEquals("Task4", offHeapRepository.getTaskById(4).getName());
+        assertEquals(Status.NEW, offHeapRepository.getTaskById(1).getStatus());
+        assertEquals(List.of(1, 3, 4), offHeapRepository.getAllTasks().stream().map(Task::getId).sorted().toList());
+    }
+
+    /**
+     * Off-heap store. A time the store cannot represent is rejected before any state changes.
+     */
+    @Test
+    public void testOffHeapTaskStoreRejectsUnrepresentableTime() {
+        OffHeapTaskStore offHeapTaskStore = new OffHeapTaskStore();
+        AllTasksRepository offHeapRepository = new AllTasksRepository(offHeapTaskStore);
+        Task task = new Task(1, "Task1", "Task1 description", Status.NEW, LocalDateTime.of(9999, 1, 1, 0, 0), 30);
+
+        assertThrows(IllegalArgumentException.class, () -> offHeapTaskStore.put(1, task, TaskType.TASK));
+        assertEquals(0, offHeapTaskStore.size());
+        assertFalse(offHeapTaskStore.contains(1));
+
+        assertThrows(IllegalArgumentException.class, () -> offHeapRepository.addTask(task));
+        assertTrue(offHeapRepository.getAllTasks().isEmpty());
+        assertTrue(offHeapRepository.getPrioritizedTasks().isEmpty());
+    }
+
+    /**
+     * Change events. Synchronous subscribers see every change in order, asynchronous ones get them from their queue.
+     */
+    @Test
+    public void testTaskChangeEvents() throws InterruptedException {
+        List<TaskChangeEvent> events = new ArrayList<>();
+        TaskEventSubscription subscription = allTasksRepository.getTaskEventBus().subscribe(events::add);
+        CountDownLatch asyncEvents = new CountDownLatch(5);
+        TaskEventSubscription asyncSubscription = allTasksRepository.getTaskEventBus()
+                .subscribeAsync(event -> asyncEvents.countDown(), 16);
+
+        allTasksRepository.addTask(new Epic(1, "Epic1", "Epic1 description", Status.NEW));
+        allTasksRepository.addTask(new Subtask(2, "Subtask1", "Subtask1 description", Status.DONE, 1));
+        allTasksRepository.updateTask(new Subtask(2, "Subtask1", "Subtask1 description", Status.DONE, 1));
+        allTasksRepository.deleteTaskById(2);
+
+        assertEquals(List.of(TaskChangeType.CREATED, TaskChangeType.CREATED, TaskChangeType.EPIC_ROLLED_UP,
+                        TaskChangeType.UPDATED, TaskChangeType.DELETED, TaskChangeType.EPIC_ROLLED_UP),
+                events.stream().map(TaskChangeEvent::getChangeType).toList());
+        assertEquals(1, events.get(1).getEpicId());
+        assertEquals(0, events.get(3).getPreviousVersion());
+        assertEquals(1, events.get(3).getVersion());
+        assertEquals(0, events.get(2).getPreviousVersion());
+        assertEquals(1, events.get(2).getVersion());
+        assertEquals(1, events.get(5).getPreviousVersion());
+        assertEquals(2, events.get(5).getVersion());
+        assertEquals(2, allTasksRepository.getTaskById(1).getVersion());
+        assertTrue(asyncEvents.await(5, TimeUnit.SECONDS));
+        assertEquals(0, asyncSubscription.getDroppedEventsCount());
+
+        subscription.unsubscribe();
+        asyncSubscription.unsubscribe();
+        allTasksRepository.deleteAllTasks();
+        assertEquals(6, events.size());
+    }
+
+    /**
+     * Events are delivered once the change is complete, so subscribers never see a half-applied change.
+     */
+    @Test
+    public void testTaskChangeEventsAfterChange() {
+        allTasksRepository.addTask(new Epic(1, "Epic1", "Epic1 description", Status.NEW));
+        allTasksRepository.addTask(new Subtask(2, "Subtask1", "Subtask1 description", Status.NEW, 1));
+        List<String> observedStates = new ArrayList<>();
+        allTasksRepository.getTaskEventBus().subscribe(event -> observedStates.add(event.getChangeType() + " "
+                + allTasksRepository.getTaskById(1).getStatus() + " " + allTasksRepository.getAllTasks().size()));
+
+        allTasksRepository.updateTask(new Subtask(2, "Subtask1", "Subtask1 description", Status.DONE, 1));
+        allTasksRepository.deleteTaskById(2);
+
+        assertEquals(List.of("UPDATED DONE 2", "EPIC_ROLLED_UP DONE 2", "DELETED NEW 1", "EPIC_ROLLED_UP NEW 1"),
+                observedStates);
+    }
+
+    /**
+     * Archive tier. Long-done tasks leave the hot indexes and are faulted back in on lookup.
+     */
+    @Test
+    public void testArchiveDoneTasks(@TempDir Path tempDir) {
+        Clock clock = Clock.fixed(Instant.parse("2024-01-01T10:00:00Z"), ZoneOffset.UTC);
+        AllTasksRepository archivingRepository = new AllTasksRepository(new HeapTaskStore(),
+                new TaskArchive(tempDir.resolve("archive.bin")), clock);
+        archivingRepository.addTask(new Epic(1, "Epic1", "Epic1 description", Status.NEW));
+        archivingRepository.addTask(new Subtask(2, "Subtask1", "Subtask1 description", Status.DONE, 1,
+                LocalDateTime.of(2024, 1, 1, 9, 0), 30));
+        archivingRepository.addTask(new Task(3, "Task1", "Task1 description", Status.DONE));
+        archivingRepository.addTask(new Task(4, "Task2", "Task2 description", Status.NEW));
+
+        assertEquals(0, archivingRepository.archiveDoneTasks(Duration.ofDays(1)));
+        assertEquals(3, archivingRepository.archiveDoneTasks(Duration.ZERO));
+        assertEquals(1, archivingRepository.getTaskTierStats().getHotTasksCount());
+        assertEquals(3, archivingRepository.getTaskTierStats().getColdTasksCount());
+        assertEquals(List.of(4), archivingRepository.getAllTasks().stream().map(Task::getId).toList());
+        assertTrue(archivingRepository.getPrioritizedTasks().stream().noneMatch(task -> task.getId() == 2));
+        assertThrows(DuplicateTaskIdException.class, () -> archivingRepository.addTask(new Task(3, "Task3", null)));
+        assertEquals("Subtask1", archivingRepository.peekTaskById(2).getName());
+        assertEquals(3, archivingRepository.getTaskTierStats().getColdTasksCount(),
+                "Peeking at an archived task should not restore it.");
+
+        Subtask restoredSubtask = (Subtask) archivingRepository.getTaskById(2);
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 30), restoredSubtask.getEndTime());
+        assertEquals(Status.DONE, archivingRepository.getTaskById(1).getStatus());
+        assertTrue(archivingRepository.verifyEpicRollups());
+        assertEquals(1, archivingRepository.getTaskTierStats().getColdTasksCount());
+
+        archivingRepository.deleteTaskById(3);
+        assertNull(archivingRepository.getTaskById(3));
+        assertEquals(0, archivingRepository.getTaskTierStats().getColdTasksCount());
+        assertThrows(IllegalStateException.class, () -> allTasksRepository.archiveDoneTasks(Duration.ZERO));
+    }
+
+    /**
+     * A reopened archive keeps its live records and forgets the removed ones.
+     */
+    @Test
+    public void testArchiveIsReopened(@TempDir Path tempDir) {
+        Path archivePath = tempDir.resolve("archive.bin");
+        TaskArchive taskArchive = new TaskArchive(archivePath);
+        taskArchive.put(new Task(1, "Task1", "Task1 description", Status.DONE), TaskType.TASK);
+        taskArchive.put(new Epic(2, "Epic1", "Epic1 description", Status.DONE), TaskType.EPIC);
+        taskArchive.put(new Subtask(3, "Subtask1", "Subtask1 description", Status.DONE, 2), TaskType.SUBTASK);
+        taskArchive.remove(3);
+        taskArchive.put(new Task(1, "Task1", "New description", Status.DONE), TaskType.TASK);
+        taskArchive.close();
+
+        TaskArchive reopenedArchive = new TaskArchive(archivePath);
+        assertEquals(2, reopenedArchive.size());
+        assertEquals("New description", reopenedArchive.get(1).getDescription());
+        assertEquals(List.of(2), reopenedArchive.getIds(TaskType.EPIC).asList());
+        assertFalse(reopenedArchive.contains(3));
+        assertEquals(3, reopenedArchive.getMaxId());
+
+        AllTasksRepository archivingRepository = new AllTasksRepository(new HeapTaskStore(), reopenedArchive,
+                Clock.systemUTC());
+        assertEquals(3, archivingRepository.getMaxArchivedTaskId());
+        assertEquals("Epic1", archivingRepository.getTaskById(2).getName());
+        assertEquals(1, archivingRepository.getTaskTierStats().getColdTasksCount());
+        reopenedArchive.close();
+    }
+
+    /**
+     * The archive does not keep dependency edges, so tasks that have any stay in memory.
+     */
+    @Test
+    public void testArchiveKeepsTasksWithDependencies(@TempDir Path tempDir) {
+        TaskArchive taskArchive = new TaskArchive(tempDir.resolve("archive.bin"));
+        AllTasksRepository archivingRepository = new AllTasksRepository(new HeapTaskStore(), taskArchive,
+                Clock.systemUTC());
+        archivingRepository.addTask(new Task(1, "Task1", "Task1 description", Status.DONE));
+        archivingRepository.addTask(new Task(2, "Task2", "Task2 description", Status.NEW));
+        archivingRepository.addTask(new Epic(3, "Epic1", "Epic1 description", Status.NEW));
+        archivingRepository.addTask(new Subtask(4, "Subtask1", "Subtask1 description", Status.DONE, 3));
+        archivingRepository.addTask(new Task(5, "Task3", "Task3 description", Status.DONE));
+        archivingRepository.addDependency(2, 1);
+        archivingRepository.addDependency(4, 5);
+
+        assertEquals(0, archivingRepository.archiveDoneTasks(Duration.ZERO));
+        assertEquals(List.of(1), archivingRepository.getDependencies(2));
+        assertEquals(List.of(5), archivingRepository.getDependencies(4));
+
+        archivingRepository.removeDependency(2, 1);
+        assertEquals(1, archivingRepository.archiveDoneTasks(Duration.ZERO));
+        assertTrue(archivingRepository.isArchived(1));
+        taskArchive.close();
+    }
 }
@@ -2,15 +2,27 @@ package server;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import constant.Status;
 import formatter.LocalDateTimeAdapter;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskTierStats;
+import model.TaskViewCount;
+import model.TimeSlot;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import service.InMemoryTaskManager;
+import service.Managers;
+import service.TaskBoards;
 import service.TaskManager;
 
 import java.io.IOException;
@@ -21,9 +33,12 @@ import java.net.URISyntaxException;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
 import static java.net.HttpURLConnection.HTTP_OK;
@@ -76,7 +91,8 @@ class HttpTaskServerTest {
     }
 
     @Test
-    public void testHandleGetRequest_GetTaskById_NonExistingTask() throws IOException, InterruptedException, URISyntaxException {
+    public void testHandleGetRequest_GetTaskById_NonExistingTask() throws IOException, InterruptedException,
+            URISyntaxException {
         Task testTask = new Task(1, "testTask1", "testTask1 description");
         taskManager.createTask(testTask);
 
@@ -225,6 +241,46 @@ class HttpTaskServerTest {
         assertEquals("Test description", responseTask.getDescription());
     }
 
+    /**
+     * Gson fills a recurrence rule without its constructor, so a rule with a non-positive interval reaches the
+     * repository and is rejected there instead of looping while it looks for overlaps.
+     */
+    @Test
+    public void testHandlePostRequest_InvalidRecurrenceInterval() throws Exception {
+        taskManager.createTask(new Task(1, "Task1", "Task1 description", Status.NEW,
+                LocalDateTime.of(2024, 1, 1, 9, 0), 30));
+        for (int interval : new int[]{0, -1}) {
+            JsonObject task = gson.toJsonTree(new Task(0, "Standup", "Daily standup", Status.NEW,
+                    LocalDateTime.of(2024, 1, 2, 9, 0), 15)).getAsJsonObject();
+            JsonObject recurrenceRule = new JsonObject();
+            recurrenceRule.addProperty("frequency", "DAILY");
+            recurrenceRule.addProperty("interval", interval);
+            task.add("recurrenceRule", recurrenceRule);
+
+            HttpRequest postRequest = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/tasktype/"))
+                    .POST(HttpRequest.BodyPublishers.ofString(task.toString()))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            HttpResponse<String> postResponse = client.send(postRequest, HttpResponse.BodyHandlers.ofString());
+            assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, postResponse.statusCode());
+
+            task.addProperty("id", 1);
+            HttpRequest putRequest = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/update/"))
+                    .PUT(HttpRequest.BodyPublishers.ofString(task.toString()))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            HttpResponse<String> putResponse = client.send(putRequest, HttpResponse.BodyHandlers.ofString());
+            assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, putResponse.statusCode());
+        }
+
+        assertEquals(1, taskManager.getAllTaskType().size());
+        assertNull(taskManager.getTaskById(1).getRecurrenceRule());
+    }
+
     @Test
     public void testHandlePutRequest_UpdateExistingTask() throws Exception {
         Task existingTask = new Task(1, "Old task", "Old description");
@@ -298,4 +354,452 @@ class HttpTaskServerTest {
         assertEquals(HttpURLConnection.HTTP_OK, response.statusCode());
         assertTrue(taskManager.getAllTasks().isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testHandleGetRequest_GetPrioritizedTasksPage() throws Exception {
+        LocalDateTime startTime = LocalDateTime.of(2023, 4, 1, 8, 0);
+        for (int i = 0; i < 5; i++) {
+            taskManager.createTask(new Task(0, "Task" + i, "Task description", Status.NEW, startTime.plusHours(i), 30));
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/?from=" + startTime.plusHours(1)
+                        + "&to=" + startTime.plusHours(4) + "&limit=2"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        TaskPage firstPage = gson.fromJson(response.body(), TaskPage.class);
+        assertEquals(2, firstPage.getTasks().size());
+        assertEquals(startTime.plusHours(1), firstPage.getTasks().get(0).getStartTime());
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/?from=" + startTime.plusHours(1)
+                        + "&to=" + startTime.plusHours(4) + "&limit=2&cursor=" + firstPage.getNextCursor()))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        TaskPage secondPage = gson.fromJson(response.body(), TaskPage.class);
+        assertEquals(1, secondPage.getTasks().size());
+        assertEquals(startTime.plusHours(3), secondPage.getTasks().get(0).getStartTime());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    public void testHandleGetRequest_GetTasksByStatusAndType() throws Exception {
+        Epic epic = new Epic("Epic1", "Epic1 description");
+        taskManager.createTask(epic);
+        Subtask subtask1 = new Subtask("Subtask1", "Subtask1 description", Status.IN_PROGRESS, epic.getId());
+        taskManager.createTask(subtask1);
+        Subtask subtask2 = new Subtask("Subtask2", "Subtask2 description", Status.DONE, epic.getId());
+        taskManager.createTask(subtask2);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?status=IN_PROGRESS&type=SUBTASK"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        Type subtaskListType = new TypeToken<ArrayList<Subtask>>() {
+        }.getType();
+        List<Subtask> returnedSubtasks = gson.fromJson(response.body(), subtaskListType);
+        assertEquals(1, returnedSubtasks.size());
+        assertEquals(subtask1.getId(), returnedSubtasks.get(0).getId());
+    }
+
+    @Test
+    public void testHandleGetRequest_GetAllTasksIgnoresUnrelatedParameters() throws Exception {
+        Epic epic = new Epic("Epic1", "Epic1 description");
+        taskManager.createTask(epic);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1 description", Status.DONE, epic.getId());
+        taskManager.createTask(subtask);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?sort=name"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        JsonArray allTasks = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(2, allTasks.size());
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?type=SUBTASK"))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        JsonArray subtasks = JsonParser.parseString(response.body()).getAsJsonArray();
+        assertEquals(1, subtasks.size());
+        assertEquals(subtask.getId(), subtasks.get(0).getAsJsonObject().get("id").getAsInt());
+    }
+
+    @Test
+    public void testHandleGetRequest_SearchTasks() throws Exception {
+        Task task1 = new Task("Buy milk", "Milk and bread", Status.NEW);
+        taskManager.createTask(task1);
+        Task task2 = new Task("Call plumber", "Kitchen sink leaks", Status.NEW);
+        taskManager.createTask(task2);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/search/?query=milk&limit=5"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        Type idListType = new TypeToken<ArrayList<Integer>>() {
+        }.getType();
+        List<Integer> rankedIds = gson.fromJson(response.body(), idListType);
+        assertEquals(List.of(task1.getId()), rankedIds);
+    }
+
+    @Test
+    public void testHandleGetRequest_FindFreeSlots() throws Exception {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        taskManager.createTask(new Task(0, "Task1", "Task1 description", Status.NEW, startTime, 60));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT
+                        + "/tasks/slots/?after=2024-01-01T09:00&duration=90&count=2"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        Type timeSlotListType = new TypeToken<ArrayList<TimeSlot>>() {
+        }.getType();
+        List<TimeSlot> freeSlots = gson.fromJson(response.body(), timeSlotListType);
+        assertEquals(1, freeSlots.size());
+        assertEquals(startTime.plusMinutes(60), freeSlots.get(0).getStartTime());
+        assertEquals(startTime.plusMinutes(150), freeSlots.get(0).getEndTime());
+    }
+
+    @Test
+    public void testHandleGetRequest_GetTasksForDay() throws Exception {
+        Task task1 = new Task(0, "Task1", "Task1 description", Status.NEW, LocalDateTime.of(2024, 1, 1, 9, 0), 60);
+        taskManager.createTask(task1);
+        Task task2 = new Task(0, "Task2", "Task2 description", Status.NEW, LocalDateTime.of(2024, 1, 2, 9, 0), 60);
+        taskManager.createTask(task2);
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/day/?date=2024-01-02"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(HTTP_OK, response.statusCode());
+        Type taskListType = new TypeToken<ArrayList<Task>>() {
+        }.getType();
+        List<Task> dayTasks = gson.fromJson(response.body(), taskListType);
+        assertEquals(1, dayTasks.size());
+        assertEquals(task2.getId(), dayTasks.get(0).getId());
+    }
+
+    @Test
+    public void testHandlePostRequest_AddDependency() throws Exception {
+        Task task1 = taskManager.createTask(new Task(0, "Task1", "Task1 description", Status.NEW, null, 60));
+        Task task2 = taskManager.createTask(new Task(0, "Task2", "Task2 description", Status.NEW, null, 30));
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/dependency/?id=" + task2.getId()
+                        + "&blockedBy=" + task1.getId()))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HttpURLConnection.HTTP_CREATED, response.statusCode());
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/schedule/?id=" + task2.getId()))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        TaskSchedule taskSchedule = gson.fromJson(response.body(), TaskSchedule.class);
+        assertEquals(60, taskSchedule.getEarliestStartInMinutes());
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/dependency/?id=" + task1.getId()
+                        + "&blockedBy=" + task2.getId()))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HttpURLConnection.HTTP_CONFLICT, response.statusCode());
+    }
+
+    @Test
+    public void testHandleRequest_RoutesByBoardId() throws Exception {
+        httpTaskServer.stop();
+        TaskBoards taskBoards = new TaskBoards(InMemoryTaskManager::new, 2);
+        httpTaskServer = new HttpTaskServer(taskBoards);
+        httpTaskServer.start();
+        String jsonRequestBody = "{\"name\": \"Board task\", \"description\": \"Board description\"}";
+
+        for (String boardId : List.of("team-a", "team-b")) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/tasktype/"))
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonRequestBody))
+                    .header("X-Board-Id", boardId)
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(HttpURLConnection.HTTP_CREATED, response.statusCode());
+            assertEquals(1, gson.fromJson(response.body(), Task.class).getId(),
+                    "Every board should generate its own ids.");
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals("[]", response.body(), "Requests without a board id should go to the default board.");
+        assertEquals(1, taskBoards.execute("team-a", TaskManager::getAllTasks).size());
+        assertEquals(Set.of("team-a", "team-b"), taskBoards.getBoardIds(), "Boards without tasks should not be kept.");
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/"))
+                .GET()
+                .header("X-Board-Id", "team a")
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, response.statusCode());
+        taskBoards.shutdown();
+    }
+
+    @Test
+    public void testHandleRequest_BoardLimit() throws Exception {
+        httpTaskServer.stop();
+        TaskBoards taskBoards = new TaskBoards(InMemoryTaskManager::new, 2, 2, Duration.ZERO);
+        httpTaskServer = new HttpTaskServer(taskBoards);
+        httpTaskServer.start();
+
+        for (int i = 0; i < 10; i++) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/"))
+                    .GET()
+                    .header("X-Board-Id", "reader-" + i)
+                    .build();
+            assertEquals(HTTP_OK, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+        assertTrue(taskBoards.getBoardIds().isEmpty(), "Reads should not leave boards behind.");
+
+        String jsonRequestBody = "{\"name\": \"Board task\", \"description\": \"Board description\"}";
+        List<Integer> statusCodes = new ArrayList<>();
+        for (String boardId : List.of("team-a", "team-b", "team-c")) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/tasktype/"))
+                    .POST(HttpRequest.BodyPublishers.ofString(jsonRequestBody))
+                    .header("X-Board-Id", boardId)
+                    .build();
+            statusCodes.add(client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+        assertEquals(List.of(HttpURLConnection.HTTP_CREATED, HttpURLConnection.HTTP_CREATED,
+                HttpURLConnection.HTTP_UNAVAILABLE), statusCodes);
+
+        taskBoards.execute("team-a", TaskManager::deleteAllTasks);
+        assertEquals(Set.of("team-b"), taskBoards.getBoardIds(), "An idle board without tasks should be evicted.");
+        Task task = taskBoards.execute("team-a", boardTaskManager -> boardTaskManager.createTask(
+                new Task("Board task", "Board description")));
+        assertEquals(2, task.getId(), "A recreated board should not reuse the ids of the evicted one.");
+        taskBoards.shutdown();
+    }
+
+    @Test
+    public void testBoardIdleTimeout() {
+        TaskBoards taskBoards = new TaskBoards(InMemoryTaskManager::new, 1, 10, Duration.ofHours(1));
+        taskBoards.execute("team-a", boardTaskManager -> boardTaskManager.createTask(
+                new Task("Board task", "Board description")));
+        taskBoards.execute("team-a", TaskManager::deleteAllTasks);
+        assertEquals(Set.of("team-a"), taskBoards.getBoardIds(), "A board should be kept until it is idle.");
+        taskBoards.execute("team-b", TaskManager::getAllTasks);
+        assertEquals(Set.of("team-a"), taskBoards.getBoardIds(), "A board without ids should be dropped at once.");
+        taskBoards.shutdown();
+    }
+
+    @Test
+    public void testHandlePostRequest_InvalidEpicAndSubtask() throws Exception {
+        httpTaskServer.stop();
+        TaskBoards taskBoards = new TaskBoards(InMemoryTaskManager::new, 2, 10);
+        httpTaskServer = new HttpTaskServer(taskBoards);
+        httpTaskServer.start();
+        Task epic = taskBoards.execute("team-a", boardTaskManager -> boardTaskManager.createTask(
+                new Epic("Epic1", "Epic1 description")));
+
+        List<Integer> statusCodes = new ArrayList<>();
+        for (String[] pathAndBody : new String[][]{
+                {"/tasks/epic/", "{\"name\": \"Orphan\", \"parentEpicId\": 999}"},
+                {"/tasks/subtask/", "{\"name\": \"Orphan\", \"epicId\": 999}"},
+                {"/tasks/subtask/", "{\"name\": \"Standup\", \"epicId\": " + epic.getId()
+                        + ", \"recurrenceRule\": {\"frequency\": \"DAILY\", \"interval\": 1}}"}}) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + pathAndBody[0]))
+                    .POST(HttpRequest.BodyPublishers.ofString(pathAndBody[1]))
+                    .header("X-Board-Id", "team-a")
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            statusCodes.add(client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+        assertEquals(List.of(HTTP_NOT_FOUND, HTTP_NOT_FOUND, HttpURLConnection.HTTP_BAD_REQUEST), statusCodes);
+        taskBoards.shutdown();
+    }
+
+    @Test
+    public void testHandlePutRequest_IfMatch() throws Exception {
+        Task task = taskManager.createTask(new Task("Task1", "Task1 description"));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?id=" + task.getId()))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        String entityTag = response.headers().firstValue("ETag").orElseThrow();
+
+        String jsonRequestBody = "{\"id\": " + task.getId() + ", \"name\": \"Task1\", \"description\": \"Edited\"}";
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/update/"))
+                .PUT(HttpRequest.BodyPublishers.ofString(jsonRequestBody))
+                .header("If-Match", entityTag)
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        assertFalse(entityTag.equals(response.headers().firstValue("ETag").orElseThrow()));
+
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(412, response.statusCode(), "An update with a stale ETag should be rejected.");
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/update/"))
+                .PUT(HttpRequest.BodyPublishers.ofString(
+                        "{\"id\": 999, \"name\": \"Task999\", \"description\": \"Edited\"}"))
+                .header("If-Match", "\"0\"")
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(412, response.statusCode(), "A conditional update of a missing task should be rejected.");
+        assertTrue(response.headers().firstValue("ETag").isEmpty());
+    }
+
+    @Test
+    public void testHandlePutRequest_ETagOfStoredVersion() throws Exception {
+        Epic epic = (Epic) taskManager.createTask(new Epic("Epic1", "Epic1 description"));
+
+        String jsonRequestBody = "{\"id\": " + epic.getId() + ", \"name\": \"Epic1\", \"version\": 7}";
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/update/"))
+                .PUT(HttpRequest.BodyPublishers.ofString(jsonRequestBody))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        String entityTag = response.headers().firstValue("ETag").orElseThrow();
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?id=" + epic.getId()))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(response.headers().firstValue("ETag").orElseThrow(), entityTag,
+                "An update should answer with the ETag of the stored version.");
+    }
+
+    @Test
+    public void testHandlePostRequest_ArchiveDoneTasks(@TempDir Path tempDir) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/archive/?minDoneAgeInMinutes=0"))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_NOT_FOUND, response.statusCode());
+
+        httpTaskServer.stop();
+        taskManager = Managers.getArchivingTaskManager(tempDir.resolve("archive.bin"));
+        httpTaskServer = new HttpTaskServer(taskManager);
+        httpTaskServer.start();
+        Task doneTask = taskManager.createTask(new Task("Task1", "Task1 description", Status.DONE));
+        taskManager.createTask(new Task("Task2", "Task2 description", Status.NEW));
+
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        TaskTierStats taskTierStats = gson.fromJson(response.body(), TaskTierStats.class);
+        assertEquals(1, taskTierStats.getHotTasksCount());
+        assertEquals(1, taskTierStats.getColdTasksCount());
+        assertEquals(List.of(2), taskManager.getAllTasks().stream().map(Task::getId).toList());
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?id=" + doneTask.getId()))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        assertEquals(0, taskManager.getTaskTierStats().getColdTasksCount());
+    }
+
+    @Test
+    public void testHandleGetRequest_HistoryByUserId() throws Exception {
+        Task task1 = taskManager.createTask(new Task("Task1", "Task1 description"));
+        Task task2 = taskManager.createTask(new Task("Task2", "Task2 description"));
+
+        for (String viewRequest : List.of("alice:" + task1.getId(), "bob:" + task2.getId(), "alice:" + task2.getId())) {
+            String[] userAndTaskId = viewRequest.split(":");
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/task/?id=" + userAndTaskId[1]))
+                    .GET()
+                    .header("X-User-Id", userAndTaskId[0])
+                    .build();
+            assertEquals(HTTP_OK, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/history/"))
+                .GET()
+                .header("X-User-Id", "bob")
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        Type taskListType = new TypeToken<List<Task>>() {
+        }.getType();
+        List<Task> history = gson.fromJson(response.body(), taskListType);
+        assertEquals(List.of(task2.getId()), history.stream().map(Task::getId).toList());
+        assertEquals(2, taskManager.getHistory().size(), "The shared history should still record every view.");
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/history/"))
+                .GET()
+                .header("X-User-Id", "bob smith")
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, response.statusCode());
+    }
+
+    @Test
+    public void testHandleGetRequest_HotTasks() throws Exception {
+        Task task1 = taskManager.createTask(new Task("Task1", "Task1 description"));
+        Task task2 = taskManager.createTask(new Task("Task2", "Task2 description"));
+        taskManager.getTaskById(task2.getId());
+        taskManager.getTaskById(task2.getId());
+        taskManager.getTaskById(task1.getId());
+
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/hot/?k=1"))
+                .GET()
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_OK, response.statusCode());
+        Type hotTaskListType = new TypeToken<List<TaskViewCount>>() {
+        }.getType();
+        List<TaskViewCount> hotTasks = gson.fromJson(response.body(), hotTaskListType);
+        assertEquals(1, hotTasks.size());
+        assertEquals(task2.getId(), hotTasks.get(0).getTaskId());
+        assertEquals(2, hotTasks.get(0).getEstimatedViewCount());
+
+        request = HttpRequest.newBuilder()
+                .uri(new URI("http://localhost:" + SERVER_PORT + "/tasks/hot/?k=0"))
+                .GET()
+                .build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(HttpURLConnection.HTTP_BAD_REQUEST, response.statusCode());
+    }
+}
@@ -0,0 +1,69 @@
+package service;
+
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArrayHistoryManagerTest {
+
+    private HistoryManager historyManager;
+
+    @BeforeEach
+    public void setUp() {
+        historyManager = new ArrayHistoryManager(3);
+    }
+
+    @Test
+    public void testEmptyHistory() {
+        assertTrue(historyManager.getHistory().isEmpty(), "History should be empty after initialization.");
+    }
+
+    @Test
+    public void testRepeatedViewMovesTaskToEnd() {
+        Task task1 = new Task(1, "Task1", "Task1 description");
+        Task task2 = new Task(2, "Task2", "Task2 description");
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+
+        assertEquals(List.of(task2, task1), historyManager.getHistory(), "Task1 should move to the end of history.");
+    }
+
+    @Test
+    public void testRemoveFreesSlotForNextTask() {
+        Task task1 = new Task(1, "Task1", "Task1 description");
+        Task task2 = new Task(2, "Task2", "Task2 description");
+        Task task3 = new Task(3, "Task3", "Task3 description");
+        Task task4 = new Task(4, "Task4", "Task4 description");
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.remove(task2.getId());
+        historyManager.add(task4);
+
+        assertEquals(List.of(task1, task3, task4), historyManager.getHistory(), "No task should be evicted.");
+    }
+
+    @Test
+    public void testFullHistoryEvictsLeastRecentlyViewedTask() {
+        Task task1 = new Task(1, "Task1", "Task1 description");
+        Task task2 = new Task(2, "Task2", "Task2 description");
+        Task task3 = new Task(3, "Task3", "Task3 description");
+        Task task4 = new Task(4, "Task4", "Task4 description");
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.add(task4);
+
+        assertEquals(List.of(task3, task1, task4), historyManager.getHistory(), "Task2 should be evicted.");
+    }
+}
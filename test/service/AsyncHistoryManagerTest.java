@@ -0,0 +1,37 @@
+package service;
+
+import model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncHistoryManagerTest {
+
+    private AsyncHistoryManager historyManager;
+
+    @AfterEach
+    public void tearDown() {
+        historyManager.close();
+    }
+
+    @Test
+    public void testHistoryIncludesQueuedViewsInOrder() {
+        historyManager = new AsyncHistoryManager(new InMemoryHistoryManager(), 4, 2);
+        List<Task> tasks = new ArrayList<>();
+        for (int id = 1; id <= 10; id++) {
+            tasks.add(new Task(id, "Task" + id, "Task" + id + " description"));
+        }
+
+        tasks.forEach(historyManager::add);
+        historyManager.add(tasks.get(0));
+        historyManager.remove(tasks.get(1).getId());
+
+        List<Task> expectedHistory = new ArrayList<>(tasks.subList(2, 10));
+        expectedHistory.add(tasks.get(0));
+        assertEquals(expectedHistory, historyManager.getHistory(), "Queued views should not be lost or reordered.");
+    }
+}
@@ -0,0 +1,126 @@
+package service;
+
+import constant.Status;
+import exception.TimeOverlapException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentTaskManagerTest extends TaskManagerTest<TaskManager> {
+
+    private static final int THREADS_COUNT = 8;
+    private static final int SUBTASKS_PER_THREAD = 250;
+    private static final int SUBTASK_DURATION = 30;
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2023, 1, 1, 0, 0);
+
+    @BeforeEach
+    public void setup() {
+        taskManager = Managers.getConcurrentTaskManager();
+        assertNotNull(taskManager);
+    }
+
+    /**
+     * Writers create subtasks of one epic in disjoint time slots and all compete for one shared slot,
+     * while the same threads keep reading by id and listing prioritized tasks.
+     */
+    @Test
+    public void testConcurrentWritesAndReads() throws Exception {
+        Epic epic = (Epic) taskManager.createTask(new Epic("Epic1", "Epic1 description"));
+        LocalDateTime contestedStartTime = START_TIME.minusDays(1);
+        AtomicInteger contestedSlotWinners = new AtomicInteger();
+        CountDownLatch startSignal = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+        List<Future<Void>> results = new ArrayList<>();
+        for (int thread = 0; thread < THREADS_COUNT; thread++) {
+            int threadNumber = thread;
+            Callable<Void> worker = () -> {
+                startSignal.await();
+                try {
+                    taskManager.createTask(new Task(0, "Contested", "Contested slot", Status.NEW,
+                            contestedStartTime, SUBTASK_DURATION));
+                    contestedSlotWinners.incrementAndGet();
+                } catch (TimeOverlapException ex) {
+                    // Only one thread may take the contested slot.
+                }
+
+                for (int i = 0; i < SUBTASKS_PER_THREAD; i++) {
+                    LocalDateTime startTime = START_TIME.plusHours((long) threadNumber * SUBTASKS_PER_THREAD + i);
+                    taskManager.createTask(new Subtask("Subtask", "Subtask description", epic.getId(),
+                            startTime, SUBTASK_DURATION));
+
+                    int randomId = ThreadLocalRandom.current().nextInt(1, THREADS_COUNT * SUBTASKS_PER_THREAD);
+                    Task task = taskManager.getTaskById(randomId);
+                    assertTrue(task == null || task.getId() == randomId);
+                    if (i % 50 == 0) {
+                        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+                        assertTrue(isSortedByStartTime(prioritizedTasks));
+                    }
+                }
+                return null;
+            };
+            results.add(executor.submit(worker));
+        }
+        startSignal.countDown();
+        for (Future<Void> result : results) {
+            result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        int expectedSubtasksCount = THREADS_COUNT * SUBTASKS_PER_THREAD;
+        assertEquals(1, contestedSlotWinners.get(), "Exactly one task should take the contested slot.");
+        assertEquals(expectedSubtasksCount, taskManager.getAllSubtaskType().size());
+        assertEquals(expectedSubtasksCount, taskManager.getAllEpicSubtasks(epic.getId()).size());
+        assertEquals(expectedSubtasksCount + 1, taskManager.getPrioritizedTasks().size());
+        assertEquals(expectedSubtasksCount * SUBTASK_DURATION, epic.getDurationInMinutes());
+        assertEquals(START_TIME, epic.getStartTime());
+
+        long distinctHistoryIds = taskManager.getHistory().stream().map(Task::getId).distinct().count();
+        assertEquals(taskManager.getHistory().size(), distinctHistoryIds, "History should not contain duplicates.");
+    }
+
+    /**
+     * Synchronous subscribers are called after the write lock is released, so they may read the manager.
+     */
+    @Test
+    public void testSubscriberReadsManagerDuringChange() throws Exception {
+        List<Task> seenTasks = new ArrayList<>();
+        taskManager.getTaskEventBus().subscribe(event -> seenTasks.add(taskManager.getTaskById(event.getTaskId())));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<Task> result = executor.submit(() -> taskManager.createTask(new Task("Task1", "Task1 description")));
+        Task task = result.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(List.of(task), seenTasks);
+        assertEquals(List.of(task), taskManager.getHistory());
+    }
+
+    private boolean isSortedByStartTime(List<Task> tasks) {
+        for (int i = 1; i < tasks.size(); i++) {
+            if (tasks.get(i - 1).getStartTime().isAfter(tasks.get(i).getStartTime())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
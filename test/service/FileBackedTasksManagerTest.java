@@ -122,6 +122,25 @@ public class FileBackedTasksManagerTest extends TaskManagerTest<FileBackedTasksM
         assertEquals(expectedSubtasks, actualSubtasks, "Expected and actual subtask IDs should match.");
     }
 
+    @Test
+    public void testAsyncHistoryIsSavedByRecorder() throws Exception {
+        taskManager = new FileBackedTasksManager(TEST_TASK_FILE_PATH, Managers.getAsyncHistory());
+        Task task1 = taskManager.createTask(new Task("Task 1", "Description 1"));
+        Task task2 = taskManager.createTask(new Task("Task 2", "Description 2"));
+
+        taskManager.getTaskById(task2.getId());
+        taskManager.getTaskById(task1.getId());
+
+        String expectedHistoryLine = task2.getId() + "," + task1.getId();
+        List<String> lines = readFromFile(TEST_TASK_FILE_PATH);
+        for (int attempt = 0; attempt < 500 && !lines.get(lines.size() - 1).equals(expectedHistoryLine); attempt++) {
+            Thread.sleep(10);
+            lines = readFromFile(TEST_TASK_FILE_PATH);
+        }
+        assertEquals(expectedHistoryLine, lines.get(lines.size() - 1), "Views should be saved without a mutation.");
+        assertEquals(5, lines.size(), "The task lines of the last save should be kept.");
+    }
+
     private void createTestFileWithTasks() {
         List<String> lines = new ArrayList<>();
         lines.add(Constants.CSV_HEADER);
@@ -169,4 +188,52 @@ public class FileBackedTasksManagerTest extends TaskManagerTest<FileBackedTasksM
             throw new RuntimeException("Failed to write to file", ex);
         }
     }
+
+    @Test
+    public void testLoadNestedEpicsParentFirst() throws IOException {
+        Epic child = (Epic) taskManager.createTask(new Epic("Child", "Child description"));
+        Epic parent = (Epic) taskManager.createTask(new Epic("Parent", "Parent description"));
+        Epic movedChild = new Epic(child.getId(), "Child", "Child description", Status.NEW);
+        movedChild.setParentEpicId(parent.getId());
+        taskManager.updateTask(movedChild);
+        taskManager.createTask(new Subtask("Subtask1", "Subtask1 description", Status.DONE, child.getId()));
+
+        FileBackedTasksManager loadedManager = new FileBackedTasksManager(TEST_TASK_FILE_PATH);
+
+        assertEquals(parent.getId(), ((Epic) loadedManager.getTaskById(child.getId())).getParentEpicId());
+        assertEquals(List.of(child.getId()),
+                loadedManager.getChildEpics(parent.getId()).stream().map(Task::getId).toList());
+        assertEquals(Status.DONE, loadedManager.getTaskById(parent.getId()).getStatus());
+    }
+
+    @Test
+    public void testSaveAndLoadDependencies() throws IOException {
+        Task task1 = taskManager.createTask(new Task("Task1", "Task1 description"));
+        Task task2 = taskManager.createTask(new Task("Task2", "Task2 description"));
+        Task task3 = taskManager.createTask(new Task("Task3", "Task3 description"));
+        taskManager.addDependency(task3.getId(), task1.getId());
+        taskManager.addDependency(task3.getId(), task2.getId());
+        taskManager.removeDependency(task3.getId(), task1.getId());
+
+        FileBackedTasksManager loadedManager = new FileBackedTasksManager(TEST_TASK_FILE_PATH);
+
+        assertEquals(List.of(task2.getId()), loadedManager.getDependencies(task3.getId()));
+        loadedManager.createTask(new Task("Task4", "Task4 description"));
+        assertEquals(List.of(task2.getId()), new FileBackedTasksManager(TEST_TASK_FILE_PATH)
+                .getDependencies(task3.getId()), "Dependencies should survive a save of the loaded manager.");
+    }
+
+    @Test
+    public void testSaveCreatedTasksBatch() {
+        Epic epic = new Epic(-1, "Epic1", "Epic1 description", Status.NEW);
+        Subtask subtask = new Subtask(0, "Subtask1", "Subtask1 description", Status.NEW, -1);
+        Task task = new Task("Task 1", "Description 1");
+        taskManager.createTasks(List.of(epic, subtask, task));
+
+        List<String> lines = readFromFile(TEST_TASK_FILE_PATH);
+
+        assertTrue(lines.contains(epic.toCsvString()), "Epic should be saved correctly.");
+        assertTrue(lines.contains(subtask.toCsvString()), "Subtask should be saved correctly.");
+        assertTrue(lines.contains(task.toCsvString()), "Task should be saved correctly.");
+    }
 }
@@ -0,0 +1,38 @@
+package service;
+
+import model.TaskViewCount;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HotTaskTrackerTest {
+
+    @Test
+    public void testFrequentTaskReplacesWeakestCandidate() {
+        HotTaskTracker hotTaskTracker = new HotTaskTracker(4, 1024, 2);
+        for (int taskId : new int[]{1, 1, 2, 3, 3, 3}) {
+            hotTaskTracker.recordView(taskId);
+        }
+
+        List<TaskViewCount> hotTasks = hotTaskTracker.getHotTasks(5);
+
+        assertEquals(List.of(3, 1), hotTasks.stream().map(TaskViewCount::getTaskId).toList(),
+                "Only the two most viewed tasks should be kept.");
+        assertEquals(3, hotTasks.get(0).getEstimatedViewCount());
+        assertEquals(2, hotTasks.get(1).getEstimatedViewCount());
+    }
+
+    @Test
+    public void testRemovedTaskIsNoLongerReported() {
+        HotTaskTracker hotTaskTracker = new HotTaskTracker(4, 1024, 3);
+        for (int taskId : new int[]{1, 2, 2, 3, 3, 3}) {
+            hotTaskTracker.recordView(taskId);
+        }
+
+        hotTaskTracker.remove(3);
+
+        assertEquals(List.of(2, 1), hotTaskTracker.getHotTasks(3).stream().map(TaskViewCount::getTaskId).toList());
+    }
+}
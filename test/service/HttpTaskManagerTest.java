@@ -1,6 +1,8 @@
 package service;
 
+import constant.Status;
 import exception.KVClientException;
+import model.Epic;
 import model.Task;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,6 +11,7 @@ import server.KVServer;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.List;
 
 import static constant.Constants.KV_SERVER_URL;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -45,4 +48,33 @@ class HttpTaskManagerTest extends TaskManagerTest<HttpTaskManager> {
         assertNotNull(newTaskManager.getTaskById(task1.getId()));
         assertNotNull(newTaskManager.getTaskById(task2.getId()));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSaveAndLoadDependencies() throws IOException, InterruptedException, URISyntaxException,
+            KVClientException {
+        Task task1 = taskManager.createTask(new Task("Task1", "Task1 description"));
+        Task task2 = taskManager.createTask(new Task("Task2", "Task2 description"));
+        taskManager.addDependency(task2.getId(), task1.getId());
+
+        HttpTaskManager newTaskManager = new HttpTaskManager(KV_SERVER_URL);
+        newTaskManager.load();
+
+        assertEquals(List.of(task1.getId()), newTaskManager.getDependencies(task2.getId()));
+    }
+
+    @Test
+    public void testLoadNestedEpicsParentFirst() throws IOException, InterruptedException, URISyntaxException,
+            KVClientException {
+        Epic child = (Epic) taskManager.createTask(new Epic("Child", "Child description"));
+        Epic parent = (Epic) taskManager.createTask(new Epic("Parent", "Parent description"));
+        Epic movedChild = new Epic(child.getId(), "Child", "Child description", Status.NEW);
+        movedChild.setParentEpicId(parent.getId());
+        taskManager.updateTask(movedChild);
+
+        HttpTaskManager newTaskManager = new HttpTaskManager(KV_SERVER_URL);
+        newTaskManager.load();
+
+        assertEquals(parent.getId(), ((Epic) newTaskManager.getTaskById(child.getId())).getParentEpicId());
+        assertEquals(1, newTaskManager.getChildEpics(parent.getId()).size());
+    }
+}
@@ -86,4 +86,25 @@ class InMemoryHistoryManagerTest {
         assertEquals(1, history.size(), "There should be only one task left in history.");
         assertEquals(task1, history.get(0), "The remaining task should be task1.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBoundedHistoryEvictsLeastRecentlyViewedTask() {
+        historyManager = new InMemoryHistoryManager(2);
+        Task task1 = new Task(1, "Task1", "Task1 description");
+        Task task2 = new Task(2, "Task2", "Task2 description");
+        Task task3 = new Task(3, "Task3", "Task3 description");
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task1);
+        historyManager.add(task3);
+
+        assertEquals(List.of(task1, task3), historyManager.getHistory(), "Task2 should be evicted as the oldest view.");
+
+        historyManager.remove(task1.getId());
+        historyManager.remove(task3.getId());
+        historyManager.add(task2);
+
+        assertEquals(List.of(task2), historyManager.getHistory(), "History should be reusable after it was emptied.");
+    }
+}
@@ -1,14 +1,25 @@
 package service;
 
+import constant.RecurrenceFrequency;
 import constant.Status;
+import constant.TaskType;
+import exception.DependencyCycleException;
 import exception.MissingEpicException;
+import exception.TaskVersionConflictException;
 import exception.TimeOverlapException;
 import model.Epic;
+import model.RecurrenceRule;
 import model.Subtask;
 import model.Task;
+import model.TaskPage;
+import model.TaskSchedule;
+import model.TaskViewCount;
+import model.TimeSlot;
 import org.junit.jupiter.api.Test;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -63,7 +74,8 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         taskManager.createTask(task1);
 
         Task task2 = new Task(2, "Task2", "Task2 description", Status.NEW, startTime.plusMinutes(10), 30);
-        assertThrows(TimeOverlapException.class, () -> taskManager.createTask(task2), "An exception should be thrown due to time overlap.");
+        assertThrows(TimeOverlapException.class, () -> taskManager.createTask(task2),
+                "An exception should be thrown due to time overlap.");
     }
 
     @Test
@@ -327,4 +339,407 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(task2, history.get(0), "Task2 should be the first in history.");
         assertEquals(task1, history.get(1), "Task1 should be the second in history.");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedTasksPagedWindow() {
+        LocalDateTime startTime = LocalDateTime.of(2023, 4, 1, 8, 0);
+        for (int i = 0; i < 10; i++) {
+            taskManager.createTask(new Task(0, "Task" + i, "Task description", Status.NEW, startTime.plusHours(i), 30));
+        }
+        taskManager.createTask(new Task("Unscheduled", "Unscheduled description"));
+
+        List<Task> windowTasks = new ArrayList<>();
+        String cursor = null;
+        int pagesCount = 0;
+        do {
+            TaskPage page = taskManager.getPrioritizedTasks(startTime.plusHours(2), startTime.plusHours(7), 2, cursor);
+            windowTasks.addAll(page.getTasks());
+            cursor = page.getNextCursor();
+            pagesCount++;
+        } while (cursor != null);
+
+        assertEquals(3, pagesCount, "Five tasks in the window should be returned in three pages.");
+        assertEquals(5, windowTasks.size());
+        assertEquals(startTime.plusHours(2), windowTasks.get(0).getStartTime());
+        assertEquals(startTime.plusHours(6), windowTasks.get(4).getStartTime());
+
+        TaskPage tailPage = taskManager.getPrioritizedTasks(startTime.plusHours(9), null, 0, null);
+        assertEquals(2, tailPage.getTasks().size(), "An open window should end with unscheduled tasks.");
+        assertNull(tailPage.getTasks().get(1).getStartTime());
+        assertNull(tailPage.getNextCursor());
+    }
+
+    @Test
+    public void testGetTasksByStatus() {
+        Task task = taskManager.createTask(new Task("Task1", "Task1 description", Status.IN_PROGRESS));
+        Epic epic = (Epic) taskManager.createTask(new Epic("Epic1", "Epic1 description"));
+        Subtask subtask1 = (Subtask) taskManager.createTask(new Subtask("Subtask1", "Subtask1 description",
+                Status.IN_PROGRESS, epic.getId()));
+        taskManager.createTask(new Subtask("Subtask2", "Subtask2 description", Status.NEW, epic.getId()));
+
+        List<Task> inProgressSubtasks = taskManager.getTasksByStatus(Status.IN_PROGRESS, TaskType.SUBTASK);
+        assertEquals(1, inProgressSubtasks.size());
+        assertTrue(inProgressSubtasks.contains(subtask1));
+
+        List<Task> inProgressTasks = taskManager.getTasksByStatus(Status.IN_PROGRESS);
+        assertEquals(2, inProgressTasks.size());
+        assertTrue(inProgressTasks.contains(task));
+        assertFalse(inProgressTasks.contains(epic), "Epic with NEW and IN_PROGRESS subtasks has NEW status.");
+
+        taskManager.updateTask(new Subtask(subtask1.getId(), "Subtask1", "Subtask1 description", Status.DONE,
+                epic.getId()));
+        assertTrue(taskManager.getTasksByStatus(Status.IN_PROGRESS, TaskType.EPIC).contains(epic),
+                "Epic status change from the rollup should move the epic in the status index.");
+        assertTrue(taskManager.getTasksByStatus(Status.IN_PROGRESS, TaskType.SUBTASK).isEmpty());
+    }
+
+    @Test
+    public void testSearch() {
+        Task task = taskManager.createTask(new Task("Fix login bug", "Login fails after password reset", Status.NEW));
+        Epic epic = (Epic) taskManager.createTask(new Epic("Release", "Prepare release notes"));
+        Subtask subtask = (Subtask) taskManager.createTask(new Subtask("Login page", "Update styles", Status.NEW,
+                epic.getId()));
+
+        assertEquals(List.of(task.getId(), subtask.getId()), taskManager.search("login", 10),
+                "Task with more occurrences of the term should be ranked first.");
+        assertEquals(List.of(task.getId()), taskManager.search("LOGIN", 1));
+        assertTrue(taskManager.search("unknown", 10).isEmpty());
+
+        taskManager.updateTask(new Task(task.getId(), "Fix signup bug", "Signup fails", Status.NEW));
+        assertEquals(List.of(subtask.getId()), taskManager.search("login", 10));
+
+        taskManager.updateTask(new Epic(epic.getId(), "Login release", "Prepare release notes", Status.NEW));
+        assertTrue(taskManager.search("login", 10).contains(epic.getId()), "Epic rename should be reindexed.");
+
+        taskManager.deleteTaskById(subtask.getId());
+        assertEquals(List.of(epic.getId()), taskManager.search("login", 10));
+    }
+
+    @Test
+    public void testCreateTasks() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Epic epic = new Epic(-1, "Epic1", "Epic1 description", Status.NEW);
+        Subtask subtask1 = new Subtask(0, "Subtask1", "Subtask1 description", Status.DONE, -1, startTime, 30);
+        Subtask subtask2 = new Subtask(0, "Subtask2", "Subtask2 description", Status.DONE, -1,
+                startTime.plusMinutes(30), 30);
+        Task task = new Task(0, "Task1", "Task1 description", Status.NEW, startTime.plusHours(1), 15);
+
+        List<Task> createdTasks = taskManager.createTasks(List.of(subtask1, epic, subtask2, task));
+
+        assertEquals(4, createdTasks.size());
+        assertEquals(4, taskManager.getAllTasks().size());
+        assertEquals(epic.getId(), subtask1.getEpicId(), "Subtask should be linked to the new id of the batch epic.");
+        assertEquals(List.of(subtask1.getId(), subtask2.getId()), epic.getSubtaskIdList());
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(startTime, epic.getStartTime());
+        assertEquals(startTime.plusHours(1), epic.getEndTime());
+        assertEquals(task.getId() + 1, taskManager.createTask(new Task("Task2", "Task2 description")).getId(),
+                "Ids should be assigned to the batch as one block.");
+
+        Epic batchEpic = new Epic(epic.getId(), "Epic2", "Epic2 description", Status.NEW);
+        Subtask existingEpicSubtask = new Subtask(0, "Subtask3", "Subtask3 description", Status.NEW, epic.getId());
+        taskManager.createTasks(List.of(batchEpic, existingEpicSubtask));
+        assertEquals(epic.getId(), existingEpicSubtask.getEpicId(),
+                "A positive epic id should refer to the existing epic, not to a placeholder.");
+    }
+
+    @Test
+    public void testCreateTasksIsAtomic() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        taskManager.createTask(new Task(0, "Task1", "Task1 description", Status.NEW, startTime, 60));
+
+        List<Task> overlappingBatch = List.of(
+                new Task(0, "Task2", "Task2 description", Status.NEW, startTime.plusHours(2), 30),
+                new Task(0, "Task3", "Task3 description", Status.NEW, startTime.plusHours(2).plusMinutes(20), 30));
+        assertThrows(TimeOverlapException.class, () -> taskManager.createTasks(overlappingBatch),
+                "Tasks overlapping inside the batch should be rejected.");
+
+        List<Task> overlappingExistingBatch = List.of(
+                new Task(0, "Task4", "Task4 description", Status.NEW, startTime.plusHours(3), 30),
+                new Task(0, "Task5", "Task5 description", Status.NEW, startTime.plusMinutes(30), 30));
+        assertThrows(TimeOverlapException.class, () -> taskManager.createTasks(overlappingExistingBatch),
+                "Tasks overlapping the existing schedule should be rejected.");
+
+        List<Task> missingEpicBatch = List.of(
+                new Task(0, "Task6", "Task6 description", Status.NEW, startTime.plusHours(4), 30),
+                new Subtask("Subtask1", "Subtask1 description", Status.NEW, 999));
+        assertThrows(MissingEpicException.class, () -> taskManager.createTasks(missingEpicBatch));
+
+        Epic epic = new Epic(-1, "Epic1", "Epic1 description", Status.NEW);
+        Subtask subtask = new Subtask(0, "Subtask1", "Subtask1 description", Status.NEW, -1,
+                startTime.plusMinutes(30), 30);
+        assertThrows(TimeOverlapException.class, () -> taskManager.createTasks(List.of(epic, subtask)));
+        assertEquals(-1, epic.getId(), "A rejected batch should not change the given tasks.");
+        assertEquals(-1, subtask.getEpicId(), "A rejected batch should not change the given tasks.");
+        assertThrows(MissingEpicException.class, () -> taskManager.createTasks(List.of(
+                new Subtask(0, "Subtask2", "Subtask2 description", Status.NEW, -2))));
+
+        assertEquals(1, taskManager.getAllTasks().size(), "A rejected batch should not add any task.");
+        assertEquals(2, taskManager.createTask(new Task("Task7", "Task7 description")).getId(),
+                "A rejected batch should not take ids.");
+    }
+
+    @Test
+    public void testFindFreeSlots() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        taskManager.createTask(new Task(0, "Task1", "Task1 description", Status.NEW, startTime.minusMinutes(30), 60));
+        taskManager.createTask(new Task(0, "Task2", "Task2 description", Status.NEW, startTime.plusMinutes(60), 60));
+        taskManager.createTask(new Task(0, "Task3", "Task3 description", Status.NEW, startTime.plusMinutes(150), 30));
+        taskManager.createTask(new Task(0, "Task4", "Task4 description", Status.NEW, startTime.plusMinutes(270), 30));
+
+        List<TimeSlot> freeSlots = taskManager.findFreeSlots(startTime, 90, 3);
+
+        assertEquals(2, freeSlots.size(), "Gaps shorter than the duration should be skipped.");
+        assertEquals(startTime.plusMinutes(180), freeSlots.get(0).getStartTime());
+        assertEquals(startTime.plusMinutes(270), freeSlots.get(0).getEndTime());
+        assertEquals(startTime.plusMinutes(300), freeSlots.get(1).getStartTime(),
+                "The last slot should follow the latest task.");
+
+        assertEquals(startTime.plusMinutes(30), taskManager.findFreeSlots(startTime, 30, 1).get(0).getStartTime(),
+                "A task started before the requested time should be taken into account.");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.findFreeSlots(startTime, 0, 1));
+    }
+
+    @Test
+    public void testGetTasksForDayAndWeek() {
+        LocalDateTime monday = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Epic epic = (Epic) taskManager.createTask(new Epic("Epic1", "Epic1 description"));
+        Task task1 = taskManager.createTask(
+                new Task(0, "Task1", "Task1 description", Status.NEW, monday.plusHours(5), 60));
+        Subtask subtask = (Subtask) taskManager.createTask(
+                new Subtask(0, "Subtask1", "Subtask1 description", Status.NEW, epic.getId(), monday, 60));
+        Task multiDayTask = taskManager.createTask(
+                new Task(0, "Task2", "Task2 description", Status.NEW, monday.plusDays(1).plusHours(12), 24 * 60));
+        Task nextWeekTask = taskManager.createTask(
+                new Task(0, "Task3", "Task3 description", Status.NEW, monday.plusDays(7), 30));
+        taskManager.createTask(new Task("Task4", "Unscheduled task"));
+
+        assertEquals(List.of(subtask, task1), taskManager.getTasksForDay(monday.toLocalDate()));
+        assertEquals(List.of(multiDayTask), taskManager.getTasksForDay(monday.toLocalDate().plusDays(2)),
+                "A task spanning midnight should be in the buckets of both days.");
+        assertEquals(List.of(subtask, task1, multiDayTask),
+                taskManager.getTasksForWeek(monday.toLocalDate().plusDays(3)));
+
+        taskManager.updateTask(new Task(task1.getId(), "Task1", "Task1 description", Status.NEW,
+                monday.plusDays(7).plusHours(1), 60));
+        taskManager.deleteTaskById(subtask.getId());
+        assertTrue(taskManager.getTasksForDay(monday.toLocalDate()).isEmpty());
+        assertEquals(List.of(nextWeekTask, taskManager.getTaskById(task1.getId())),
+                taskManager.getTasksForWeek(monday.toLocalDate().plusDays(7)));
+    }
+
+    @Test
+    public void testGetTasksForDayWithLongTask() {
+        LocalDateTime startTime = LocalDateTime.of(2024, 1, 1, 9, 0);
+        Task longTask = taskManager.createTask(
+                new Task(0, "Task1", "Task1 description", Status.NEW, startTime, Integer.MAX_VALUE));
+        LocalDate lastDay = longTask.getEndTime().toLocalDate();
+
+        assertEquals(List.of(longTask), taskManager.getTasksForDay(startTime.toLocalDate()));
+        assertEquals(List.of(longTask), taskManager.getTasksForDay(startTime.toLocalDate().plusYears(1000)));
+        assertEquals(List.of(longTask), taskManager.getTasksForWeek(lastDay));
+        assertTrue(taskManager.getTasksForDay(lastDay.plusDays(1)).isEmpty());
+        assertTrue(taskManager.getTasksForDay(startTime.toLocalDate().minusDays(1)).isEmpty());
+
+        taskManager.deleteTaskById(longTask.getId());
+        assertTrue(taskManager.getTasksForDay(startTime.toLocalDate()).isEmpty());
+    }
+
+    @Test
+    public void testTaskDependencies() {
+        Epic epic = (Epic) taskManager.createTask(new Epic("Epic1", "Epic1 description"));
+        Task design = taskManager.createTask(new Task(0, "Design", "Design description", Status.NEW, null, 60));
+        Task build = taskManager.createTask(new Task(0, "Build", "Build description", Status.NEW, null, 120));
+        Subtask review = (Subtask) taskManager.createTask(
+                new Subtask(0, "Review", "Review description", Status.NEW, epic.getId(), null, 30));
+        Task docs = taskManager.createTask(new Task(0, "Docs", "Docs description", Status.NEW, null, 90));
+
+        taskManager.addDependency(build.getId(), design.getId());
+        taskManager.addDependency(review.getId(), build.getId());
+        taskManager.addDependency(review.getId(), docs.getId());
+
+        TaskSchedule reviewSchedule = taskManager.getTaskSchedule(review.getId());
+        assertEquals(180, reviewSchedule.getEarliestStartInMinutes());
+        assertEquals(210, reviewSchedule.getEarliestFinishInMinutes());
+        assertEquals(List.of(design, build, review), taskManager.getCriticalPath());
+        assertEquals(List.of(build.getId(), docs.getId()), taskManager.getDependencies(review.getId()));
+
+        assertThrows(DependencyCycleException.class, () -> taskManager.addDependency(design.getId(), review.getId()));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addDependency(review.getId(), epic.getId()));
+
+        taskManager.updateTask(new Task(docs.getId(), "Docs", "Docs description", Status.NEW, null, 240));
+        assertEquals(240, taskManager.getTaskSchedule(review.getId()).getEarliestStartInMinutes(),
+                "A longer blocker should push the earliest start of the tasks it blocks.");
+        assertEquals(List.of(docs.getId(), review.getId()),
+                taskManager.getCriticalPath().stream().map(Task::getId).toList());
+
+        taskManager.deleteTaskById(docs.getId());
+        assertEquals(180, taskManager.getTaskSchedule(review.getId()).getEarliestStartInMinutes());
+        taskManager.removeDependency(build.getId(), design.getId());
+        assertEquals(0, taskManager.getTaskSchedule(build.getId()).getEarliestStartInMinutes());
+        assertEquals(150, taskManager.getTaskSchedule(review.getId()).getEarliestFinishInMinutes());
+
+        Task audit = taskManager.createTask(new Task(0, "Audit", "Audit description", Status.NEW, null, 300));
+        assertEquals(300, taskManager.getTaskSchedule(audit.getId()).getEarliestFinishInMinutes(),
+                "A task without dependencies should start at zero.");
+        assertEquals(List.of(audit), taskManager.getCriticalPath());
+        taskManager.removeDependency(review.getId(), build.getId());
+        assertEquals(60, taskManager.getTaskSchedule(design.getId()).getEarliestFinishInMinutes());
+        assertEquals(0, taskManager.getTaskSchedule(review.getId()).getEarliestStartInMinutes());
+        taskManager.addDependency(design.getId(), audit.getId());
+        assertEquals(List.of(audit, design), taskManager.getCriticalPath());
+    }
+
+    @Test
+    public void testUpdateTaskWithExpectedVersion() {
+        Task task = taskManager.createTask(new Task("Task1", "Task1 description"));
+        int initialVersion = taskManager.getTaskById(task.getId()).getVersion();
+
+        taskManager.updateTask(new Task(task.getId(), "Task1", "First edit", Status.IN_PROGRESS), initialVersion);
+        assertEquals(initialVersion + 1, taskManager.getTaskById(task.getId()).getVersion());
+
+        assertThrows(TaskVersionConflictException.class,
+                () -> taskManager.updateTask(new Task(task.getId(), "Task1", "Stale edit", Status.DONE),
+                        initialVersion));
+        assertEquals("First edit", taskManager.getTaskById(task.getId()).getDescription(),
+                "A stale update should not replace the stored task.");
+
+        taskManager.updateTask(new Task(task.getId(), "Task1", "Blind edit", Status.DONE));
+        assertEquals(initialVersion + 2, taskManager.getTaskById(task.getId()).getVersion());
+    }
+
+    @Test
+    public void testRecurringTasks() {
+        RecurrenceRule dailyRule = new RecurrenceRule(RecurrenceFrequency.DAILY, 1);
+        dailyRule.excludeOccurrence(LocalDateTime.of(2024, 1, 3, 9, 0));
+        Task standup = new Task(0, "Standup", "Standup description", Status.NEW,
+                LocalDateTime.of(2024, 1, 1, 9, 0), 15);
+        standup.setRecurrenceRule(dailyRule);
+        taskManager.createTask(standup);
+        Task review = new Task(0, "Review", "Review description", Status.NEW, LocalDateTime.of(2024, 1, 2, 10, 0), 60);
+        taskManager.createTask(review);
+
+        List<Task> window = taskManager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 5, 0, 0), 0, null).getTasks();
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 2, 9, 0),
+                        LocalDateTime.of(2024, 1, 2, 10, 0), LocalDateTime.of(2024, 1, 4, 9, 0)),
+                window.stream().map(Task::getStartTime).toList(), "Occurrences should be expanded within the window.");
+        assertEquals(2, taskManager.getAllTasks().size(), "Only the series itself should be stored.");
+        List<Task> tail = taskManager.getPrioritizedTasks(LocalDateTime.of(2024, 1, 3, 0, 0), null, 0, null)
+                .getTasks();
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 4, 9, 0)), tail.stream().map(Task::getStartTime).toList(),
+                "An ongoing series should be listed at its first occurrence after the lower bound.");
+        assertEquals(1, taskManager.getTasksForDay(LocalDate.of(2024, 3, 1)).size());
+
+        assertThrows(TimeOverlapException.class, () -> taskManager.createTask(
+                new Task(0, "Meeting", "Meeting description", Status.NEW, LocalDateTime.of(2024, 2, 10, 9, 10), 30)));
+        Task meeting = taskManager.createTask(
+                new Task(0, "Meeting", "Meeting description", Status.NEW, LocalDateTime.of(2024, 1, 3, 9, 0), 30));
+        assertNotNull(meeting, "A skipped occurrence should free its time.");
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 15),
+                taskManager.findFreeSlots(LocalDateTime.of(2024, 1, 1, 9, 0), 30, 1).get(0).getStartTime());
+    }
+
+    @Test
+    public void testRecurringSeriesOverlapYearsLater() {
+        Task weekly = new Task(0, "Weekly", "Weekly description", Status.NEW, LocalDateTime.of(2024, 1, 1, 9, 0), 30);
+        weekly.setRecurrenceRule(new RecurrenceRule(RecurrenceFrequency.WEEKLY, 1));
+        taskManager.createTask(weekly);
+
+        Task yearly = new Task(0, "Yearly", "Yearly description", Status.NEW, LocalDateTime.of(2024, 1, 2, 9, 0), 30);
+        yearly.setRecurrenceRule(new RecurrenceRule(RecurrenceFrequency.DAILY, 365));
+        assertThrows(TimeOverlapException.class, () -> taskManager.createTask(yearly),
+                "The series first meet on a Monday six years later.");
+
+        yearly.setRecurrenceRule(new RecurrenceRule(RecurrenceFrequency.DAILY, 365,
+                LocalDateTime.of(2026, 1, 1, 0, 0)));
+        assertNotNull(taskManager.createTask(yearly), "A series ending before they meet should be accepted.");
+
+        Task longYearly = new Task(0, "Yearly", "Yearly description", Status.NEW,
+                LocalDateTime.of(2024, 1, 3, 9, 0), 30);
+        longYearly.setRecurrenceRule(new RecurrenceRule(RecurrenceFrequency.DAILY, 365,
+                LocalDateTime.of(2040, 1, 1, 0, 0)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.createTask(longYearly),
+                "A pair repeating too rarely to scan should be rejected.");
+    }
+
+    @Test
+    public void testNestedEpics() {
+        Epic initiative = (Epic) taskManager.createTask(new Epic("Initiative", "Initiative description"));
+        Epic epic = new Epic("Epic1", "Epic1 description");
+        epic.setParentEpicId(initiative.getId());
+        taskManager.createTask(epic);
+        Epic otherEpic = new Epic("Epic2", "Epic2 description");
+        otherEpic.setParentEpicId(initiative.getId());
+        taskManager.createTask(otherEpic);
+        taskManager.createTask(new Subtask(0, "Subtask1", "Subtask1 description", Status.DONE, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 9, 0), 30));
+        Subtask subtask = (Subtask) taskManager.createTask(new Subtask(0, "Subtask2", "Subtask2 description",
+                Status.DONE, otherEpic.getId(), LocalDateTime.of(2024, 1, 2, 9, 0), 60));
+
+        Task storedInitiative = taskManager.getTaskById(initiative.getId());
+        assertEquals(Status.DONE, storedInitiative.getStatus(), "Subtask statuses should roll up to the initiative.");
+        assertEquals(LocalDateTime.of(2024, 1, 1, 9, 0), storedInitiative.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 10, 0), storedInitiative.getEndTime());
+        assertEquals(90, storedInitiative.getDurationInMinutes());
+        assertEquals(2, taskManager.getChildEpics(initiative.getId()).size());
+
+        taskManager.updateTask(new Subtask(subtask.getId(), "Subtask2", "Subtask2 description", Status.NEW,
+                otherEpic.getId(), LocalDateTime.of(2024, 1, 2, 9, 0), 60));
+        assertEquals(Status.IN_PROGRESS, taskManager.getTaskById(initiative.getId()).getStatus());
+
+        Epic cycle = new Epic(initiative.getId(), "Initiative", "Initiative description", Status.NEW);
+        cycle.setParentEpicId(epic.getId());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.updateTask(cycle));
+        Epic orphan = new Epic("Orphan", "Orphan description");
+        orphan.setParentEpicId(-1);
+        assertThrows(MissingEpicException.class, () -> taskManager.createTask(orphan));
+
+        taskManager.deleteTaskById(otherEpic.getId());
+        assertEquals(Status.DONE, taskManager.getTaskById(initiative.getId()).getStatus());
+        assertNull(taskManager.getTaskById(subtask.getId()), "Deleting an epic should delete its subtasks.");
+
+        taskManager.deleteTaskById(initiative.getId());
+        assertNull(taskManager.getTaskById(epic.getId()), "Deleting an epic should delete its child epics.");
+    }
+
+    @Test
+    public void testHistoryPerUser() {
+        Task task1 = taskManager.createTask(new Task("Task1", "Task1 description"));
+        Task task2 = taskManager.createTask(new Task("Task2", "Task2 description"));
+
+        taskManager.getTaskById(task1.getId(), "alice");
+        taskManager.getTaskById(task2.getId(), "alice");
+        taskManager.getTaskById(task2.getId(), "bob");
+        taskManager.getTaskById(task1.getId(), "alice");
+
+        assertEquals(List.of(task2.getId(), task1.getId()),
+                taskManager.getHistory("alice").stream().map(Task::getId).toList());
+        assertEquals(List.of(task2.getId()), taskManager.getHistory("bob").stream().map(Task::getId).toList());
+        assertTrue(taskManager.getHistory("carol").isEmpty());
+
+        taskManager.deleteTaskById(task2.getId());
+        assertEquals(List.of(task1.getId()), taskManager.getHistory("alice").stream().map(Task::getId).toList(),
+                "Deleted tasks should not be returned from a user history.");
+    }
+
+    @Test
+    public void testGetHotTasks() {
+        Task task1 = taskManager.createTask(new Task("Task1", "Task1 description"));
+        Task task2 = taskManager.createTask(new Task("Task2", "Task2 description"));
+        Task task3 = taskManager.createTask(new Task("Task3", "Task3 description"));
+        for (Task task : List.of(task2, task3, task2, task1, task2, task3)) {
+            taskManager.getTaskById(task.getId());
+        }
+
+        List<TaskViewCount> hotTasks = taskManager.getHotTasks(2);
+        assertEquals(List.of(task2.getId(), task3.getId()), hotTasks.stream().map(TaskViewCount::getTaskId).toList());
+        assertEquals(3, hotTasks.get(0).getEstimatedViewCount());
+
+        taskManager.deleteTaskById(task2.getId());
+        assertEquals(List.of(task3.getId(), task1.getId()),
+                taskManager.getHotTasks(5).stream().map(TaskViewCount::getTaskId).toList(),
+                "Deleted tasks should not be reported as hot.");
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getHotTasks(0));
+    }
+}
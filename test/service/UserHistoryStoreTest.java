@@ -0,0 +1,64 @@
+package service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UserHistoryStoreTest {
+
+    private static class ManualClock extends Clock {
+        private Instant instant = Instant.parse("2024-01-01T10:00:00Z");
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+
+    @Test
+    public void testHistoryKeepsLatestViewsUpToCapacity() {
+        UserHistoryStore userHistoryStore = new UserHistoryStore(3, Duration.ofHours(1), new ManualClock());
+
+        for (int taskId : new int[]{1, 2, 3, 4, 5, 6, 2}) {
+            userHistoryStore.add("alice", taskId);
+        }
+
+        assertArrayEquals(new int[]{5, 6, 2}, userHistoryStore.getTaskIds("alice"));
+    }
+
+    @Test
+    public void testIdleHistoriesAreEvicted() {
+        ManualClock clock = new ManualClock();
+        UserHistoryStore userHistoryStore = new UserHistoryStore(3, Duration.ofHours(1), clock);
+
+        userHistoryStore.add("alice", 1);
+        clock.advance(Duration.ofMinutes(40));
+        userHistoryStore.add("bob", 2);
+        clock.advance(Duration.ofMinutes(30));
+
+        assertEquals(1, userHistoryStore.size(), "Alice has been idle for more than an hour.");
+        assertArrayEquals(new int[0], userHistoryStore.getTaskIds("alice"));
+        assertArrayEquals(new int[]{2}, userHistoryStore.getTaskIds("bob"));
+    }
+}